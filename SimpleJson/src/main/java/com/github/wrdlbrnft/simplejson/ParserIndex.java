@@ -0,0 +1,14 @@
+package com.github.wrdlbrnft.simplejson;
+
+import com.github.wrdlbrnft.simplejson.parsers.Parser;
+
+/**
+ * Generated by the annotation processor for each module as {@code SimpleJsonIndex}. It lists all
+ * entities of the module and creates their parsers on demand, install it with
+ * {@link SimpleJson#install(ParserIndex)}.
+ */
+public interface ParserIndex {
+    int getEntityCount();
+    Class<?> getEntityType(int position);
+    Parser<?> getParser(int position);
+}
@@ -0,0 +1,80 @@
+package com.github.wrdlbrnft.simplejson;
+
+import com.github.wrdlbrnft.simplejson.exceptions.SimpleJsonException;
+import com.github.wrdlbrnft.simplejson.parsers.Parser;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry which maps entity classes to their parsers. Parsers are registered by their generated
+ * factories as soon as those are loaded and can be made available up front by installing the generated
+ * {@link ParserIndex} of a module. Entries of an index are resolved lazily, so installing it does not
+ * load any factory.
+ */
+public final class SimpleJson {
+
+    private static final ConcurrentMap<Class<?>, Parser<?>> PARSERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, IndexEntry> INDEX_ENTRIES = new ConcurrentHashMap<>();
+
+    private SimpleJson() {
+
+    }
+
+    public static void install(ParserIndex index) {
+        for (int i = 0, count = index.getEntityCount(); i < count; i++) {
+            INDEX_ENTRIES.put(index.getEntityType(i), new IndexEntry(index, i));
+        }
+    }
+
+    public static <T> Parser<T> registerParser(Class<T> type, Parser<T> parser) {
+        PARSERS.put(type, parser);
+        return parser;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Parser<T> getParser(Class<T> type) throws SimpleJsonException {
+        final Parser<T> parser = (Parser<T>) PARSERS.get(type);
+        if (parser != null) {
+            return parser;
+        }
+
+        final IndexEntry entry = INDEX_ENTRIES.get(type);
+        if (entry == null) {
+            throw new SimpleJsonException("No parser registered for " + type.getName() + ". Is it annotated with @JsonEntity and have you installed the SimpleJsonIndex of its module?");
+        }
+
+        final Parser<T> indexedParser = (Parser<T>) entry.mIndex.getParser(entry.mPosition);
+        PARSERS.putIfAbsent(type, indexedParser);
+        return indexedParser;
+    }
+
+    public static <T> T fromJson(Class<T> type, String json) throws SimpleJsonException {
+        return getParser(type).fromJson(json);
+    }
+
+    public static <T> List<T> fromJsonArray(Class<T> type, String json) throws SimpleJsonException {
+        return getParser(type).fromJsonArray(json);
+    }
+
+    public static <T> String toJson(Class<T> type, T entity) throws SimpleJsonException {
+        return getParser(type).toJson(entity);
+    }
+
+    public static <T> String toJson(Class<T> type, Collection<T> entities) throws SimpleJsonException {
+        return getParser(type).toJson(entities);
+    }
+
+    private static class IndexEntry {
+
+        private final ParserIndex mIndex;
+        private final int mPosition;
+
+        private IndexEntry(ParserIndex index, int position) {
+            mIndex = index;
+            mPosition = position;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.wrdlbrnft.simplejson;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Used by the generated implementations of entities without setters to wrap their collections. Those
+ * entities cache their hash code and may be interned, so nobody must be able to change them through a
+ * getter. Collections which are already wrapped, for example because they were taken over from another
+ * entity by {@code applyPatch()}, are not wrapped again.
+ */
+public final class UnmodifiableCollections {
+
+    private static final Class<?> UNMODIFIABLE_LIST = Collections.unmodifiableList(new LinkedList<Object>()).getClass();
+    private static final Class<?> UNMODIFIABLE_RANDOM_ACCESS_LIST = Collections.unmodifiableList(new ArrayList<Object>()).getClass();
+    private static final Class<?> UNMODIFIABLE_SET = Collections.unmodifiableSet(new HashSet<Object>()).getClass();
+    private static final Class<?> UNMODIFIABLE_MAP = Collections.unmodifiableMap(new HashMap<Object, Object>()).getClass();
+
+    private UnmodifiableCollections() {
+
+    }
+
+    public static <T> List<T> list(List<T> list) {
+        if (list == null || list.getClass() == UNMODIFIABLE_LIST || list.getClass() == UNMODIFIABLE_RANDOM_ACCESS_LIST) {
+            return list;
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    public static <T> Set<T> set(Set<T> set) {
+        if (set == null || set.getClass() == UNMODIFIABLE_SET) {
+            return set;
+        }
+        return Collections.unmodifiableSet(set);
+    }
+
+    public static <K, V> Map<K, V> map(Map<K, V> map) {
+        if (map == null || map.getClass() == UNMODIFIABLE_MAP) {
+            return map;
+        }
+        return Collections.unmodifiableMap(map);
+    }
+}
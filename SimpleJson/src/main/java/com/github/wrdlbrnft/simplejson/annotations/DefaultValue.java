@@ -0,0 +1,17 @@
+package com.github.wrdlbrnft.simplejson.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Defines the value of a {@code String}, {@code int}, {@code long}, {@code double} or {@code boolean}
+ * field if it is missing from the JSON. Entities which omit default values don't write the field if it
+ * has this value.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface DefaultValue {
+    String value();
+}
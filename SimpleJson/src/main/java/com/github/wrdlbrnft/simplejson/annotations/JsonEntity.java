@@ -12,4 +12,26 @@ import java.lang.annotation.Target;
 @Target(ElementType.TYPE)
 public @interface JsonEntity {
     String factoryName() default "";
+
+    /**
+     * Don't write {@link Optional} fields which are {@code null}.
+     */
+    boolean omitNulls() default false;
+
+    /**
+     * Don't write {@link Optional} collections and maps which are empty.
+     */
+    boolean omitEmpty() default false;
+
+    /**
+     * Don't write fields which are equal to their {@link DefaultValue}.
+     */
+    boolean omitDefaults() default false;
+
+    /**
+     * Pass each decoded instance through an {@code EntityInterner} so equal instances are shared
+     * instead of duplicated. Only entities without setters whose values can't change either can be
+     * interned.
+     */
+    boolean intern() default false;
 }
@@ -0,0 +1,18 @@
+package com.github.wrdlbrnft.simplejson.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the subtypes of a {@link JsonEntity}. Each subtype has to be a {@link JsonEntity} itself and
+ * is annotated with {@link MapTo} to define the value of the discriminator {@link #key()} which selects
+ * it. More specific subtypes have to be listed before less specific ones.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface JsonSubTypes {
+    String key() default "type";
+    Class<?>[] value();
+}
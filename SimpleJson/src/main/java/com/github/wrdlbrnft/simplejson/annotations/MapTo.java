@@ -9,7 +9,7 @@ import java.lang.annotation.Target;
  * Created by kapeller on 21/04/15.
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.FIELD)
+@Target({ElementType.FIELD, ElementType.TYPE})
 public @interface MapTo {
     String value();
 }
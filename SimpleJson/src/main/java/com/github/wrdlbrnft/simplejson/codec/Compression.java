@@ -0,0 +1,23 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+/**
+ * The compression of JSON which is read from an {@link java.io.InputStream} or written to an
+ * {@link java.io.OutputStream}.
+ */
+public enum Compression {
+
+    /**
+     * Plain UTF-8 encoded JSON.
+     */
+    NONE,
+
+    /**
+     * The gzip file format as described in RFC 1952, which is used by {@code Content-Encoding: gzip}.
+     */
+    GZIP,
+
+    /**
+     * The zlib format as described in RFC 1950, which is used by {@code Content-Encoding: deflate}.
+     */
+    DEFLATE
+}
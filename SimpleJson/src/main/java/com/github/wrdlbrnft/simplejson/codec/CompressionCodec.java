@@ -0,0 +1,421 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import com.github.wrdlbrnft.simplejson.exceptions.LimitExceededException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads and writes UTF-8 encoded JSON with an optional {@link Compression}. The {@link Inflater} and
+ * {@link Deflater} hold native memory, so they are created once and reset for each document instead of
+ * going through {@link java.util.zip.GZIPInputStream} and friends which create new ones every time.
+ * <p>
+ * Compressed and UTF-8 encoded data only ever passes through buffers of a fixed size. Input is inflated
+ * and decoded chunk by chunk into a {@code char[]}, output is encoded and deflated chunk by chunk from
+ * the {@link CharSequence} it was written to. The whole document is still held as chars though, this
+ * is not an incremental JSON parser.
+ */
+final class CompressionCodec {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final int CHARS_PER_CHUNK = CHUNK_SIZE / 3;
+    private static final int MAX_INCOMPLETE_TAIL = 3;
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private static final int GZIP_MAGIC = 0x8B1F;
+    private static final int GZIP_METHOD_DEFLATE = 8;
+    private static final int GZIP_FLAG_HEADER_CRC = 2;
+    private static final int GZIP_FLAG_EXTRA = 4;
+    private static final int GZIP_FLAG_NAME = 8;
+    private static final int GZIP_FLAG_COMMENT = 16;
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final byte[] GZIP_HEADER = {
+            (byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), GZIP_METHOD_DEFLATE, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private final byte[] mChunk = new byte[CHUNK_SIZE];
+    private final byte[] mBytes = new byte[CHUNK_SIZE + MAX_INCOMPLETE_TAIL];
+    private final CRC32 mCrc = new CRC32();
+
+    private char[] mChars = new char[DEFAULT_BUFFER_SIZE];
+    private int mCharCount;
+    private int mPendingBytes;
+    private int mChunkPosition;
+    private int mChunkLength;
+
+    private Inflater mZlibInflater;
+    private Inflater mRawInflater;
+    private Deflater mZlibDeflater;
+    private Deflater mRawDeflater;
+
+    /**
+     * Reads the entire stream and decodes it. The chars are available through {@link #getChars()} and
+     * {@link #getCharCount()} afterwards. The stream is not closed.
+     *
+     * @param maxSize Reading stops with a {@link LimitExceededException} as soon as the uncompressed
+     *                data gets larger than this.
+     * @return The number of uncompressed bytes.
+     */
+    int read(InputStream input, Compression compression, int maxSize) throws IOException {
+        mCharCount = 0;
+        mPendingBytes = 0;
+        mChunkPosition = 0;
+        mChunkLength = 0;
+
+        int count;
+        switch (compression) {
+
+            case NONE:
+                count = readFully(input, maxSize);
+                break;
+
+            case DEFLATE:
+                if (mZlibInflater == null) {
+                    mZlibInflater = new Inflater();
+                }
+                count = inflate(input, mZlibInflater, 0, maxSize, false);
+                break;
+
+            case GZIP:
+                if (mRawInflater == null) {
+                    mRawInflater = new Inflater(true);
+                }
+                readGzipHeader(input);
+                count = 0;
+                do {
+                    final int memberStart = count;
+                    count = inflate(input, mRawInflater, memberStart, maxSize, true);
+                    readGzipTrailer(input, count - memberStart);
+                } while (readNextGzipHeader(input));
+                break;
+
+            default:
+                throw new IllegalStateException("Encountered unknown Compression " + compression);
+        }
+
+        decodePendingBytes(0, true);
+        return count;
+    }
+
+    char[] getChars() {
+        return mChars;
+    }
+
+    int getCharCount() {
+        return mCharCount;
+    }
+
+    /**
+     * Encodes {@code json} as UTF-8 and writes it to the stream. The stream is neither flushed nor closed.
+     *
+     * @return The number of uncompressed bytes.
+     */
+    int write(CharSequence json, OutputStream output, Compression compression) throws IOException {
+        final Deflater deflater;
+        switch (compression) {
+
+            case NONE:
+                deflater = null;
+                break;
+
+            case DEFLATE:
+                if (mZlibDeflater == null) {
+                    mZlibDeflater = new Deflater();
+                }
+                deflater = mZlibDeflater;
+                break;
+
+            case GZIP:
+                if (mRawDeflater == null) {
+                    mRawDeflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+                }
+                deflater = mRawDeflater;
+                output.write(GZIP_HEADER);
+                break;
+
+            default:
+                throw new IllegalStateException("Encountered unknown Compression " + compression);
+        }
+
+        if (deflater != null) {
+            deflater.reset();
+        }
+        mCrc.reset();
+
+        final int length = json.length();
+        int count = 0;
+        for (int start = 0; start < length; ) {
+            int end = Math.min(start + CHARS_PER_CHUNK, length);
+            if (end < length && Character.isHighSurrogate(json.charAt(end - 1))) {
+                end--;
+            }
+
+            final int byteCount = Utf8.encode(json, start, end, mBytes);
+            if (deflater != null) {
+                deflater.setInput(mBytes, 0, byteCount);
+                while (!deflater.needsInput()) {
+                    output.write(mChunk, 0, deflater.deflate(mChunk, 0, CHUNK_SIZE));
+                }
+            } else {
+                output.write(mBytes, 0, byteCount);
+            }
+
+            if (compression == Compression.GZIP) {
+                mCrc.update(mBytes, 0, byteCount);
+            }
+            count += byteCount;
+            start = end;
+        }
+
+        if (deflater != null) {
+            deflater.finish();
+            while (!deflater.finished()) {
+                output.write(mChunk, 0, deflater.deflate(mChunk, 0, CHUNK_SIZE));
+            }
+        }
+
+        if (compression == Compression.GZIP) {
+            writeIntLittleEndian(output, (int) mCrc.getValue());
+            writeIntLittleEndian(output, count);
+        }
+
+        return count;
+    }
+
+    void trim(int maxRetainedSize) {
+        if (mChars.length > maxRetainedSize) {
+            mChars = new char[DEFAULT_BUFFER_SIZE];
+        }
+    }
+
+    /**
+     * Frees the native memory of the {@link Inflater}s and {@link Deflater}s. They are created again if
+     * the codec is used afterwards.
+     */
+    void end() {
+        if (mZlibInflater != null) {
+            mZlibInflater.end();
+            mZlibInflater = null;
+        }
+        if (mRawInflater != null) {
+            mRawInflater.end();
+            mRawInflater = null;
+        }
+        if (mZlibDeflater != null) {
+            mZlibDeflater.end();
+            mZlibDeflater = null;
+        }
+        if (mRawDeflater != null) {
+            mRawDeflater.end();
+            mRawDeflater = null;
+        }
+    }
+
+    private int readFully(InputStream input, int maxSize) throws IOException {
+        int count = 0;
+        int read;
+        while ((read = input.read(mBytes, mPendingBytes, CHUNK_SIZE)) >= 0) {
+            count += read;
+            checkSize(count, maxSize);
+            decodePendingBytes(read, false);
+        }
+        return count;
+    }
+
+    /**
+     * Inflates compressed data until its end. The compressed bytes are read through {@link #mChunk}, the
+     * ones which follow the compressed data are left in it.
+     *
+     * @param count The number of uncompressed bytes which were read before.
+     * @return The number of uncompressed bytes including the ones which were read before.
+     */
+    private int inflate(InputStream input, Inflater inflater, int count, int maxSize, boolean checksum) throws IOException {
+        inflater.reset();
+        mCrc.reset();
+
+        try {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    if (!fillChunk(input)) {
+                        throw new EOFException("Unexpected end of compressed JSON");
+                    }
+                    inflater.setInput(mChunk, mChunkPosition, mChunkLength - mChunkPosition);
+                    mChunkPosition = mChunkLength;
+                } else if (inflater.needsDictionary()) {
+                    throw new ZipException("Compressed JSON with a preset dictionary is not supported");
+                } else {
+                    final int inflated = inflater.inflate(mBytes, mPendingBytes, CHUNK_SIZE);
+                    count += inflated;
+                    checkSize(count, maxSize);
+                    if (checksum) {
+                        mCrc.update(mBytes, mPendingBytes, inflated);
+                    }
+                    decodePendingBytes(inflated, false);
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Compressed JSON is corrupted: " + e.getMessage());
+        }
+
+        mChunkPosition = mChunkLength - inflater.getRemaining();
+        return count;
+    }
+
+    /**
+     * Decodes the bytes left over from the last chunk together with {@code newBytes} bytes which were
+     * just read behind them. A multi byte sequence at the end which is cut off is kept for the next
+     * chunk unless this is the last one.
+     */
+    private void decodePendingBytes(int newBytes, boolean last) {
+        final int length = mPendingBytes + newBytes;
+        final int tail = last ? 0 : Utf8.incompleteTail(mBytes, 0, length);
+        final int decodedLength = length - tail;
+
+        final char[] chars = ensureCharCapacity(mCharCount + decodedLength);
+        mCharCount += Utf8.decode(mBytes, 0, decodedLength, chars, mCharCount);
+
+        System.arraycopy(mBytes, decodedLength, mBytes, 0, tail);
+        mPendingBytes = tail;
+    }
+
+    private static void checkSize(int count, int maxSize) {
+        if (count > maxSize) {
+            throw new LimitExceededException("The document is larger than the maximum of " + maxSize + " bytes");
+        }
+    }
+
+    /**
+     * Reads the header of a gzip member. Its CRC is only checked if the header contains one.
+     */
+    private void readGzipHeader(InputStream input) throws IOException {
+        mCrc.reset();
+        if (readHeaderShort(input) != GZIP_MAGIC) {
+            throw new ZipException("Compressed JSON is not in gzip format");
+        }
+        if (readHeaderByte(input) != GZIP_METHOD_DEFLATE) {
+            throw new ZipException("Compressed JSON uses an unsupported compression method");
+        }
+
+        final int flags = readHeaderByte(input);
+        for (int i = 0; i < 6; i++) {
+            readHeaderByte(input);
+        }
+
+        if ((flags & GZIP_FLAG_EXTRA) != 0) {
+            for (int i = readHeaderShort(input); i > 0; i--) {
+                readHeaderByte(input);
+            }
+        }
+        if ((flags & GZIP_FLAG_NAME) != 0) {
+            skipZeroTerminated(input);
+        }
+        if ((flags & GZIP_FLAG_COMMENT) != 0) {
+            skipZeroTerminated(input);
+        }
+        if ((flags & GZIP_FLAG_HEADER_CRC) != 0) {
+            final int crc = (int) mCrc.getValue() & 0xFFFF;
+            if (readShortLittleEndian(input) != crc) {
+                throw new ZipException("Compressed JSON is corrupted: header CRC mismatch");
+            }
+        }
+    }
+
+    /**
+     * Reads the header of the next member if there is one. Just like {@link java.util.zip.GZIPInputStream}
+     * all members of a gzip file are read as one document and data after the last member which is not
+     * a valid gzip header is ignored.
+     */
+    private boolean readNextGzipHeader(InputStream input) throws IOException {
+        if (!fillChunk(input)) {
+            return false;
+        }
+
+        try {
+            readGzipHeader(input);
+            return true;
+        } catch (ZipException | EOFException e) {
+            return false;
+        }
+    }
+
+    private void readGzipTrailer(InputStream input, int count) throws IOException {
+        if (readIntLittleEndian(input) != (int) mCrc.getValue()) {
+            throw new ZipException("Compressed JSON is corrupted: CRC mismatch");
+        }
+        if (readIntLittleEndian(input) != count) {
+            throw new ZipException("Compressed JSON is corrupted: size mismatch");
+        }
+    }
+
+    /**
+     * Makes sure there are unread bytes in {@link #mChunk}.
+     *
+     * @return {@code false} if the end of the stream was reached.
+     */
+    private boolean fillChunk(InputStream input) throws IOException {
+        while (mChunkPosition >= mChunkLength) {
+            final int read = input.read(mChunk, 0, CHUNK_SIZE);
+            if (read < 0) {
+                return false;
+            }
+            mChunkPosition = 0;
+            mChunkLength = read;
+        }
+        return true;
+    }
+
+    private int readByte(InputStream input) throws IOException {
+        if (!fillChunk(input)) {
+            throw new EOFException("Unexpected end of compressed JSON");
+        }
+        return mChunk[mChunkPosition++] & 0xFF;
+    }
+
+    private int readHeaderByte(InputStream input) throws IOException {
+        final int b = readByte(input);
+        mCrc.update(b);
+        return b;
+    }
+
+    private int readHeaderShort(InputStream input) throws IOException {
+        return readHeaderByte(input) | (readHeaderByte(input) << 8);
+    }
+
+    private void skipZeroTerminated(InputStream input) throws IOException {
+        int b;
+        do {
+            b = readHeaderByte(input);
+        } while (b != 0);
+    }
+
+    private int readShortLittleEndian(InputStream input) throws IOException {
+        return readByte(input) | (readByte(input) << 8);
+    }
+
+    private int readIntLittleEndian(InputStream input) throws IOException {
+        return readShortLittleEndian(input) | (readShortLittleEndian(input) << 16);
+    }
+
+    private static void writeIntLittleEndian(OutputStream output, int value) throws IOException {
+        output.write(value);
+        output.write(value >>> 8);
+        output.write(value >>> 16);
+        output.write(value >>> 24);
+    }
+
+    private char[] ensureCharCapacity(int capacity) {
+        if (mChars.length < capacity) {
+            final char[] chars = new char[Math.max(capacity, mChars.length * 2)];
+            System.arraycopy(mChars, 0, chars, 0, mCharCount);
+            mChars = chars;
+        }
+        return mChars;
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+/**
+ * The set of keys a parser actually reads from a JSON object. The decoder skips the values of all other
+ * keys by scanning over them without creating any objects, not even the key itself.
+ * <p>
+ * The {@link ChildFilters} return the filter of a nested entity, which is applied to the nested object
+ * or to the objects in the nested array. They are only asked once the decoder reaches such a value, so
+ * creating a filter neither loads the parsers of child entities nor recurses into entities which
+ * contain themselves.
+ * <p>
+ * Instances are immutable and thread safe.
+ */
+public final class FieldFilter {
+
+    /**
+     * Looks up the filters of nested entities while decoding.
+     */
+    public interface ChildFilters {
+
+        /**
+         * @param index The index of the key in the array the {@link FieldFilter} was created with.
+         * @return The filter for the value of the key or {@code null} if the whole value has to be decoded.
+         */
+        FieldFilter getChildFilter(int index);
+    }
+
+    private final String[] mKeys;
+    private final int[] mIndices;
+    private final ChildFilters mChildFilters;
+    private final int mMask;
+
+    /**
+     * @param keys         The keys which are read from the object.
+     * @param childFilters The filters of the values of the keys or {@code null} if all values are decoded
+     *                     completely.
+     */
+    public FieldFilter(String[] keys, ChildFilters childFilters) {
+        int size = 2;
+        while (size < keys.length * 2) {
+            size <<= 1;
+        }
+
+        mKeys = new String[size];
+        mIndices = new int[size];
+        mChildFilters = childFilters;
+        mMask = size - 1;
+
+        for (int i = 0; i < keys.length; i++) {
+            final String key = keys[i];
+            int index = spread(key.hashCode()) & mMask;
+            while (mKeys[index] != null && !mKeys[index].equals(key)) {
+                index = (index + 1) & mMask;
+            }
+            mKeys[index] = key;
+            mIndices[index] = i;
+        }
+    }
+
+    public boolean accepts(String key) {
+        int index = spread(key.hashCode()) & mMask;
+        while (mKeys[index] != null) {
+            if (mKeys[index].equals(key)) {
+                return true;
+            }
+            index = (index + 1) & mMask;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the slot of the key in {@code buffer} or -1 if the key is not read by the parser.
+     */
+    int indexOf(char[] buffer, int offset, int length) {
+        int hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+
+        int index = spread(hash) & mMask;
+        while (mKeys[index] != null) {
+            if (matches(mKeys[index], buffer, offset, length)) {
+                return index;
+            }
+            index = (index + 1) & mMask;
+        }
+        return -1;
+    }
+
+    String getKey(int index) {
+        return mKeys[index];
+    }
+
+    /**
+     * Returns the filter for the value of the key at {@code index} or {@code null} if the whole value has
+     * to be decoded.
+     */
+    FieldFilter getChildFilter(int index) {
+        return mChildFilters != null ? mChildFilters.getChildFilter(mIndices[index]) : null;
+    }
+
+    private static boolean matches(String key, char[] buffer, int offset, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,739 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import com.github.wrdlbrnft.simplejson.exceptions.LimitExceededException;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Decodes JSON text from a {@code char[]} into {@link JSONObject}s and {@link JSONArray}s. In contrast to
+ * {@link org.json.JSONTokener} it works directly on the input buffer, only allocates the resulting values
+ * and looks up keys in the {@link SymbolTable} of its {@link ParserContext}.
+ * <p>
+ * The decoder implements strict JSON as described in RFC 8259, the only exception being that raw control
+ * characters inside of strings are accepted.
+ * <p>
+ * If a {@link FieldFilter} is given the values of all keys it does not contain are skipped. They are
+ * still validated but neither their keys nor any of their values are created.
+ */
+final class JsonDecoder {
+
+    private static final int MAX_EXPLICIT_EXPONENT = 100000;
+    private static final int DEFAULT_SCRATCH_SIZE = 128;
+
+    private final SymbolTable mSymbolTable;
+
+    private ParserLimits mLimits = ParserLimits.UNLIMITED;
+    private int mDepth;
+
+    private char[] mScratch = new char[DEFAULT_SCRATCH_SIZE];
+
+    private char[] mInput;
+    private int mOffset;
+    private int mPosition;
+    private int mEnd;
+
+    private char[] mStringBuffer;
+    private int mStringOffset;
+    private int mStringLength;
+
+    JsonDecoder(SymbolTable symbolTable) {
+        mSymbolTable = symbolTable;
+    }
+
+    /**
+     * @param filter The keys to decode or {@code null} to decode all of them.
+     */
+    JSONObject decodeObject(char[] input, int offset, int length, FieldFilter filter, ParserLimits limits) throws JSONException {
+        begin(input, offset, length, limits);
+        try {
+            skipWhitespace();
+            if (mPosition >= mEnd || mInput[mPosition] != '{') {
+                throw syntaxError("Expected '{'");
+            }
+
+            final JSONObject object = readObject(filter);
+            finish();
+            return object;
+        } finally {
+            mInput = null;
+            mStringBuffer = null;
+        }
+    }
+
+    /**
+     * @param filter The keys to decode in the objects of the array or {@code null} to decode all of them.
+     */
+    JSONArray decodeArray(char[] input, int offset, int length, FieldFilter filter, ParserLimits limits) throws JSONException {
+        begin(input, offset, length, limits);
+        try {
+            skipWhitespace();
+            if (mPosition >= mEnd || mInput[mPosition] != '[') {
+                throw syntaxError("Expected '['");
+            }
+
+            final JSONArray array = readArray(filter);
+            finish();
+            return array;
+        } finally {
+            mInput = null;
+            mStringBuffer = null;
+        }
+    }
+
+    void trim(int maxRetainedSize) {
+        if (mScratch.length > maxRetainedSize) {
+            mScratch = new char[DEFAULT_SCRATCH_SIZE];
+        }
+    }
+
+    private void begin(char[] input, int offset, int length, ParserLimits limits) {
+        mLimits = limits;
+        mDepth = 0;
+        mInput = input;
+        mOffset = offset;
+        mPosition = offset;
+        mEnd = offset + length;
+    }
+
+    private void finish() throws JSONException {
+        skipWhitespace();
+        if (mPosition != mEnd) {
+            throw syntaxError("Unexpected characters after the end of the json");
+        }
+    }
+
+    private Object readValue(FieldFilter filter) throws JSONException {
+        if (mPosition >= mEnd) {
+            throw syntaxError("Unexpected end of input");
+        }
+
+        final char c = mInput[mPosition];
+        switch (c) {
+
+            case '{':
+                return readObject(filter);
+
+            case '[':
+                return readArray(filter);
+
+            case '"':
+                readStringChars();
+                return new String(mStringBuffer, mStringOffset, mStringLength);
+
+            case 't':
+                readLiteral("true");
+                return Boolean.TRUE;
+
+            case 'f':
+                readLiteral("false");
+                return Boolean.FALSE;
+
+            case 'n':
+                readLiteral("null");
+                return JSONObject.NULL;
+
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw syntaxError("Unexpected character '" + c + "'");
+        }
+    }
+
+    private JSONObject readObject(FieldFilter filter) throws JSONException {
+        mPosition++;
+        enter();
+        final JSONObject object = new JSONObject();
+
+        skipWhitespace();
+        if (mPosition < mEnd && mInput[mPosition] == '}') {
+            mPosition++;
+            mDepth--;
+            return object;
+        }
+
+        int count = 0;
+        while (true) {
+            checkElementCount(++count);
+            if (mPosition >= mEnd || mInput[mPosition] != '"') {
+                throw syntaxError("Expected a key");
+            }
+
+            readStringChars();
+
+            final String key;
+            final int index;
+            if (filter == null) {
+                key = mSymbolTable.lookup(mStringBuffer, mStringOffset, mStringLength);
+                index = -1;
+            } else {
+                index = filter.indexOf(mStringBuffer, mStringOffset, mStringLength);
+                key = index >= 0 ? filter.getKey(index) : null;
+            }
+
+            skipWhitespace();
+            if (mPosition >= mEnd || mInput[mPosition] != ':') {
+                throw syntaxError(key != null ? "Expected ':' after key \"" + key + "\"" : "Expected ':' after key");
+            }
+            mPosition++;
+            skipWhitespace();
+
+            if (key != null) {
+                // Only nested objects and arrays have a filter, so only they look it up
+                final boolean nested = mPosition < mEnd && (mInput[mPosition] == '{' || mInput[mPosition] == '[');
+                final FieldFilter childFilter = nested && index >= 0 ? filter.getChildFilter(index) : null;
+                object.put(key, readValue(childFilter));
+            } else {
+                skipValue();
+            }
+
+            skipWhitespace();
+            if (mPosition >= mEnd) {
+                throw syntaxError("Unexpected end of input");
+            }
+
+            final char c = mInput[mPosition++];
+            if (c == '}') {
+                mDepth--;
+                return object;
+            }
+
+            if (c != ',') {
+                throw syntaxError("Expected ',' or '}'");
+            }
+            skipWhitespace();
+        }
+    }
+
+    private JSONArray readArray(FieldFilter filter) throws JSONException {
+        mPosition++;
+        enter();
+        final JSONArray array = new JSONArray();
+
+        skipWhitespace();
+        if (mPosition < mEnd && mInput[mPosition] == ']') {
+            mPosition++;
+            mDepth--;
+            return array;
+        }
+
+        int count = 0;
+        while (true) {
+            checkElementCount(++count);
+            array.put(readValue(filter));
+
+            skipWhitespace();
+            if (mPosition >= mEnd) {
+                throw syntaxError("Unexpected end of input");
+            }
+
+            final char c = mInput[mPosition++];
+            if (c == ']') {
+                mDepth--;
+                return array;
+            }
+
+            if (c != ',') {
+                throw syntaxError("Expected ',' or ']'");
+            }
+            skipWhitespace();
+        }
+    }
+
+    /**
+     * Moves past the value at the current position without creating anything. The value is still
+     * checked to be valid JSON.
+     */
+    private void skipValue() throws JSONException {
+        if (mPosition >= mEnd) {
+            throw syntaxError("Unexpected end of input");
+        }
+
+        final char c = mInput[mPosition];
+        switch (c) {
+
+            case '{':
+                skipObject();
+                return;
+
+            case '[':
+                skipArray();
+                return;
+
+            case '"':
+                skipString();
+                return;
+
+            case 't':
+                readLiteral("true");
+                return;
+
+            case 'f':
+                readLiteral("false");
+                return;
+
+            case 'n':
+                readLiteral("null");
+                return;
+
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    skipNumber();
+                    return;
+                }
+                throw syntaxError("Unexpected character '" + c + "'");
+        }
+    }
+
+    private void skipObject() throws JSONException {
+        mPosition++;
+        enter();
+
+        skipWhitespace();
+        if (mPosition < mEnd && mInput[mPosition] == '}') {
+            mPosition++;
+            mDepth--;
+            return;
+        }
+
+        int count = 0;
+        while (true) {
+            checkElementCount(++count);
+            if (mPosition >= mEnd || mInput[mPosition] != '"') {
+                throw syntaxError("Expected a key");
+            }
+            skipString();
+
+            skipWhitespace();
+            if (mPosition >= mEnd || mInput[mPosition] != ':') {
+                throw syntaxError("Expected ':' after key");
+            }
+            mPosition++;
+            skipWhitespace();
+
+            skipValue();
+
+            skipWhitespace();
+            if (mPosition >= mEnd) {
+                throw syntaxError("Unexpected end of input");
+            }
+
+            final char c = mInput[mPosition++];
+            if (c == '}') {
+                mDepth--;
+                return;
+            }
+
+            if (c != ',') {
+                throw syntaxError("Expected ',' or '}'");
+            }
+            skipWhitespace();
+        }
+    }
+
+    private void skipArray() throws JSONException {
+        mPosition++;
+        enter();
+
+        skipWhitespace();
+        if (mPosition < mEnd && mInput[mPosition] == ']') {
+            mPosition++;
+            mDepth--;
+            return;
+        }
+
+        int count = 0;
+        while (true) {
+            checkElementCount(++count);
+            skipValue();
+
+            skipWhitespace();
+            if (mPosition >= mEnd) {
+                throw syntaxError("Unexpected end of input");
+            }
+
+            final char c = mInput[mPosition++];
+            if (c == ']') {
+                mDepth--;
+                return;
+            }
+
+            if (c != ',') {
+                throw syntaxError("Expected ',' or ']'");
+            }
+            skipWhitespace();
+        }
+    }
+
+    private void skipString() throws JSONException {
+        int position = mPosition + 1;
+        while (position < mEnd) {
+            final char c = mInput[position++];
+            if (c == '"') {
+                mPosition = position;
+                return;
+            }
+
+            if (c != '\\') {
+                continue;
+            }
+
+            if (position >= mEnd) {
+                break;
+            }
+
+            final char escaped = mInput[position++];
+            if (escaped == 'u') {
+                if (position + 4 > mEnd) {
+                    break;
+                }
+                for (int end = position + 4; position < end; position++) {
+                    hexValue(mInput[position]);
+                }
+            } else if ("\"\\/bfnrt".indexOf(escaped) < 0) {
+                mPosition = position;
+                throw syntaxError("Invalid escape sequence '\\" + escaped + "'");
+            }
+        }
+
+        mPosition = mEnd;
+        throw syntaxError("Unterminated string");
+    }
+
+    private void skipNumber() throws JSONException {
+        if (mInput[mPosition] == '-') {
+            mPosition++;
+        }
+
+        requireDigit();
+        if (mInput[mPosition++] != '0') {
+            skipDigits();
+        }
+
+        if (mPosition < mEnd && mInput[mPosition] == '.') {
+            mPosition++;
+            requireDigit();
+            skipDigits();
+        }
+
+        if (mPosition < mEnd && (mInput[mPosition] == 'e' || mInput[mPosition] == 'E')) {
+            mPosition++;
+            if (mPosition < mEnd && (mInput[mPosition] == '+' || mInput[mPosition] == '-')) {
+                mPosition++;
+            }
+            requireDigit();
+            skipDigits();
+        }
+    }
+
+    private void skipDigits() {
+        while (mPosition < mEnd && isDigit(mInput[mPosition])) {
+            mPosition++;
+        }
+    }
+
+    /**
+     * Reads the string starting at the current position. The characters of the string are afterwards
+     * available in {@link #mStringBuffer}, which either points to the input itself if the string does not
+     * contain any escape sequences or to the scratch buffer otherwise.
+     */
+    private void readStringChars() throws JSONException {
+        final int start = ++mPosition;
+
+        for (int i = start; i < mEnd; i++) {
+            final char c = mInput[i];
+            if (c == '"') {
+                mPosition = i + 1;
+                checkStringLength(i - start);
+                mStringBuffer = mInput;
+                mStringOffset = start;
+                mStringLength = i - start;
+                return;
+            }
+
+            if (c == '\\') {
+                readEscapedStringChars(start, i);
+                return;
+            }
+        }
+
+        mPosition = mEnd;
+        throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * Unescapes the string into the scratch buffer. The runs between escape sequences are copied in bulk,
+     * only the escape sequences themselves are handled char by char.
+     */
+    private void readEscapedStringChars(int start, int escapeStart) throws JSONException {
+        int length = escapeStart - start;
+        ensureScratchCapacity(length + 16);
+        System.arraycopy(mInput, start, mScratch, 0, length);
+
+        int position = escapeStart;
+        while (position < mEnd) {
+            int runEnd = position;
+            while (runEnd < mEnd) {
+                final char c = mInput[runEnd];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                runEnd++;
+            }
+
+            final int runLength = runEnd - position;
+            checkStringLength(length + runLength);
+            if (runLength > 0) {
+                ensureScratchCapacity(length + runLength + 1);
+                System.arraycopy(mInput, position, mScratch, length, runLength);
+                length += runLength;
+                position = runEnd;
+            }
+
+            if (position >= mEnd) {
+                break;
+            }
+
+            if (mInput[position++] == '"') {
+                mStringBuffer = mScratch;
+                mStringOffset = 0;
+                mStringLength = length;
+                mPosition = position;
+                return;
+            }
+
+            if (position >= mEnd) {
+                break;
+            }
+
+            char c = mInput[position++];
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    break;
+
+                case 'b':
+                    c = '\b';
+                    break;
+
+                case 'f':
+                    c = '\f';
+                    break;
+
+                case 'n':
+                    c = '\n';
+                    break;
+
+                case 'r':
+                    c = '\r';
+                    break;
+
+                case 't':
+                    c = '\t';
+                    break;
+
+                case 'u':
+                    if (position + 4 > mEnd) {
+                        mPosition = mEnd;
+                        throw syntaxError("Unterminated escape sequence");
+                    }
+                    c = (char) ((hexValue(mInput[position]) << 12)
+                            | (hexValue(mInput[position + 1]) << 8)
+                            | (hexValue(mInput[position + 2]) << 4)
+                            | hexValue(mInput[position + 3]));
+                    position += 4;
+                    break;
+
+                default:
+                    mPosition = position;
+                    throw syntaxError("Invalid escape sequence '\\" + c + "'");
+            }
+
+            checkStringLength(length + 1);
+            ensureScratchCapacity(length + 1);
+            mScratch[length++] = c;
+        }
+
+        mPosition = mEnd;
+        throw syntaxError("Unterminated string");
+    }
+
+    private int hexValue(char c) throws JSONException {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+
+        throw syntaxError("Invalid character '" + c + "' in unicode escape sequence");
+    }
+
+    /**
+     * Reads a number and collects its significant digits and decimal exponent while scanning it. Integers
+     * which fit into a {@code long} are boxed directly, all other numbers become a {@link LazyNumber}
+     * which only converts its digits once it is read. Only numbers with more significant digits than fit
+     * into a {@code long} keep their literal. Numbers which are too large for a {@code double} become an
+     * {@link OutOfRangeNumber}, since org.json rejects them otherwise.
+     */
+    private Object readNumber() throws JSONException {
+        final int start = mPosition;
+        final boolean negative = mInput[mPosition] == '-';
+        if (negative) {
+            mPosition++;
+        }
+
+        if (mPosition >= mEnd || !isDigit(mInput[mPosition])) {
+            throw syntaxError("Expected a digit");
+        }
+
+        long significand = 0;
+        int digitCount = 0;
+        int exponent = 0;
+
+        if (mInput[mPosition] == '0') {
+            mPosition++;
+        } else {
+            while (mPosition < mEnd && isDigit(mInput[mPosition])) {
+                significand = significand * 10 + (mInput[mPosition++] - '0');
+                digitCount++;
+            }
+        }
+
+        boolean integer = true;
+        boolean exact = true;
+        if (mPosition < mEnd && mInput[mPosition] == '.') {
+            integer = false;
+            mPosition++;
+            requireDigit();
+            while (mPosition < mEnd && isDigit(mInput[mPosition])) {
+                final int digit = mInput[mPosition++] - '0';
+                if (digitCount > 0 || digit != 0) {
+                    significand = significand * 10 + digit;
+                    digitCount++;
+                }
+                exponent--;
+            }
+        }
+
+        if (mPosition < mEnd && (mInput[mPosition] == 'e' || mInput[mPosition] == 'E')) {
+            integer = false;
+            mPosition++;
+            boolean negativeExponent = false;
+            if (mPosition < mEnd && (mInput[mPosition] == '+' || mInput[mPosition] == '-')) {
+                negativeExponent = mInput[mPosition] == '-';
+                mPosition++;
+            }
+            requireDigit();
+
+            int explicitExponent = 0;
+            while (mPosition < mEnd && isDigit(mInput[mPosition])) {
+                final int digit = mInput[mPosition++] - '0';
+                if (explicitExponent < MAX_EXPLICIT_EXPONENT) {
+                    explicitExponent = explicitExponent * 10 + digit;
+                }
+            }
+            exact = explicitExponent < MAX_EXPLICIT_EXPONENT;
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (exact && digitCount <= NumberParser.MAX_SIGNIFICAND_DIGITS) {
+            if (integer) {
+                if (significand >= 0) {
+                    return boxInteger(negative ? -significand : significand);
+                }
+                if (negative && significand == Long.MIN_VALUE) {
+                    return Long.MIN_VALUE;
+                }
+            } else if (significand >= 0) {
+                return new LazyNumber(significand, exponent, negative).toJsonValue();
+            }
+        }
+
+        checkStringLength(mPosition - start);
+        return new LazyNumber(new String(mInput, start, mPosition - start)).toJsonValue();
+    }
+
+    private static Number boxInteger(long value) {
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            return (int) value;
+        }
+        return value;
+    }
+
+    private void requireDigit() throws JSONException {
+        if (mPosition >= mEnd || !isDigit(mInput[mPosition])) {
+            throw syntaxError("Expected a digit");
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void readLiteral(String literal) throws JSONException {
+        final int length = literal.length();
+        if (mPosition + length > mEnd) {
+            throw syntaxError("Expected '" + literal + "'");
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (mInput[mPosition + i] != literal.charAt(i)) {
+                throw syntaxError("Expected '" + literal + "'");
+            }
+        }
+        mPosition += length;
+    }
+
+    private void skipWhitespace() {
+        while (mPosition < mEnd) {
+            final char c = mInput[mPosition];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            mPosition++;
+        }
+    }
+
+    private void ensureScratchCapacity(int capacity) {
+        if (mScratch.length < capacity) {
+            final char[] scratch = new char[Math.max(capacity, mScratch.length * 2)];
+            System.arraycopy(mScratch, 0, scratch, 0, mScratch.length);
+            mScratch = scratch;
+        }
+    }
+
+    private void enter() {
+        if (++mDepth > mLimits.mMaxDepth) {
+            throw limitExceeded("Maximum depth of " + mLimits.mMaxDepth + " exceeded");
+        }
+    }
+
+    private void checkElementCount(int count) {
+        if (count > mLimits.mMaxElements) {
+            throw limitExceeded("Maximum number of " + mLimits.mMaxElements + " elements exceeded");
+        }
+    }
+
+    private void checkStringLength(int length) {
+        if (length > mLimits.mMaxStringLength) {
+            throw limitExceeded("Maximum string length of " + mLimits.mMaxStringLength + " exceeded");
+        }
+    }
+
+    private LimitExceededException limitExceeded(String message) {
+        return new LimitExceededException(message + " at character " + (mPosition - mOffset));
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at character " + (mPosition - mOffset));
+    }
+}
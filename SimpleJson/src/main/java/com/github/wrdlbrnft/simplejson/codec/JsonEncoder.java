@@ -0,0 +1,185 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+
+/**
+ * Encodes {@link JSONObject}s and {@link JSONArray}s into a {@link StringBuilder} which is owned and
+ * reused by the {@link ParserContext}.
+ */
+final class JsonEncoder {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * The char written after the backslash for each ASCII char which has to be escaped, {@code 'u'} for
+     * a unicode escape sequence and 0 for chars which are written as they are. Besides these the line
+     * and paragraph separators and lone surrogates are escaped, so they survive the UTF-8 encoding.
+     */
+    private static final char[] ESCAPES = new char[128];
+
+    static {
+        for (int i = 0; i < 0x20; i++) {
+            ESCAPES[i] = 'u';
+        }
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+    }
+
+    private static final double MIN_LONG_DOUBLE = -0x1p63;
+    private static final double MAX_LONG_DOUBLE = 0x1p63;
+
+    private final char[] mNumberBuffer = new char[NumberFormatter.MAX_LENGTH];
+
+    void encodeObject(JSONObject object, StringBuilder output) throws JSONException {
+        writeObject(object, output);
+    }
+
+    void encodeArray(JSONArray array, StringBuilder output) throws JSONException {
+        writeArray(array, output);
+    }
+
+    private void writeObject(JSONObject object, StringBuilder output) throws JSONException {
+        output.append('{');
+
+        boolean first = true;
+        final Iterator<?> keys = object.keys();
+        while (keys.hasNext()) {
+            final String key = (String) keys.next();
+            if (!first) {
+                output.append(',');
+            }
+            first = false;
+
+            writeString(key, output);
+            output.append(':');
+            writeValue(object.opt(key), output);
+        }
+
+        output.append('}');
+    }
+
+    private void writeArray(JSONArray array, StringBuilder output) throws JSONException {
+        output.append('[');
+
+        for (int i = 0, count = array.length(); i < count; i++) {
+            if (i > 0) {
+                output.append(',');
+            }
+            writeValue(array.opt(i), output);
+        }
+
+        output.append(']');
+    }
+
+    private void writeValue(Object value, StringBuilder output) throws JSONException {
+        if (value == null || value == JSONObject.NULL) {
+            output.append("null");
+        } else if (value instanceof String) {
+            writeString((String) value, output);
+        } else if (value instanceof JSONObject) {
+            writeObject((JSONObject) value, output);
+        } else if (value instanceof JSONArray) {
+            writeArray((JSONArray) value, output);
+        } else if (value instanceof Boolean) {
+            output.append(((Boolean) value).booleanValue());
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue(), output);
+        } else if (value instanceof LazyNumber) {
+            ((LazyNumber) value).appendTo(output, mNumberBuffer);
+        } else if (value instanceof OutOfRangeNumber) {
+            ((OutOfRangeNumber) value).getNumber().appendTo(output, mNumberBuffer);
+        } else if (value instanceof Double) {
+            writeDouble((Double) value, output);
+        } else if (value instanceof Number) {
+            output.append(JSONObject.numberToString((Number) value));
+        } else {
+            writeString(value.toString(), output);
+        }
+    }
+
+    private void writeLong(long value, StringBuilder output) {
+        final int length = NumberFormatter.formatLong(value, mNumberBuffer);
+        output.append(mNumberBuffer, 0, length);
+    }
+
+    /**
+     * Integral values are written without a fraction and negative zero as {@code -0.0}, just like
+     * {@link JSONObject#numberToString(Number)} does.
+     */
+    private void writeDouble(double value, StringBuilder output) throws JSONException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new JSONException("Forbidden numeric value: " + value);
+        }
+
+        final long integral = (long) value;
+        if (integral == value && value >= MIN_LONG_DOUBLE && value < MAX_LONG_DOUBLE
+                && (integral != 0 || Double.doubleToRawLongBits(value) == 0)) {
+            writeLong(integral, output);
+            return;
+        }
+
+        final int length = NumberFormatter.formatDouble(value, mNumberBuffer);
+        output.append(mNumberBuffer, 0, length);
+    }
+
+    /**
+     * Looks for the chars which need to be escaped and appends the runs between them in bulk. Most
+     * strings don't contain any such char and are appended in one go.
+     */
+    private void writeString(String value, StringBuilder output) {
+        output.append('"');
+
+        final int length = value.length();
+        int runStart = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < ESCAPES.length) {
+                if (ESCAPES[c] == 0) {
+                    continue;
+                }
+            } else if (c != '\u2028' && c != '\u2029' && (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE)) {
+                continue;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                i++;
+                continue;
+            }
+
+            if (runStart < i) {
+                output.append(value, runStart, i);
+            }
+            runStart = i + 1;
+
+            final char escape = c < ESCAPES.length ? ESCAPES[c] : 'u';
+            if (escape == 'u') {
+                writeUnicodeEscape(c, output);
+            } else {
+                output.append('\\').append(escape);
+            }
+        }
+
+        if (runStart == 0) {
+            output.append(value);
+        } else if (runStart < length) {
+            output.append(value, runStart, length);
+        }
+
+        output.append('"');
+    }
+
+    private static void writeUnicodeEscape(char c, StringBuilder output) {
+        output.append("\\u")
+                .append(HEX_DIGITS[(c >> 12) & 0xF])
+                .append(HEX_DIGITS[(c >> 8) & 0xF])
+                .append(HEX_DIGITS[(c >> 4) & 0xF])
+                .append(HEX_DIGITS[c & 0xF]);
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+
+/**
+ * Creates and applies JSON merge patches as defined in RFC 7396. A patch contains only the members
+ * which changed, {@code null} removes a member and nested objects are patched recursively. Arrays are
+ * always replaced as a whole.
+ */
+public final class JsonMergePatch {
+
+    private JsonMergePatch() {
+
+    }
+
+    /**
+     * Returns the patch which turns {@code before} into {@code after}. The patch is empty if both
+     * objects are equal.
+     */
+    public static JSONObject diff(JSONObject before, JSONObject after) throws JSONException {
+        final JSONObject patch = new JSONObject();
+
+        final Iterator<String> removedKeys = before.keys();
+        while (removedKeys.hasNext()) {
+            final String key = removedKeys.next();
+            if (!after.has(key)) {
+                patch.put(key, JSONObject.NULL);
+            }
+        }
+
+        final Iterator<String> keys = after.keys();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            final Object afterValue = after.get(key);
+            final Object beforeValue = before.opt(key);
+
+            if (beforeValue instanceof JSONObject && afterValue instanceof JSONObject) {
+                final JSONObject nestedPatch = diff((JSONObject) beforeValue, (JSONObject) afterValue);
+                if (nestedPatch.length() > 0) {
+                    patch.put(key, nestedPatch);
+                }
+                continue;
+            }
+
+            if (beforeValue == null || !valueEquals(beforeValue, afterValue)) {
+                patch.put(key, afterValue);
+            }
+        }
+
+        return patch;
+    }
+
+    /**
+     * Returns a copy of {@code target} with {@code patch} applied to it. {@code target} itself is not
+     * modified, nested objects which are not touched by the patch are shared with the result.
+     */
+    public static JSONObject apply(JSONObject target, JSONObject patch) throws JSONException {
+        final JSONObject result = copy(target);
+
+        final Iterator<String> keys = patch.keys();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            final Object value = patch.get(key);
+
+            if (value == JSONObject.NULL) {
+                result.remove(key);
+            } else if (value instanceof JSONObject) {
+                final Object existing = result.opt(key);
+                final JSONObject nestedTarget = existing instanceof JSONObject ? (JSONObject) existing : new JSONObject();
+                result.put(key, apply(nestedTarget, (JSONObject) value));
+            } else {
+                result.put(key, value);
+            }
+        }
+
+        return result;
+    }
+
+    private static JSONObject copy(JSONObject object) throws JSONException {
+        final JSONObject copy = new JSONObject();
+        final Iterator<String> keys = object.keys();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            copy.put(key, object.get(key));
+        }
+        return copy;
+    }
+
+    private static boolean valueEquals(Object a, Object b) throws JSONException {
+        if (a == b) {
+            return true;
+        }
+
+        if (a instanceof Number && b instanceof Number) {
+            return numberEquals((Number) a, (Number) b);
+        }
+
+        if (a instanceof JSONObject && b instanceof JSONObject) {
+            return diff((JSONObject) a, (JSONObject) b).length() == 0;
+        }
+
+        if (a instanceof JSONArray && b instanceof JSONArray) {
+            final JSONArray arrayA = (JSONArray) a;
+            final JSONArray arrayB = (JSONArray) b;
+            if (arrayA.length() != arrayB.length()) {
+                return false;
+            }
+
+            for (int i = 0, count = arrayA.length(); i < count; i++) {
+                if (!valueEquals(arrayA.get(i), arrayB.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return a.equals(b);
+    }
+
+    private static boolean numberEquals(Number a, Number b) {
+        if (a instanceof LazyNumber && b instanceof LazyNumber) {
+            return a.equals(b);
+        }
+        if (isIntegral(a) && isIntegral(b)) {
+            return a.longValue() == b.longValue();
+        }
+        return Double.compare(a.doubleValue(), b.doubleValue()) == 0;
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A JSON number which keeps its exact decimal digits and only converts them when it is read. The decoder
+ * creates it for all numbers with a fraction or an exponent and for integers which don't fit into a
+ * {@code long}. Writing it back to JSON reproduces the exact value, so numbers which just pass through
+ * don't lose any precision.
+ * <p>
+ * Up to 19 significant digits are kept as a {@code long} significand and a decimal exponent, numbers with
+ * more digits keep their literal.
+ * <p>
+ * org.json only accepts numbers which are finite as a {@code double}. Use {@link #toJsonValue()} to put
+ * a number into a {@link org.json.JSONObject} or {@link org.json.JSONArray}, numbers beyond the range of
+ * a {@code double} are wrapped in an {@link OutOfRangeNumber}.
+ */
+public final class LazyNumber extends Number {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_FINITE_EXPONENT = 308 - NumberParser.MAX_SIGNIFICAND_DIGITS;
+
+    private final long mSignificand;
+    private final int mExponent;
+    private final boolean mNegative;
+    private final String mLiteral;
+
+    LazyNumber(long significand, int exponent, boolean negative) {
+        mSignificand = significand;
+        mExponent = exponent;
+        mNegative = negative;
+        mLiteral = null;
+    }
+
+    LazyNumber(String literal) {
+        mSignificand = 0;
+        mExponent = 0;
+        mNegative = false;
+        mLiteral = literal;
+    }
+
+    public static LazyNumber valueOf(long value) {
+        if (value == Long.MIN_VALUE) {
+            return new LazyNumber(Long.toString(value));
+        }
+        return new LazyNumber(Math.abs(value), 0, value < 0);
+    }
+
+    public static LazyNumber valueOf(BigDecimal value) {
+        return new LazyNumber(value.toString());
+    }
+
+    public static LazyNumber valueOf(BigInteger value) {
+        return new LazyNumber(value.toString());
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public long longValue() {
+        if (mLiteral == null && mExponent == 0) {
+            return mNegative ? -mSignificand : mSignificand;
+        }
+        return (long) doubleValue();
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        if (mLiteral == null) {
+            final double value = NumberParser.toDouble(mSignificand, mExponent, mNegative);
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+        }
+        return Double.parseDouble(toString());
+    }
+
+    public BigDecimal bigDecimalValue() {
+        if (mLiteral != null) {
+            return new BigDecimal(mLiteral);
+        }
+        return BigDecimal.valueOf(mNegative ? -mSignificand : mSignificand, -mExponent);
+    }
+
+    /**
+     * @throws ArithmeticException If the number has a non zero fractional part.
+     */
+    public BigInteger bigIntegerValue() {
+        return bigDecimalValue().toBigIntegerExact();
+    }
+
+    /**
+     * Returns the value to store in a {@link org.json.JSONObject} or {@link org.json.JSONArray}: the
+     * number itself or an {@link OutOfRangeNumber} if it is too large for a {@code double}.
+     */
+    public Object toJsonValue() {
+        return isFiniteAsDouble() ? this : new OutOfRangeNumber(this);
+    }
+
+    /**
+     * Numbers with less than 309 digits before the decimal point are always finite, only larger ones
+     * are actually converted.
+     */
+    private boolean isFiniteAsDouble() {
+        if (mLiteral == null && mExponent <= MAX_FINITE_EXPONENT) {
+            return true;
+        }
+        return !Double.isInfinite(doubleValue());
+    }
+
+    /**
+     * Appends the number as JSON text.
+     */
+    void appendTo(StringBuilder output, char[] scratch) {
+        if (mLiteral != null) {
+            output.append(mLiteral);
+            return;
+        }
+
+        if (mNegative) {
+            output.append('-');
+        }
+
+        final int digits = NumberFormatter.formatLong(mSignificand, scratch);
+        if (mExponent >= 0) {
+            output.append(scratch, 0, digits);
+            if (mExponent > 0) {
+                output.append('E').append(mExponent);
+            }
+            return;
+        }
+
+        final int fractionDigits = -mExponent;
+        if (fractionDigits < digits) {
+            output.append(scratch, 0, digits - fractionDigits).append('.').append(scratch, digits - fractionDigits, fractionDigits);
+        } else if (fractionDigits - digits <= MAX_LEADING_ZEROS) {
+            output.append("0.");
+            for (int i = digits; i < fractionDigits; i++) {
+                output.append('0');
+            }
+            output.append(scratch, 0, digits);
+        } else {
+            output.append(scratch, 0, digits).append('E').append(mExponent);
+        }
+    }
+
+    private static final int MAX_LEADING_ZEROS = 6;
+
+    @Override
+    public String toString() {
+        if (mLiteral != null) {
+            return mLiteral;
+        }
+
+        final StringBuilder builder = new StringBuilder(NumberFormatter.MAX_LENGTH);
+        appendTo(builder, new char[NumberFormatter.MAX_LENGTH]);
+        return builder.toString();
+    }
+
+    /**
+     * Two numbers are equal if they have the same value, regardless of how many trailing zeros they were
+     * written with.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final LazyNumber other = (LazyNumber) o;
+        if (mLiteral == null && other.mLiteral == null && mExponent == other.mExponent) {
+            return mSignificand == other.mSignificand && (mNegative == other.mNegative || mSignificand == 0);
+        }
+        return bigDecimalValue().compareTo(other.bigDecimalValue()) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        final BigDecimal value = bigDecimalValue();
+        return value.signum() == 0 ? 0 : value.stripTrailingZeros().hashCode();
+    }
+}
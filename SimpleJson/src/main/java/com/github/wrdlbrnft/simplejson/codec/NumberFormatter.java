@@ -0,0 +1,329 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import java.math.BigInteger;
+
+/**
+ * Writes numbers as JSON text into a {@code char[]} without creating intermediate {@link String}s.
+ * <p>
+ * Doubles are written with the shortest digits which parse back to the same value, computed with
+ * Giulietti's Schubfach algorithm. The layout matches {@link Double#toString(double)}, so values between
+ * 10<sup>-3</sup> and 10<sup>7</sup> are written without an exponent.
+ */
+final class NumberFormatter {
+
+    /**
+     * Enough chars for any {@code long} and any finite {@code double}.
+     */
+    static final int MAX_LENGTH = 32;
+
+    private static final char[] DIGIT_TENS = new char[100];
+    private static final char[] DIGIT_ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    private static final char[] MIN_LONG = "-9223372036854775808".toCharArray();
+
+    private static final int P = 53;
+    private static final int W = 11;
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << (P - 1);
+    private static final int BQ_MASK = (1 << W) - 1;
+    private static final long T_MASK = (1L << (P - 1)) - 1;
+    private static final long C_TINY = 3;
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    private static final int MIN_PLAIN_EXPONENT = -3;
+    private static final int MAX_PLAIN_EXPONENT = 7;
+
+    private NumberFormatter() {
+
+    }
+
+    /**
+     * Writes {@code value} to the start of {@code buffer} and returns the number of chars written.
+     */
+    static int formatLong(long value, char[] buffer) {
+        if (value == Long.MIN_VALUE) {
+            System.arraycopy(MIN_LONG, 0, buffer, 0, MIN_LONG.length);
+            return MIN_LONG.length;
+        }
+
+        int position = 0;
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        final int length = position + digitCount(value);
+        writeDigits(value, buffer, length);
+        return length;
+    }
+
+    /**
+     * Writes the finite {@code value} to the start of {@code buffer} and returns the number of chars
+     * written.
+     */
+    static int formatDouble(double value, char[] buffer) {
+        final long bits = Double.doubleToRawLongBits(value);
+        final long t = bits & T_MASK;
+        final int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+
+        int position = 0;
+        if (bits < 0) {
+            buffer[position++] = '-';
+        }
+
+        if (bq != 0) {
+            final int mq = -Q_MIN + 1 - bq;
+            final long c = C_MIN | t;
+            if (0 < mq && mq < P) {
+                final long f = c >> mq;
+                if (f << mq == c) {
+                    return writeDecimal(f, 0, buffer, position);
+                }
+            }
+            return toDecimal(-mq, c, 0, buffer, position);
+        }
+
+        if (t != 0) {
+            return t < C_TINY
+                    ? toDecimal(Q_MIN, 10 * t, -1, buffer, position)
+                    : toDecimal(Q_MIN, t, 0, buffer, position);
+        }
+
+        buffer[position++] = '0';
+        buffer[position++] = '.';
+        buffer[position++] = '0';
+        return position;
+    }
+
+    /**
+     * Finds the shortest decimal in the rounding interval of {@code c * 2^q}.
+     */
+    private static int toDecimal(int q, long c, int dk, char[] buffer, int position) {
+        final int out = (int) c & 0x1;
+        final long cb = c << 2;
+        final long cbr = cb + 2;
+        final long cbl;
+        final int k;
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+
+        final int h = q + flog2pow10(-k) + 2;
+        final int index = (k - K_MIN) * 2;
+        final long[] powers = PowersOfTen.TABLE;
+        final long g1 = powers[index];
+        final long g0 = powers[index + 1];
+
+        final long vb = roundToOdd(g1, g0, cb << h);
+        final long vbl = roundToOdd(g1, g0, cbl << h);
+        final long vbr = roundToOdd(g1, g0, cbr << h);
+
+        final long s = vb >> 2;
+        if (s >= 100) {
+            final long sp10 = 10 * multiplyHigh(s, 115292150460684698L << 4);
+            final long tp10 = sp10 + 10;
+            final boolean upin = vbl + out <= sp10 << 2;
+            final boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return writeDecimal(upin ? sp10 : tp10, k, buffer, position);
+            }
+        }
+
+        final long t = s + 1;
+        final boolean uin = vbl + out <= s << 2;
+        final boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return writeDecimal(uin ? s : t, k + dk, buffer, position);
+        }
+
+        final long cmp = vb - ((s + t) << 1);
+        return writeDecimal(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, buffer, position);
+    }
+
+    /**
+     * Writes {@code f * 10^e} in the layout of {@link Double#toString(double)}.
+     */
+    private static int writeDecimal(long f, int e, char[] buffer, int position) {
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+
+        final int digits = digitCount(f);
+        final int exponent = digits + e - 1;
+
+        if (exponent >= MIN_PLAIN_EXPONENT && exponent < MAX_PLAIN_EXPONENT) {
+            if (exponent < 0) {
+                buffer[position++] = '0';
+                buffer[position++] = '.';
+                for (int i = exponent + 1; i < 0; i++) {
+                    buffer[position++] = '0';
+                }
+                position += digits;
+                writeDigits(f, buffer, position);
+                return position;
+            }
+
+            final int integerDigits = exponent + 1;
+            if (digits <= integerDigits) {
+                position += digits;
+                writeDigits(f, buffer, position);
+                for (int i = digits; i < integerDigits; i++) {
+                    buffer[position++] = '0';
+                }
+                buffer[position++] = '.';
+                buffer[position++] = '0';
+                return position;
+            }
+
+            writeDigits(f, buffer, position + digits + 1);
+            System.arraycopy(buffer, position + 1, buffer, position, integerDigits);
+            buffer[position + integerDigits] = '.';
+            return position + digits + 1;
+        }
+
+        writeDigits(f, buffer, position + digits + 1);
+        buffer[position] = buffer[position + 1];
+        buffer[position + 1] = '.';
+        position += digits + 1;
+        if (digits == 1) {
+            buffer[position++] = '0';
+        }
+
+        buffer[position++] = 'E';
+        int absoluteExponent = exponent;
+        if (exponent < 0) {
+            buffer[position++] = '-';
+            absoluteExponent = -exponent;
+        }
+        position += digitCount(absoluteExponent);
+        writeDigits(absoluteExponent, buffer, position);
+        return position;
+    }
+
+    /**
+     * Writes the digits of the non negative {@code value} so that the last digit ends up right before
+     * {@code end}. Two digits are written per step.
+     */
+    private static void writeDigits(long value, char[] buffer, int end) {
+        int position = end;
+        while (value > Integer.MAX_VALUE) {
+            final long quotient = value / 100;
+            final int pair = (int) (value - quotient * 100);
+            value = quotient;
+            buffer[--position] = DIGIT_ONES[pair];
+            buffer[--position] = DIGIT_TENS[pair];
+        }
+
+        int remaining = (int) value;
+        while (remaining >= 100) {
+            final int quotient = remaining / 100;
+            final int pair = remaining - quotient * 100;
+            remaining = quotient;
+            buffer[--position] = DIGIT_ONES[pair];
+            buffer[--position] = DIGIT_TENS[pair];
+        }
+
+        buffer[--position] = DIGIT_ONES[remaining];
+        if (remaining >= 10) {
+            buffer[--position] = DIGIT_TENS[remaining];
+        }
+    }
+
+    private static int digitCount(long value) {
+        long power = 10;
+        for (int count = 1; count < 19; count++) {
+            if (value < power) {
+                return count;
+            }
+            power *= 10;
+        }
+        return 19;
+    }
+
+    private static int flog10pow2(int e) {
+        return (int) (e * 661971961083L >> 41);
+    }
+
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661971961083L + -274743187321L >> 41);
+    }
+
+    private static int flog2pow10(int e) {
+        return (int) (e * 913124641741L >> 38);
+    }
+
+    private static long roundToOdd(long g1, long g0, long cp) {
+        final long x1 = multiplyHigh(g0, cp);
+        final long y0 = g1 * cp;
+        final long y1 = multiplyHigh(g1, cp);
+        final long z = (y0 >>> 1) + x1;
+        final long vbp = y1 + (z >>> 63);
+        return vbp | ((z & MASK_63) + MASK_63) >>> 63;
+    }
+
+    /**
+     * The high 64 bits of the 128 bit product of two non negative values.
+     */
+    static long multiplyHigh(long x, long y) {
+        final long x0 = x & 0xFFFFFFFFL;
+        final long x1 = x >>> 32;
+        final long y0 = y & 0xFFFFFFFFL;
+        final long y1 = y >>> 32;
+
+        final long p11 = x1 * y1;
+        final long p01 = x0 * y1;
+        final long p10 = x1 * y0;
+        final long p00 = x0 * y0;
+
+        final long middle = p10 + (p00 >>> 32) + (p01 & 0xFFFFFFFFL);
+        return p11 + (middle >>> 32) + (p01 >>> 32);
+    }
+
+    /**
+     * 126 bit approximations of 10<sup>-k</sup>, rounded up and split into the high and low 63 bits. The
+     * table is only computed when a double is actually written.
+     */
+    static final class PowersOfTen {
+
+        static final long[] TABLE = create();
+
+        private static long[] create() {
+            final long[] table = new long[(K_MAX - K_MIN + 1) * 2];
+            final BigInteger mask = BigInteger.valueOf(MASK_63);
+
+            for (int k = K_MIN; k <= K_MAX; k++) {
+                final int e = -k;
+                final int r = flog2pow10(e) - 125;
+
+                final BigInteger value;
+                if (e >= 0) {
+                    final BigInteger power = BigInteger.TEN.pow(e);
+                    value = r > 0 ? power.shiftRight(r) : power.shiftLeft(-r);
+                } else {
+                    value = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(-e));
+                }
+
+                final BigInteger g = value.add(BigInteger.ONE);
+                final int index = (k - K_MIN) * 2;
+                table[index] = g.shiftRight(63).longValue();
+                table[index + 1] = g.and(mask).longValue();
+            }
+
+            return table;
+        }
+    }
+}
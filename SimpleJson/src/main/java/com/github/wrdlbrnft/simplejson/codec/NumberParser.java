@@ -0,0 +1,168 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import java.math.BigInteger;
+
+/**
+ * Converts the decimal significand and exponent collected by the {@link JsonDecoder} into a correctly
+ * rounded {@code double} without going through a {@link String}.
+ * <p>
+ * Small values are handled with Clinger's fast path, all others with the algorithm of Eisel and Lemire.
+ * In the rare cases neither can decide the rounding {@link Double#NaN} is returned and the caller has to
+ * fall back to {@link Double#parseDouble(String)}.
+ */
+final class NumberParser {
+
+    /**
+     * The maximum number of significant digits which always fit into an unsigned 64 bit significand.
+     */
+    static final int MAX_SIGNIFICAND_DIGITS = 19;
+
+    private static final int MIN_EXPONENT = -348;
+    private static final int MAX_EXPONENT = 347;
+
+    private static final int MAX_FAST_PATH_EXPONENT = 22;
+    private static final long MAX_FAST_PATH_SIGNIFICAND = 1L << 53;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private NumberParser() {
+
+    }
+
+    /**
+     * @param significand The decimal digits of the number as an unsigned 64 bit value.
+     * @param exponent    The power of ten the significand has to be multiplied with.
+     * @return The closest {@code double} or {@link Double#NaN} if the value has to be parsed the slow way.
+     */
+    static double toDouble(long significand, int exponent, boolean negative) {
+        if (significand == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+
+        if (significand > 0 && significand <= MAX_FAST_PATH_SIGNIFICAND
+                && exponent >= -MAX_FAST_PATH_EXPONENT && exponent <= MAX_FAST_PATH_EXPONENT) {
+            final double value = exponent < 0
+                    ? significand / POWERS_OF_TEN[-exponent]
+                    : significand * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+
+        return eiselLemire(significand, exponent, negative);
+    }
+
+    private static double eiselLemire(long significand, int exponent, boolean negative) {
+        if (exponent < MIN_EXPONENT || exponent > MAX_EXPONENT) {
+            return Double.NaN;
+        }
+
+        final int index = (exponent - MIN_EXPONENT) * 2;
+        final long[] powers = PowersOfTen.TABLE;
+        final long powerHigh = powers[index];
+        final long powerLow = powers[index + 1];
+
+        final int leadingZeros = Long.numberOfLeadingZeros(significand);
+        final long normalized = significand << leadingZeros;
+        long binaryExponent = ((217706L * exponent) >> 16) + 64 + 1023 - leadingZeros;
+
+        long high = multiplyHigh(normalized, powerHigh);
+        long low = normalized * powerHigh;
+
+        // The truncated power of ten may be too small to decide the rounding, widen it to 128 bits.
+        if ((high & 0x1FF) == 0x1FF && unsignedLess(low + normalized, normalized)) {
+            final long productHigh = multiplyHigh(normalized, powerLow);
+            final long productLow = normalized * powerLow;
+            long mergedHigh = high;
+            final long mergedLow = low + productHigh;
+            if (unsignedLess(mergedLow, low)) {
+                mergedHigh++;
+            }
+            if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow + 1 == 0 && unsignedLess(productLow + normalized, normalized)) {
+                return Double.NaN;
+            }
+            high = mergedHigh;
+            low = mergedLow;
+        }
+
+        final long upperBit = high >>> 63;
+        long mantissa = high >>> (upperBit + 9);
+        binaryExponent -= 1 ^ upperBit;
+
+        // Exactly halfway between two doubles, the round to even rule can't be applied reliably here.
+        if (low == 0 && (high & 0x1FF) == 0 && (mantissa & 3) == 1) {
+            return Double.NaN;
+        }
+
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if ((mantissa >>> 53) > 0) {
+            mantissa >>>= 1;
+            binaryExponent++;
+        }
+
+        // Subnormal numbers and infinity are left to the slow path.
+        if (binaryExponent <= 0 || binaryExponent >= 0x7FF) {
+            return Double.NaN;
+        }
+
+        long bits = (binaryExponent << 52) | (mantissa & 0x000FFFFFFFFFFFFFL);
+        if (negative) {
+            bits |= 0x8000000000000000L;
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    private static long multiplyHigh(long x, long y) {
+        final long x0 = x & 0xFFFFFFFFL;
+        final long x1 = x >>> 32;
+        final long y0 = y & 0xFFFFFFFFL;
+        final long y1 = y >>> 32;
+
+        final long p11 = x1 * y1;
+        final long p01 = x0 * y1;
+        final long p10 = x1 * y0;
+        final long p00 = x0 * y0;
+
+        final long middle = p10 + (p00 >>> 32) + (p01 & 0xFFFFFFFFL);
+        return p11 + (middle >>> 32) + (p01 >>> 32);
+    }
+
+    private static boolean unsignedLess(long a, long b) {
+        return (a + Long.MIN_VALUE) < (b + Long.MIN_VALUE);
+    }
+
+    /**
+     * 128 bit approximations of the powers of ten, rounded down and normalized so the highest bit is set.
+     * Each power takes two entries, the high 64 bits first. The table is only computed when a number
+     * actually needs it.
+     */
+    private static final class PowersOfTen {
+
+        private static final long[] TABLE = create();
+
+        private static long[] create() {
+            final long[] table = new long[(MAX_EXPONENT - MIN_EXPONENT + 1) * 2];
+            final BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+            for (int exponent = MIN_EXPONENT; exponent <= MAX_EXPONENT; exponent++) {
+                final BigInteger value;
+                if (exponent >= 0) {
+                    final BigInteger power = BigInteger.TEN.pow(exponent);
+                    final int shift = power.bitLength() - 128;
+                    value = shift > 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+                } else {
+                    final BigInteger power = BigInteger.TEN.pow(-exponent);
+                    value = BigInteger.ONE.shiftLeft(127 + power.bitLength()).divide(power);
+                }
+
+                final int index = (exponent - MIN_EXPONENT) * 2;
+                table[index] = value.shiftRight(64).longValue();
+                table[index + 1] = value.and(mask).longValue();
+            }
+
+            return table;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+/**
+ * A JSON number which is too large for a {@code double}. org.json rejects every {@link Number} whose
+ * {@code doubleValue()} is infinite, so such numbers are stored in {@link org.json.JSONObject}s and
+ * {@link org.json.JSONArray}s as this holder instead of a {@link LazyNumber}.
+ * <p>
+ * {@code BigDecimal}, {@code BigInteger} and {@code LazyNumber} fields read the exact value from it, it is
+ * written back to JSON unchanged. Reading it as an {@code int}, {@code long} or {@code double} fails.
+ * <p>
+ * Instances are immutable.
+ */
+public final class OutOfRangeNumber {
+
+    private final LazyNumber mNumber;
+
+    OutOfRangeNumber(LazyNumber number) {
+        mNumber = number;
+    }
+
+    public LazyNumber getNumber() {
+        return mNumber;
+    }
+
+    @Override
+    public String toString() {
+        return mNumber.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final OutOfRangeNumber other = (OutOfRangeNumber) o;
+        return mNumber.equals(other.mNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return mNumber.hashCode();
+    }
+}
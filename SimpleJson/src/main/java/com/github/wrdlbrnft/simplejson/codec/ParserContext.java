@@ -0,0 +1,274 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import com.github.wrdlbrnft.simplejson.exceptions.LimitExceededException;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Holds the buffers and caches needed to turn JSON text into {@link JSONObject}s and back. Contexts are
+ * meant to be reused so that steady state parsing does not allocate any parser infrastructure.
+ * <p>
+ * The parsers pick up a context for the current thread through {@link #acquire()}. You can also create
+ * your own instances and pass them explicitly. Such a context should be closed once it is no longer
+ * needed, since compressed streams are handled by {@link java.util.zip.Inflater}s and
+ * {@link java.util.zip.Deflater}s which hold native memory. A context must never be used by multiple
+ * threads at the same time.
+ */
+public final class ParserContext implements Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<ParserContext> CONTEXTS = new ThreadLocal<ParserContext>() {
+        @Override
+        protected ParserContext initialValue() {
+            return new ParserContext();
+        }
+    };
+
+    private final SymbolTable mSymbolTable = new SymbolTable();
+    private final JsonDecoder mDecoder = new JsonDecoder(mSymbolTable);
+    private final JsonEncoder mEncoder = new JsonEncoder();
+    private final CompressionCodec mCompressionCodec = new CompressionCodec();
+
+    private char[] mChars = new char[DEFAULT_BUFFER_SIZE];
+    private StringBuilder mOutput = new StringBuilder(DEFAULT_BUFFER_SIZE);
+    private boolean mInUse;
+    private boolean mTemporary;
+    private int mPayloadSize;
+    private ParserLimits mLimits;
+
+    /**
+     * Returns the context of the current thread. If that context is already in use further up the call
+     * stack a temporary context is returned instead. Each call has to be paired with {@link #release()}.
+     */
+    public static ParserContext acquire() {
+        final ParserContext context = CONTEXTS.get();
+        if (context.mInUse) {
+            final ParserContext temporary = new ParserContext();
+            temporary.mInUse = true;
+            temporary.mTemporary = true;
+            return temporary;
+        }
+
+        context.mInUse = true;
+        return context;
+    }
+
+    public void release() {
+        mInUse = false;
+        mLimits = null;
+
+        if (mTemporary) {
+            mCompressionCodec.end();
+            return;
+        }
+
+        mDecoder.trim(MAX_RETAINED_BUFFER_SIZE);
+        mCompressionCodec.trim(MAX_RETAINED_BUFFER_SIZE);
+
+        if (mChars.length > MAX_RETAINED_BUFFER_SIZE) {
+            mChars = new char[DEFAULT_BUFFER_SIZE];
+        }
+
+        if (mOutput.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            mOutput = new StringBuilder(DEFAULT_BUFFER_SIZE);
+        } else {
+            mOutput.setLength(0);
+        }
+    }
+
+    /**
+     * Frees the native memory held for compressed streams. The context stays usable, it just has to
+     * allocate that memory again the next time a compressed stream is read or written.
+     */
+    @Override
+    public void close() {
+        mCompressionCodec.end();
+    }
+
+    public JSONObject decodeObject(String json) throws JSONException {
+        return decodeObject(json, null);
+    }
+
+    /**
+     * Decodes the object but skips all keys {@code filter} does not contain. A {@code null} filter
+     * decodes everything.
+     */
+    public JSONObject decodeObject(String json, FieldFilter filter) throws JSONException {
+        final int length = json.length();
+        checkDocumentSize(length);
+        final char[] chars = ensureCharCapacity(length);
+        json.getChars(0, length, chars, 0);
+        mPayloadSize = length;
+        return mDecoder.decodeObject(chars, 0, length, filter, getLimits());
+    }
+
+    public JSONArray decodeArray(String json) throws JSONException {
+        return decodeArray(json, null);
+    }
+
+    /**
+     * Decodes the array but skips all keys {@code filter} does not contain in the objects of the array.
+     * A {@code null} filter decodes everything.
+     */
+    public JSONArray decodeArray(String json, FieldFilter filter) throws JSONException {
+        final int length = json.length();
+        checkDocumentSize(length);
+        final char[] chars = ensureCharCapacity(length);
+        json.getChars(0, length, chars, 0);
+        mPayloadSize = length;
+        return mDecoder.decodeArray(chars, 0, length, filter, getLimits());
+    }
+
+    public JSONObject decodeObject(char[] chars, int offset, int length) throws JSONException {
+        return decodeObject(chars, offset, length, null);
+    }
+
+    public JSONObject decodeObject(char[] chars, int offset, int length, FieldFilter filter) throws JSONException {
+        checkDocumentSize(length);
+        mPayloadSize = length;
+        return mDecoder.decodeObject(chars, offset, length, filter, getLimits());
+    }
+
+    public JSONArray decodeArray(char[] chars, int offset, int length) throws JSONException {
+        return decodeArray(chars, offset, length, null);
+    }
+
+    public JSONArray decodeArray(char[] chars, int offset, int length, FieldFilter filter) throws JSONException {
+        checkDocumentSize(length);
+        mPayloadSize = length;
+        return mDecoder.decodeArray(chars, offset, length, filter, getLimits());
+    }
+
+    /**
+     * Decodes UTF-8 encoded JSON without creating an intermediate {@link String}.
+     */
+    public JSONObject decodeObject(byte[] utf8, int offset, int length) throws JSONException {
+        return decodeObject(utf8, offset, length, null);
+    }
+
+    public JSONObject decodeObject(byte[] utf8, int offset, int length, FieldFilter filter) throws JSONException {
+        checkDocumentSize(length);
+        final char[] chars = ensureCharCapacity(length);
+        final int count = Utf8.decode(utf8, offset, length, chars, 0);
+        mPayloadSize = length;
+        return mDecoder.decodeObject(chars, 0, count, filter, getLimits());
+    }
+
+    public JSONArray decodeArray(byte[] utf8, int offset, int length) throws JSONException {
+        return decodeArray(utf8, offset, length, null);
+    }
+
+    public JSONArray decodeArray(byte[] utf8, int offset, int length, FieldFilter filter) throws JSONException {
+        checkDocumentSize(length);
+        final char[] chars = ensureCharCapacity(length);
+        final int count = Utf8.decode(utf8, offset, length, chars, 0);
+        mPayloadSize = length;
+        return mDecoder.decodeArray(chars, 0, count, filter, getLimits());
+    }
+
+    /**
+     * Reads UTF-8 encoded JSON from the stream. It is decompressed and decoded in chunks of a fixed size,
+     * but the JSON itself is only parsed once the whole document has been read. The stream is read to
+     * its end but it is not closed.
+     */
+    public JSONObject decodeObject(InputStream input, Compression compression) throws IOException, JSONException {
+        return decodeObject(input, compression, null);
+    }
+
+    public JSONObject decodeObject(InputStream input, Compression compression, FieldFilter filter) throws IOException, JSONException {
+        mPayloadSize = mCompressionCodec.read(input, compression, getLimits().mMaxDocumentSize);
+        return mDecoder.decodeObject(mCompressionCodec.getChars(), 0, mCompressionCodec.getCharCount(), filter, getLimits());
+    }
+
+    public JSONArray decodeArray(InputStream input, Compression compression) throws IOException, JSONException {
+        return decodeArray(input, compression, null);
+    }
+
+    public JSONArray decodeArray(InputStream input, Compression compression, FieldFilter filter) throws IOException, JSONException {
+        mPayloadSize = mCompressionCodec.read(input, compression, getLimits().mMaxDocumentSize);
+        return mDecoder.decodeArray(mCompressionCodec.getChars(), 0, mCompressionCodec.getCharCount(), filter, getLimits());
+    }
+
+    public String encode(JSONObject object) throws JSONException {
+        mOutput.setLength(0);
+        mEncoder.encodeObject(object, mOutput);
+        mPayloadSize = mOutput.length();
+        return mOutput.toString();
+    }
+
+    public String encode(JSONArray array) throws JSONException {
+        mOutput.setLength(0);
+        mEncoder.encodeArray(array, mOutput);
+        mPayloadSize = mOutput.length();
+        return mOutput.toString();
+    }
+
+    /**
+     * Writes the JSON UTF-8 encoded and compressed to the stream. The JSON is built in the output buffer
+     * first and then encoded and compressed in chunks of a fixed size. The stream is neither flushed nor
+     * closed.
+     */
+    public void encode(JSONObject object, OutputStream output, Compression compression) throws IOException, JSONException {
+        mOutput.setLength(0);
+        mEncoder.encodeObject(object, mOutput);
+        mPayloadSize = mCompressionCodec.write(mOutput, output, compression);
+    }
+
+    public void encode(JSONArray array, OutputStream output, Compression compression) throws IOException, JSONException {
+        mOutput.setLength(0);
+        mEncoder.encodeArray(array, mOutput);
+        mPayloadSize = mCompressionCodec.write(mOutput, output, compression);
+    }
+
+    /**
+     * Makes sure the output buffer can hold {@code capacity} chars, so encoding a document of about
+     * that size allocates the buffer once instead of growing it step by step.
+     */
+    public void ensureOutputCapacity(int capacity) {
+        mOutput.ensureCapacity(capacity);
+    }
+
+    /**
+     * Returns the size of the JSON which was decoded or encoded last. That is the number of chars for
+     * text and the number of uncompressed bytes for UTF-8 input and streams.
+     */
+    public int getPayloadSize() {
+        return mPayloadSize;
+    }
+
+    /**
+     * Sets the limits for everything decoded with this context until it is released. {@code null} means
+     * the {@link ParserLimits#getDefault() default limits} apply.
+     */
+    public void setLimits(ParserLimits limits) {
+        mLimits = limits;
+    }
+
+    public ParserLimits getLimits() {
+        final ParserLimits limits = mLimits;
+        return limits != null ? limits : ParserLimits.getDefault();
+    }
+
+    private void checkDocumentSize(int length) {
+        final int maxDocumentSize = getLimits().mMaxDocumentSize;
+        if (length > maxDocumentSize) {
+            throw new LimitExceededException("The document has a size of " + length + ", the maximum is " + maxDocumentSize);
+        }
+    }
+
+    private char[] ensureCharCapacity(int capacity) {
+        if (mChars.length < capacity) {
+            mChars = new char[Math.max(capacity, mChars.length * 2)];
+        }
+        return mChars;
+    }
+}
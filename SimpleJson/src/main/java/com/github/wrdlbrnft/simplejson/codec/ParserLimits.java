@@ -0,0 +1,100 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+/**
+ * Bounds for the documents which are decoded. The limits are checked while the input is read, so a
+ * document which exceeds one of them is rejected with a
+ * {@link com.github.wrdlbrnft.simplejson.exceptions.LimitExceededException} before the memory for it is
+ * allocated.
+ * <p>
+ * The limits set with {@link #setDefault(ParserLimits)} apply to all decoding, a {@link ParserContext}
+ * can override them with {@link ParserContext#setLimits(ParserLimits)}. By default only the nesting
+ * depth is limited, everything else is unbounded.
+ * <p>
+ * Instances are immutable.
+ */
+public final class ParserLimits {
+
+    public static final int DEFAULT_MAX_DEPTH = 512;
+
+    public static final ParserLimits UNLIMITED = new ParserLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    private static volatile ParserLimits sDefault = new ParserLimits(DEFAULT_MAX_DEPTH, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    final int mMaxDepth;
+    final int mMaxStringLength;
+    final int mMaxElements;
+    final int mMaxDocumentSize;
+
+    /**
+     * @param maxDepth        The maximum number of nested objects and arrays.
+     * @param maxStringLength The maximum number of chars of a single string or key. Numbers with more
+     *                        digits than fit into a {@code long} count as well.
+     * @param maxElements     The maximum number of elements of a single array or members of a single
+     *                        object.
+     * @param maxDocumentSize The maximum size of the whole document, in chars for text and in
+     *                        uncompressed bytes for UTF-8 input and streams.
+     */
+    public ParserLimits(int maxDepth, int maxStringLength, int maxElements, int maxDocumentSize) {
+        if (maxDepth <= 0 || maxStringLength < 0 || maxElements < 0 || maxDocumentSize < 0) {
+            throw new IllegalArgumentException("Limits must not be negative and the depth has to be at least 1!");
+        }
+
+        mMaxDepth = maxDepth;
+        mMaxStringLength = maxStringLength;
+        mMaxElements = maxElements;
+        mMaxDocumentSize = maxDocumentSize;
+    }
+
+    public static void setDefault(ParserLimits limits) {
+        if (limits == null) {
+            throw new IllegalArgumentException("The default limits must not be null!");
+        }
+        sDefault = limits;
+    }
+
+    public static ParserLimits getDefault() {
+        return sDefault;
+    }
+
+    public ParserLimits withMaxDepth(int maxDepth) {
+        return new ParserLimits(maxDepth, mMaxStringLength, mMaxElements, mMaxDocumentSize);
+    }
+
+    public ParserLimits withMaxStringLength(int maxStringLength) {
+        return new ParserLimits(mMaxDepth, maxStringLength, mMaxElements, mMaxDocumentSize);
+    }
+
+    public ParserLimits withMaxElements(int maxElements) {
+        return new ParserLimits(mMaxDepth, mMaxStringLength, maxElements, mMaxDocumentSize);
+    }
+
+    public ParserLimits withMaxDocumentSize(int maxDocumentSize) {
+        return new ParserLimits(mMaxDepth, mMaxStringLength, mMaxElements, maxDocumentSize);
+    }
+
+    public int getMaxDepth() {
+        return mMaxDepth;
+    }
+
+    public int getMaxStringLength() {
+        return mMaxStringLength;
+    }
+
+    public int getMaxElements() {
+        return mMaxElements;
+    }
+
+    public int getMaxDocumentSize() {
+        return mMaxDocumentSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ParserLimits{" +
+                "maxDepth=" + mMaxDepth +
+                ", maxStringLength=" + mMaxStringLength +
+                ", maxElements=" + mMaxElements +
+                ", maxDocumentSize=" + mMaxDocumentSize +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+/**
+ * Direct mapped cache of the keys encountered while decoding. Entities usually repeat the same few keys
+ * over and over again, looking them up here means they are only allocated once per thread instead of
+ * once per occurrence.
+ */
+final class SymbolTable {
+
+    private static final int SIZE = 512;
+    private static final int MASK = SIZE - 1;
+    private static final int MAX_SYMBOL_LENGTH = 64;
+
+    private final String[] mSymbols = new String[SIZE];
+
+    String lookup(char[] buffer, int offset, int length) {
+        if (length > MAX_SYMBOL_LENGTH) {
+            return new String(buffer, offset, length);
+        }
+
+        int hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+
+        final int index = (hash ^ (hash >>> 16)) & MASK;
+        final String cached = mSymbols[index];
+        if (cached != null && matches(cached, buffer, offset, length)) {
+            return cached;
+        }
+
+        final String symbol = new String(buffer, offset, length);
+        mSymbols[index] = symbol;
+        return symbol;
+    }
+
+    private static boolean matches(String symbol, char[] buffer, int offset, int length) {
+        if (symbol.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+/**
+ * Decodes UTF-8 directly into a reusable {@code char[]} and encodes it from a {@link CharSequence} into a
+ * reusable {@code byte[]}.
+ * <p>
+ * When decoding, each byte which doesn't start a complete sequence is replaced with U+FFFD on its own.
+ * A complete three or four byte sequence which is overlong, encodes a surrogate or lies beyond U+10FFFF
+ * is replaced with a single U+FFFD. The number of replacement chars for malformed input can therefore
+ * differ from {@link String#String(byte[], java.nio.charset.Charset)}, well-formed input always decodes
+ * to the same chars. When encoding, unpaired surrogates are replaced with {@code '?'} just like
+ * {@link String#getBytes(java.nio.charset.Charset)} does it.
+ */
+final class Utf8 {
+
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+    private static final byte REPLACEMENT_BYTE = '?';
+    private static final int HIGH_SURROGATE_OFFSET = Character.MIN_HIGH_SURROGATE - (Character.MIN_SUPPLEMENTARY_CODE_POINT >>> 10);
+
+    private Utf8() {
+
+    }
+
+    /**
+     * Decodes {@code length} bytes starting at {@code offset}. The output array has to have room for at
+     * least {@code length} chars after {@code outputOffset} since UTF-8 never needs less bytes than
+     * UTF-16 needs chars.
+     *
+     * @return The number of chars written to {@code output}.
+     */
+    static int decode(byte[] input, int offset, int length, char[] output, int outputOffset) {
+        final int end = offset + length;
+        int position = offset;
+        int count = outputOffset;
+
+        while (position < end) {
+            final int b = input[position];
+            if (b >= 0) {
+                output[count++] = (char) b;
+                position++;
+                continue;
+            }
+
+            final int lead = b & 0xFF;
+            if (lead >= 0xC2 && lead <= 0xDF && position + 1 < end && isContinuation(input[position + 1])) {
+                output[count++] = (char) (((lead & 0x1F) << 6) | (input[position + 1] & 0x3F));
+                position += 2;
+            } else if (lead >= 0xE0 && lead <= 0xEF && position + 2 < end && isContinuation(input[position + 1]) && isContinuation(input[position + 2])) {
+                final int codePoint = ((lead & 0x0F) << 12) | ((input[position + 1] & 0x3F) << 6) | (input[position + 2] & 0x3F);
+                if (codePoint < 0x800 || (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+                    output[count++] = REPLACEMENT_CHARACTER;
+                } else {
+                    output[count++] = (char) codePoint;
+                }
+                position += 3;
+            } else if (lead >= 0xF0 && lead <= 0xF4 && position + 3 < end && isContinuation(input[position + 1]) && isContinuation(input[position + 2]) && isContinuation(input[position + 3])) {
+                final int codePoint = ((lead & 0x07) << 18) | ((input[position + 1] & 0x3F) << 12) | ((input[position + 2] & 0x3F) << 6) | (input[position + 3] & 0x3F);
+                if (codePoint < 0x10000 || codePoint > 0x10FFFF) {
+                    output[count++] = REPLACEMENT_CHARACTER;
+                } else {
+                    output[count++] = (char) ((codePoint >>> 10) + HIGH_SURROGATE_OFFSET);
+                    output[count++] = (char) ((codePoint & 0x3FF) + Character.MIN_LOW_SURROGATE);
+                }
+                position += 4;
+            } else {
+                output[count++] = REPLACEMENT_CHARACTER;
+                position++;
+            }
+        }
+
+        return count - outputOffset;
+    }
+
+    /**
+     * Returns how many bytes at the end of the input are the start of a multi byte sequence which is
+     * cut off. Input which is decoded in chunks keeps these bytes for the next chunk, so the result is
+     * the same as if the whole input was decoded at once.
+     */
+    static int incompleteTail(byte[] input, int offset, int length) {
+        for (int i = 1; i <= 3 && i <= length; i++) {
+            final int b = input[offset + length - i] & 0xFF;
+            if ((b & 0xC0) == 0x80) {
+                continue;
+            }
+
+            final int sequenceLength;
+            if (b >= 0xC2 && b <= 0xDF) {
+                sequenceLength = 2;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                sequenceLength = 3;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                sequenceLength = 4;
+            } else {
+                return 0;
+            }
+            return sequenceLength > i ? i : 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of bytes {@link #encode(CharSequence, int, int, byte[])} needs at most for the given
+     * number of chars.
+     */
+    static int maxEncodedLength(int charCount) {
+        return charCount * 3;
+    }
+
+    /**
+     * Encodes the chars of {@code input} from {@code start} to {@code end}. The output array has to be at
+     * least as long as {@link #maxEncodedLength(int)} returns for the number of chars. A surrogate pair
+     * which is split by {@code end} is encoded as two malformed chars.
+     *
+     * @return The number of bytes written to {@code output}.
+     */
+    static int encode(CharSequence input, int start, int end, byte[] output) {
+        int count = 0;
+
+        for (int i = start; i < end; i++) {
+            final char c = input.charAt(i);
+            if (c < 0x80) {
+                output[count++] = (byte) c;
+            } else if (c < 0x800) {
+                output[count++] = (byte) (0xC0 | (c >>> 6));
+                output[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+                output[count++] = (byte) (0xE0 | (c >>> 12));
+                output[count++] = (byte) (0x80 | ((c >>> 6) & 0x3F));
+                output[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(input.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, input.charAt(++i));
+                output[count++] = (byte) (0xF0 | (codePoint >>> 18));
+                output[count++] = (byte) (0x80 | ((codePoint >>> 12) & 0x3F));
+                output[count++] = (byte) (0x80 | ((codePoint >>> 6) & 0x3F));
+                output[count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                output[count++] = REPLACEMENT_BYTE;
+            }
+        }
+
+        return count;
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+}
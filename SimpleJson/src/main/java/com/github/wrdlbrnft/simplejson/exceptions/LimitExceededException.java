@@ -0,0 +1,18 @@
+package com.github.wrdlbrnft.simplejson.exceptions;
+
+/**
+ * Thrown as soon as a document exceeds one of the configured
+ * {@link com.github.wrdlbrnft.simplejson.codec.ParserLimits}. No stack trace is recorded, so rejecting
+ * hostile input stays cheap.
+ */
+public class LimitExceededException extends SimpleJsonException {
+
+    public LimitExceededException(String detailMessage) {
+        super(detailMessage);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
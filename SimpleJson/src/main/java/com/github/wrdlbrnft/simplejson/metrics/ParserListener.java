@@ -0,0 +1,32 @@
+package com.github.wrdlbrnft.simplejson.metrics;
+
+/**
+ * Is notified by the parsers after each call which converts between entities and JSON text. Install it
+ * with {@link ParserMetrics#setListener(ParserListener)}. Implementations are called on the thread which
+ * did the work, so they have to be thread safe and should return quickly.
+ * <p>
+ * {@code readInto()}, {@code applyPatch()} and {@code merge()} with JSON text and each entity decoded by
+ * a {@link com.github.wrdlbrnft.simplejson.streams.ChunkedJsonDecoder} are reported as
+ * {@link Operation#FROM_JSON}. Methods which only work on {@link org.json.JSONObject}s are not reported.
+ */
+public interface ParserListener {
+
+    enum Operation {
+        FROM_JSON,
+        FROM_JSON_ARRAY,
+        TO_JSON,
+        TO_JSON_ARRAY
+    }
+
+    /**
+     * @param entityType    The type of entity the parser handles.
+     * @param operation     What the parser did.
+     * @param size          The number of chars of the JSON text or the number of bytes if it was read
+     *                      from or written to a stream. -1 if the operation failed before the size was
+     *                      known.
+     * @param elementCount  The number of entities which were parsed or formatted.
+     * @param durationNanos How long the operation took.
+     * @param failure       The exception which was thrown or {@code null} if the operation succeeded.
+     */
+    void onOperation(Class<?> entityType, Operation operation, int size, int elementCount, long durationNanos, Throwable failure);
+}
@@ -0,0 +1,22 @@
+package com.github.wrdlbrnft.simplejson.metrics;
+
+/**
+ * Holds the {@link ParserListener} of the process. As long as no listener is set the parsers only pay
+ * for one volatile read per call.
+ */
+public final class ParserMetrics {
+
+    private static volatile ParserListener sListener;
+
+    private ParserMetrics() {
+
+    }
+
+    public static void setListener(ParserListener listener) {
+        sListener = listener;
+    }
+
+    public static ParserListener getListener() {
+        return sListener;
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.wrdlbrnft.simplejson.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link ParserListener} which keeps counters and a histogram of durations for each entity type and
+ * operation. The histogram uses one bucket per power of two nanoseconds, so percentiles are accurate to
+ * a factor of two which is enough to see which entities dominate.
+ * <pre>
+ * final ParserStatistics statistics = new ParserStatistics();
+ * ParserMetrics.setListener(statistics);
+ * ManagementFactory.getPlatformMBeanServer().registerMBean(statistics, new ObjectName("com.github.wrdlbrnft.simplejson:type=ParserStatistics"));
+ * </pre>
+ */
+public class ParserStatistics implements ParserListener, ParserStatisticsMBean {
+
+    private static final int BUCKET_COUNT = 64;
+
+    private final ConcurrentMap<Class<?>, Entry[]> mEntries = new ConcurrentHashMap<>();
+
+    @Override
+    public void onOperation(Class<?> entityType, Operation operation, int size, int elementCount, long durationNanos, Throwable failure) {
+        final Entry entry = getEntries(entityType)[operation.ordinal()];
+        entry.mCount.incrementAndGet();
+        if (failure != null) {
+            entry.mFailureCount.incrementAndGet();
+        }
+        if (size > 0) {
+            entry.mTotalSize.addAndGet(size);
+        }
+        entry.mTotalElementCount.addAndGet(elementCount);
+        entry.mTotalDurationNanos.addAndGet(durationNanos);
+        entry.mDurations.incrementAndGet(getBucket(durationNanos));
+    }
+
+    @Override
+    public String[] getEntityTypes() {
+        final List<String> names = new ArrayList<>();
+        for (Class<?> type : mEntries.keySet()) {
+            names.add(type.getName());
+        }
+        return names.toArray(new String[names.size()]);
+    }
+
+    @Override
+    public long getCount(String entityType, String operation) {
+        final Entry entry = findEntry(entityType, operation);
+        return entry != null ? entry.mCount.get() : 0L;
+    }
+
+    @Override
+    public long getFailureCount(String entityType, String operation) {
+        final Entry entry = findEntry(entityType, operation);
+        return entry != null ? entry.mFailureCount.get() : 0L;
+    }
+
+    @Override
+    public long getTotalSize(String entityType, String operation) {
+        final Entry entry = findEntry(entityType, operation);
+        return entry != null ? entry.mTotalSize.get() : 0L;
+    }
+
+    @Override
+    public long getTotalElementCount(String entityType, String operation) {
+        final Entry entry = findEntry(entityType, operation);
+        return entry != null ? entry.mTotalElementCount.get() : 0L;
+    }
+
+    @Override
+    public long getTotalDurationNanos(String entityType, String operation) {
+        final Entry entry = findEntry(entityType, operation);
+        return entry != null ? entry.mTotalDurationNanos.get() : 0L;
+    }
+
+    /**
+     * Returns the upper bound of the histogram bucket which contains the given percentile (0 to 100) of
+     * all recorded durations.
+     */
+    @Override
+    public long getDurationPercentileNanos(String entityType, String operation, double percentile) {
+        final Entry entry = findEntry(entityType, operation);
+        if (entry == null) {
+            return 0L;
+        }
+
+        long total = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += entry.mDurations.get(i);
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+
+        final long threshold = (long) Math.ceil(total * Math.min(Math.max(percentile, 0.0), 100.0) / 100.0);
+        long count = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += entry.mDurations.get(i);
+            if (count >= Math.max(threshold, 1L)) {
+                return i < BUCKET_COUNT - 1 ? (1L << i) : Long.MAX_VALUE;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void reset() {
+        mEntries.clear();
+    }
+
+    private Entry[] getEntries(Class<?> entityType) {
+        final Entry[] entries = mEntries.get(entityType);
+        if (entries != null) {
+            return entries;
+        }
+
+        final Operation[] operations = Operation.values();
+        final Entry[] newEntries = new Entry[operations.length];
+        for (int i = 0; i < newEntries.length; i++) {
+            newEntries[i] = new Entry();
+        }
+
+        final Entry[] existingEntries = mEntries.putIfAbsent(entityType, newEntries);
+        return existingEntries != null ? existingEntries : newEntries;
+    }
+
+    private Entry findEntry(String entityType, String operation) {
+        for (Map.Entry<Class<?>, Entry[]> entry : mEntries.entrySet()) {
+            if (entry.getKey().getName().equals(entityType)) {
+                return entry.getValue()[Operation.valueOf(operation).ordinal()];
+            }
+        }
+        return null;
+    }
+
+    private static int getBucket(long durationNanos) {
+        if (durationNanos <= 1L) {
+            return 0;
+        }
+        return Math.min(BUCKET_COUNT - Long.numberOfLeadingZeros(durationNanos - 1L), BUCKET_COUNT - 1);
+    }
+
+    private static class Entry {
+        private final AtomicLong mCount = new AtomicLong();
+        private final AtomicLong mFailureCount = new AtomicLong();
+        private final AtomicLong mTotalSize = new AtomicLong();
+        private final AtomicLong mTotalElementCount = new AtomicLong();
+        private final AtomicLong mTotalDurationNanos = new AtomicLong();
+        private final AtomicLongArray mDurations = new AtomicLongArray(BUCKET_COUNT);
+    }
+}
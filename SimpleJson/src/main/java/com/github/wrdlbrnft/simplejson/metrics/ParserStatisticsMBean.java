@@ -0,0 +1,17 @@
+package com.github.wrdlbrnft.simplejson.metrics;
+
+/**
+ * Management interface of {@link ParserStatistics}. It follows the naming rules of standard MBeans so
+ * on a JVM the statistics can be registered with the platform {@code MBeanServer} as they are. Entity
+ * types are identified by their class name, operations by the name of the {@link ParserListener.Operation}.
+ */
+public interface ParserStatisticsMBean {
+    String[] getEntityTypes();
+    long getCount(String entityType, String operation);
+    long getFailureCount(String entityType, String operation);
+    long getTotalSize(String entityType, String operation);
+    long getTotalElementCount(String entityType, String operation);
+    long getTotalDurationNanos(String entityType, String operation);
+    long getDurationPercentileNanos(String entityType, String operation, double percentile);
+    void reset();
+}
@@ -1,20 +1,41 @@
 package com.github.wrdlbrnft.simplejson.parsers;
 
+import com.github.wrdlbrnft.simplejson.codec.Compression;
+import com.github.wrdlbrnft.simplejson.codec.FieldFilter;
+import com.github.wrdlbrnft.simplejson.codec.JsonMergePatch;
+import com.github.wrdlbrnft.simplejson.codec.ParserContext;
 import com.github.wrdlbrnft.simplejson.exceptions.SimpleJsonException;
+import com.github.wrdlbrnft.simplejson.metrics.ParserListener;
+import com.github.wrdlbrnft.simplejson.metrics.ParserMetrics;
+import com.github.wrdlbrnft.simplejson.parsers.base.MapParser;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by kapeller on 13/01/16.
  */
 public abstract class BaseParser<T> implements Parser<T> {
 
+    private static final int NULL_SIZE = 4;
+    private static final int DEFAULT_VALUE_SIZE = 16;
+    private static final int MAX_ESTIMATED_SIZE = 1 << 20;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private String mParseSectionName;
+    private String mSerializeSectionName;
+    private FieldFilter mFieldFilter;
+
     @Override
     public final T fromJsonObject(JSONObject object, String key) throws SimpleJsonException {
         try {
@@ -51,19 +72,75 @@ public abstract class BaseParser<T> implements Parser<T> {
 
     @Override
     public final T fromJson(String json) throws SimpleJsonException {
+        final ParserContext context = ParserContext.acquire();
+        try {
+            return fromJson(json, context);
+        } finally {
+            context.release();
+        }
+    }
+
+    @Override
+    public final T fromJson(String json, ParserContext context) throws SimpleJsonException {
+        final ParserListener listener = ParserMetrics.getListener();
+        if (listener == null) {
+            return parseObject(json, context);
+        }
+
+        final long start = System.nanoTime();
+        try {
+            final T entity = parseObject(json, context);
+            notifyListener(listener, ParserListener.Operation.FROM_JSON, context.getPayloadSize(), 1, start, null);
+            return entity;
+        } catch (RuntimeException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON, start, e);
+        }
+    }
+
+    private T parseObject(String json, ParserContext context) {
+        ParserTrace.beginSection(getParseSectionName());
         try {
-            final JSONObject object = new JSONObject(json);
+            final JSONObject object = context.decodeObject(json, getFieldFilter());
             return fromJsonObject(object);
         } catch (JSONException e) {
             throw new SimpleJsonException("Failed to parse object from json: " + json, e);
+        } finally {
+            ParserTrace.endSection();
         }
     }
 
     @Override
     public final List<T> fromJsonArray(String json) throws SimpleJsonException {
+        final ParserContext context = ParserContext.acquire();
         try {
-            final List<T> list = new ArrayList<>();
-            final JSONArray array = new JSONArray(json);
+            return fromJsonArray(json, context);
+        } finally {
+            context.release();
+        }
+    }
+
+    @Override
+    public final List<T> fromJsonArray(String json, ParserContext context) throws SimpleJsonException {
+        final ParserListener listener = ParserMetrics.getListener();
+        if (listener == null) {
+            return parseArray(json, context);
+        }
+
+        final long start = System.nanoTime();
+        try {
+            final List<T> entities = parseArray(json, context);
+            notifyListener(listener, ParserListener.Operation.FROM_JSON_ARRAY, context.getPayloadSize(), entities.size(), start, null);
+            return entities;
+        } catch (RuntimeException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON_ARRAY, start, e);
+        }
+    }
+
+    private List<T> parseArray(String json, ParserContext context) {
+        ParserTrace.beginSection(getParseSectionName());
+        try {
+            final JSONArray array = context.decodeArray(json, getFieldFilter());
+            final List<T> list = new ArrayList<>(array.length());
             for (int i = 0; i < array.length(); i++) {
                 final JSONObject object = array.getJSONObject(i);
                 list.add(fromJsonObject(object));
@@ -71,23 +148,200 @@ public abstract class BaseParser<T> implements Parser<T> {
             return list;
         } catch (JSONException e) {
             throw new SimpleJsonException("Failed to parse list of objects from json: " + json, e);
+        } finally {
+            ParserTrace.endSection();
         }
     }
 
     @Override
     public final String toJson(T entity) throws SimpleJsonException {
-        final JSONObject object = toJsonObject(entity);
-        return object.toString();
+        final ParserContext context = ParserContext.acquire();
+        try {
+            return toJson(entity, context);
+        } finally {
+            context.release();
+        }
+    }
+
+    @Override
+    public final String toJson(T entity, ParserContext context) throws SimpleJsonException {
+        final ParserListener listener = ParserMetrics.getListener();
+        if (listener == null) {
+            return formatObject(entity, context);
+        }
+
+        final long start = System.nanoTime();
+        try {
+            final String json = formatObject(entity, context);
+            notifyListener(listener, ParserListener.Operation.TO_JSON, json.length(), 1, start, null);
+            return json;
+        } catch (RuntimeException e) {
+            throw notifyFailure(listener, ParserListener.Operation.TO_JSON, start, e);
+        }
+    }
+
+    private String formatObject(T entity, ParserContext context) {
+        ParserTrace.beginSection(getSerializeSectionName());
+        try {
+            final JSONObject object = toJsonObject(entity);
+            ensureOutputCapacity(context, estimateJsonSize(entity));
+            return context.encode(object);
+        } catch (JSONException e) {
+            throw new SimpleJsonException("Failed to format object to json: " + entity, e);
+        } finally {
+            ParserTrace.endSection();
+        }
     }
 
     @Override
     public final String toJson(Collection<T> entities) throws SimpleJsonException {
-        final JSONArray array = new JSONArray();
-        for (T entity : entities) {
-            final JSONObject t = toJsonObject(entity);
-            array.put(t);
+        final ParserContext context = ParserContext.acquire();
+        try {
+            return toJson(entities, context);
+        } finally {
+            context.release();
+        }
+    }
+
+    @Override
+    public final String toJson(Collection<T> entities, ParserContext context) throws SimpleJsonException {
+        final ParserListener listener = ParserMetrics.getListener();
+        if (listener == null) {
+            return formatArray(entities, context);
+        }
+
+        final long start = System.nanoTime();
+        try {
+            final String json = formatArray(entities, context);
+            notifyListener(listener, ParserListener.Operation.TO_JSON_ARRAY, json.length(), entities.size(), start, null);
+            return json;
+        } catch (RuntimeException e) {
+            throw notifyFailure(listener, ParserListener.Operation.TO_JSON_ARRAY, start, e);
+        }
+    }
+
+    private String formatArray(Collection<T> entities, ParserContext context) {
+        ParserTrace.beginSection(getSerializeSectionName());
+        try {
+            final JSONArray array = new JSONArray();
+            for (T entity : entities) {
+                final JSONObject t = toJsonObject(entity);
+                array.put(t);
+            }
+            ensureOutputCapacity(context, estimateCollectionSize(this, entities));
+            return context.encode(array);
+        } catch (JSONException e) {
+            throw new SimpleJsonException("Failed to format list of objects to json: " + entities, e);
+        } finally {
+            ParserTrace.endSection();
+        }
+    }
+
+    @Override
+    public final T fromJson(InputStream input, Compression compression) throws SimpleJsonException {
+        final ParserListener listener = ParserMetrics.getListener();
+        final long start = listener != null ? System.nanoTime() : 0L;
+        ParserTrace.beginSection(getParseSectionName());
+        final ParserContext context = ParserContext.acquire();
+        try {
+            final JSONObject object = context.decodeObject(input, compression, getFieldFilter());
+            final T entity = fromJsonObject(object);
+            if (listener != null) {
+                notifyListener(listener, ParserListener.Operation.FROM_JSON, context.getPayloadSize(), 1, start, null);
+            }
+            return entity;
+        } catch (IOException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON, start, new SimpleJsonException("Failed to read json from stream.", e));
+        } catch (JSONException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON, start, new SimpleJsonException("Failed to parse object from json stream.", e));
+        } catch (RuntimeException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON, start, e);
+        } finally {
+            context.release();
+            ParserTrace.endSection();
+        }
+    }
+
+    @Override
+    public final List<T> fromJsonArray(InputStream input, Compression compression) throws SimpleJsonException {
+        final ParserListener listener = ParserMetrics.getListener();
+        final long start = listener != null ? System.nanoTime() : 0L;
+        ParserTrace.beginSection(getParseSectionName());
+        final ParserContext context = ParserContext.acquire();
+        try {
+            final JSONArray array = context.decodeArray(input, compression, getFieldFilter());
+            final List<T> list = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                final JSONObject object = array.getJSONObject(i);
+                list.add(fromJsonObject(object));
+            }
+            if (listener != null) {
+                notifyListener(listener, ParserListener.Operation.FROM_JSON_ARRAY, context.getPayloadSize(), list.size(), start, null);
+            }
+            return list;
+        } catch (IOException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON_ARRAY, start, new SimpleJsonException("Failed to read json from stream.", e));
+        } catch (JSONException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON_ARRAY, start, new SimpleJsonException("Failed to parse list of objects from json stream.", e));
+        } catch (RuntimeException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON_ARRAY, start, e);
+        } finally {
+            context.release();
+            ParserTrace.endSection();
+        }
+    }
+
+    @Override
+    public final void toJson(T entity, OutputStream output, Compression compression) throws SimpleJsonException {
+        final ParserListener listener = ParserMetrics.getListener();
+        final long start = listener != null ? System.nanoTime() : 0L;
+        ParserTrace.beginSection(getSerializeSectionName());
+        final ParserContext context = ParserContext.acquire();
+        try {
+            final JSONObject object = toJsonObject(entity);
+            ensureOutputCapacity(context, estimateJsonSize(entity));
+            context.encode(object, output, compression);
+            if (listener != null) {
+                notifyListener(listener, ParserListener.Operation.TO_JSON, context.getPayloadSize(), 1, start, null);
+            }
+        } catch (IOException e) {
+            throw notifyFailure(listener, ParserListener.Operation.TO_JSON, start, new SimpleJsonException("Failed to write json to stream: " + entity, e));
+        } catch (JSONException e) {
+            throw notifyFailure(listener, ParserListener.Operation.TO_JSON, start, new SimpleJsonException("Failed to format object to json: " + entity, e));
+        } catch (RuntimeException e) {
+            throw notifyFailure(listener, ParserListener.Operation.TO_JSON, start, e);
+        } finally {
+            context.release();
+            ParserTrace.endSection();
+        }
+    }
+
+    @Override
+    public final void toJson(Collection<T> entities, OutputStream output, Compression compression) throws SimpleJsonException {
+        final ParserListener listener = ParserMetrics.getListener();
+        final long start = listener != null ? System.nanoTime() : 0L;
+        ParserTrace.beginSection(getSerializeSectionName());
+        final ParserContext context = ParserContext.acquire();
+        try {
+            final JSONArray array = new JSONArray();
+            for (T entity : entities) {
+                array.put(toJsonObject(entity));
+            }
+            ensureOutputCapacity(context, estimateCollectionSize(this, entities));
+            context.encode(array, output, compression);
+            if (listener != null) {
+                notifyListener(listener, ParserListener.Operation.TO_JSON_ARRAY, context.getPayloadSize(), entities.size(), start, null);
+            }
+        } catch (IOException e) {
+            throw notifyFailure(listener, ParserListener.Operation.TO_JSON_ARRAY, start, new SimpleJsonException("Failed to write json to stream: " + entities, e));
+        } catch (JSONException e) {
+            throw notifyFailure(listener, ParserListener.Operation.TO_JSON_ARRAY, start, new SimpleJsonException("Failed to format list of objects to json: " + entities, e));
+        } catch (RuntimeException e) {
+            throw notifyFailure(listener, ParserListener.Operation.TO_JSON_ARRAY, start, e);
+        } finally {
+            context.release();
+            ParserTrace.endSection();
         }
-        return array.toString();
     }
 
     @Override
@@ -108,6 +362,330 @@ public abstract class BaseParser<T> implements Parser<T> {
         }
     }
 
+    /**
+     * Decodes the UTF-8 encoded JSON of a single entity without creating an intermediate {@link String}.
+     * It is reported to the {@link ParserListener} as {@link ParserListener.Operation#FROM_JSON} with the
+     * number of bytes.
+     */
+    public final T fromJson(byte[] utf8, int offset, int length, ParserContext context) throws SimpleJsonException {
+        final ParserListener listener = ParserMetrics.getListener();
+        final long start = listener != null ? System.nanoTime() : 0L;
+        ParserTrace.beginSection(getParseSectionName());
+        try {
+            final JSONObject object = context.decodeObject(utf8, offset, length, getFieldFilter());
+            final T entity = fromJsonObject(object);
+            if (listener != null) {
+                notifyListener(listener, ParserListener.Operation.FROM_JSON, context.getPayloadSize(), 1, start, null);
+            }
+            return entity;
+        } catch (JSONException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON, start, new SimpleJsonException("Failed to parse object from json: " + new String(utf8, offset, length, UTF_8), e));
+        } catch (RuntimeException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON, start, e);
+        } finally {
+            ParserTrace.endSection();
+        }
+    }
+
+    /**
+     * Reported to the {@link ParserListener} as {@link ParserListener.Operation#FROM_JSON}.
+     */
+    @Override
+    public final void readInto(T target, String json) throws SimpleJsonException {
+        final ParserListener listener = ParserMetrics.getListener();
+        final long start = listener != null ? System.nanoTime() : 0L;
+        ParserTrace.beginSection(getParseSectionName());
+        final ParserContext context = ParserContext.acquire();
+        try {
+            final JSONObject object = context.decodeObject(json, getFieldFilter());
+            readInto(target, object);
+            if (listener != null) {
+                notifyListener(listener, ParserListener.Operation.FROM_JSON, context.getPayloadSize(), 1, start, null);
+            }
+        } catch (JSONException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON, start, new SimpleJsonException("Failed to parse object from json: " + json, e));
+        } catch (RuntimeException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON, start, e);
+        } finally {
+            context.release();
+            ParserTrace.endSection();
+        }
+    }
+
+    @Override
+    public final void readInto(T target, JSONObject object) throws SimpleJsonException {
+        try {
+            convertInto(target, object);
+        } catch (JSONException e) {
+            throw new SimpleJsonException("Failed to parse object from json: " + object, e);
+        }
+    }
+
+    @Override
+    public final JSONObject diff(T before, T after) throws SimpleJsonException {
+        if (before == after || (before != null && before.equals(after))) {
+            return new JSONObject();
+        }
+
+        try {
+            return JsonMergePatch.diff(toJsonObject(before), toJsonObject(after));
+        } catch (JSONException e) {
+            throw new SimpleJsonException("Failed to create patch from " + before + " to " + after, e);
+        }
+    }
+
+    /**
+     * Reported to the {@link ParserListener} as {@link ParserListener.Operation#FROM_JSON}.
+     */
+    @Override
+    public final T applyPatch(T base, String patch) throws SimpleJsonException {
+        final ParserListener listener = ParserMetrics.getListener();
+        final long start = listener != null ? System.nanoTime() : 0L;
+        ParserTrace.beginSection(getParseSectionName());
+        final ParserContext context = ParserContext.acquire();
+        try {
+            final JSONObject object = context.decodeObject(patch);
+            final T entity = applyPatch(base, object);
+            if (listener != null) {
+                notifyListener(listener, ParserListener.Operation.FROM_JSON, context.getPayloadSize(), 1, start, null);
+            }
+            return entity;
+        } catch (JSONException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON, start, new SimpleJsonException("Failed to parse patch from json: " + patch, e));
+        } catch (RuntimeException e) {
+            throw notifyFailure(listener, ParserListener.Operation.FROM_JSON, start, e);
+        } finally {
+            context.release();
+            ParserTrace.endSection();
+        }
+    }
+
+    @Override
+    public final T applyPatch(T base, JSONObject patch) throws SimpleJsonException {
+        try {
+            return convertPatch(base, patch);
+        } catch (JSONException e) {
+            throw new SimpleJsonException("Failed to apply patch " + patch + " to " + base, e);
+        }
+    }
+
+    @Override
+    public final T merge(T existing, String partialJson) throws SimpleJsonException {
+        return applyPatch(existing, partialJson);
+    }
+
+    @Override
+    public final T merge(T existing, JSONObject partialObject) throws SimpleJsonException {
+        return applyPatch(existing, partialObject);
+    }
+
+    /**
+     * Returns the keys this parser reads, all other keys are skipped while decoding. {@code null} means
+     * every key is decoded.
+     */
+    public final FieldFilter getFieldFilter() {
+        FieldFilter filter = mFieldFilter;
+        if (filter == null) {
+            filter = createFieldFilter();
+            mFieldFilter = filter;
+        }
+        return filter;
+    }
+
+    /**
+     * Generated parsers return a filter with the keys of their entity. The filter is created once when
+     * it is first needed.
+     */
+    protected FieldFilter createFieldFilter() {
+        return null;
+    }
+
+    /**
+     * Creates a filter for {@code keys} which asks {@link #getChildFieldFilter(int)} for the filters of
+     * their values.
+     */
+    protected final FieldFilter newFieldFilter(String[] keys) {
+        return new FieldFilter(keys, new FieldFilter.ChildFilters() {
+            @Override
+            public FieldFilter getChildFilter(int index) {
+                return getChildFieldFilter(index);
+            }
+        });
+    }
+
+    /**
+     * Generated parsers return the filter for the value of the key at {@code index} of their filter.
+     * The decoder only asks for it once it reaches such a value, so the parsers of child entities are
+     * not loaded together with the filter.
+     */
+    protected FieldFilter getChildFieldFilter(int index) {
+        return null;
+    }
+
+    protected static FieldFilter fieldFilterOf(ElementParser<?> parser) {
+        if (parser instanceof BaseParser) {
+            return ((BaseParser<?>) parser).getFieldFilter();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the type of entity this parser handles, which is reported to the {@link ParserListener}.
+     * Generated parsers return the class of their entity.
+     */
+    protected Class<?> getEntityType() {
+        return getClass();
+    }
+
+    /**
+     * Returns roughly how many chars the JSON of {@code entity} needs, so the output buffer can be
+     * allocated once at the right size. Generated parsers add up the size of the keys and estimates for
+     * each value. 0 means the size is unknown.
+     */
+    protected int estimateJsonSize(T entity) {
+        return 0;
+    }
+
+    protected static int estimateStringSize(String value) {
+        if (value == null) {
+            return NULL_SIZE;
+        }
+        return Math.min(value.length(), MAX_ESTIMATED_SIZE) + 2;
+    }
+
+    /**
+     * Asks the parser of nested entities for their size, all other values get a flat estimate.
+     */
+    @SuppressWarnings("unchecked")
+    protected static <E> int estimateValueSize(ElementParser<E> parser, E value) {
+        if (value == null) {
+            return NULL_SIZE;
+        }
+        if (value instanceof String) {
+            return estimateStringSize((String) value);
+        }
+        if (parser instanceof BaseParser) {
+            final int size = ((BaseParser<E>) parser).estimateJsonSize(value);
+            if (size > 0) {
+                return Math.min(size, MAX_ESTIMATED_SIZE);
+            }
+        }
+        return DEFAULT_VALUE_SIZE;
+    }
+
+    /**
+     * Adds up the estimates of all elements. Once the sum exceeds {@link #MAX_ESTIMATED_SIZE} the rest is
+     * skipped and that cap is returned, so huge collections neither overflow nor take longer to
+     * estimate than their first million chars.
+     */
+    protected static <E> int estimateCollectionSize(ElementParser<E> parser, Collection<E> values) {
+        if (values == null) {
+            return NULL_SIZE;
+        }
+
+        long size = 2;
+        for (E value : values) {
+            size += estimateValueSize(parser, value) + 1;
+            if (size >= MAX_ESTIMATED_SIZE) {
+                return MAX_ESTIMATED_SIZE;
+            }
+        }
+        return (int) size;
+    }
+
+    protected static <V> int estimateMapSize(ElementParser<V> parser, Map<String, V> values) {
+        if (values == null) {
+            return NULL_SIZE;
+        }
+
+        long size = 2;
+        for (Map.Entry<String, V> entry : values.entrySet()) {
+            size += estimateStringSize(entry.getKey()) + estimateValueSize(parser, entry.getValue()) + 2;
+            if (size >= MAX_ESTIMATED_SIZE) {
+                return MAX_ESTIMATED_SIZE;
+            }
+        }
+        return (int) size;
+    }
+
+    /**
+     * Grows the output buffer to the estimated size, but at most to {@link #MAX_ESTIMATED_SIZE}. Large
+     * documents still start with a buffer of that size and only grow beyond it as they are written.
+     * Estimates which are unknown or have overflowed while the generated code added them up are
+     * ignored.
+     */
+    private static void ensureOutputCapacity(ParserContext context, int estimate) {
+        if (estimate > 0) {
+            context.ensureOutputCapacity(Math.min(estimate, MAX_ESTIMATED_SIZE));
+        }
+    }
+
+    private String getParseSectionName() {
+        if (mParseSectionName == null) {
+            mParseSectionName = ParserTrace.createSectionName(ParserTrace.EVENT_PARSE, getEntityType());
+        }
+        return mParseSectionName;
+    }
+
+    private String getSerializeSectionName() {
+        if (mSerializeSectionName == null) {
+            mSerializeSectionName = ParserTrace.createSectionName(ParserTrace.EVENT_SERIALIZE, getEntityType());
+        }
+        return mSerializeSectionName;
+    }
+
+    private void notifyListener(ParserListener listener, ParserListener.Operation operation, int size, int elementCount, long start, Throwable failure) {
+        listener.onOperation(getEntityType(), operation, size, elementCount, System.nanoTime() - start, failure);
+    }
+
+    private RuntimeException notifyFailure(ParserListener listener, ParserListener.Operation operation, long start, RuntimeException failure) {
+        if (listener != null) {
+            notifyListener(listener, operation, -1, 0, start, failure);
+        }
+        return failure;
+    }
+
+    /**
+     * Overwrites all fields of {@code target} with the values in {@code object}. Only entities which
+     * declare a setter for each of their fields support this, all other entities are immutable.
+     */
+    protected void convertInto(T target, JSONObject object) throws JSONException {
+        throw new SimpleJsonException("Cannot read json into " + target + ". Only entities which declare a setter for each field support readInto()!");
+    }
+
+    /**
+     * Creates a new entity from {@code base} with {@code patch} applied to it. Generated parsers only
+     * parse the fields present in the patch and reuse the values of {@code base} for all others. This
+     * default implementation applies the patch to the JSON of {@code base} and parses the result.
+     */
+    protected T convertPatch(T base, JSONObject patch) throws JSONException {
+        return convertFromJson(JsonMergePatch.apply(convertToJson(base), patch));
+    }
+
+    /**
+     * Parses the patched value of a field. Child entities and maps are patched recursively, so their
+     * unchanged values are reused as well. Required fields cannot be removed by a patch.
+     */
+    @SuppressWarnings("unchecked")
+    protected static <E> E patchValue(ElementParser<E> parser, E base, JSONObject patch, String key) throws JSONException {
+        if (patch.isNull(key)) {
+            throw new JSONException("The field \"" + key + "\" is required and cannot be removed by a patch.");
+        }
+
+        final Object value = patch.get(key);
+        if (value instanceof JSONObject) {
+            if (base != null && parser instanceof BaseParser) {
+                return ((BaseParser<E>) parser).applyPatch(base, (JSONObject) value);
+            }
+
+            if (parser instanceof MapParser) {
+                return (E) ((MapParser<Object>) parser).applyPatch((Map<String, Object>) base, (JSONObject) value);
+            }
+        }
+
+        return parser.fromJsonObject(patch, key);
+    }
+
     protected abstract T convertFromJson(JSONObject object) throws JSONException;
     protected abstract JSONObject convertToJson(T entity) throws JSONException;
 }
@@ -1,9 +1,13 @@
 package com.github.wrdlbrnft.simplejson.parsers;
 
+import com.github.wrdlbrnft.simplejson.codec.Compression;
+import com.github.wrdlbrnft.simplejson.codec.ParserContext;
 import com.github.wrdlbrnft.simplejson.exceptions.SimpleJsonException;
 
 import org.json.JSONObject;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
 
@@ -12,9 +16,24 @@ import java.util.List;
  */
 public interface Parser<T> extends ElementParser<T> {
     T fromJson(String json) throws SimpleJsonException;
+    T fromJson(String json, ParserContext context) throws SimpleJsonException;
     List<T> fromJsonArray(String json) throws SimpleJsonException;
+    List<T> fromJsonArray(String json, ParserContext context) throws SimpleJsonException;
     String toJson(T entity) throws SimpleJsonException;
+    String toJson(T entity, ParserContext context) throws SimpleJsonException;
     String toJson(Collection<T> entities) throws SimpleJsonException;
+    String toJson(Collection<T> entities, ParserContext context) throws SimpleJsonException;
+    T fromJson(InputStream input, Compression compression) throws SimpleJsonException;
+    List<T> fromJsonArray(InputStream input, Compression compression) throws SimpleJsonException;
+    void toJson(T entity, OutputStream output, Compression compression) throws SimpleJsonException;
+    void toJson(Collection<T> entities, OutputStream output, Compression compression) throws SimpleJsonException;
     T fromJsonObject(JSONObject object) throws SimpleJsonException;
     JSONObject toJsonObject(T entity) throws SimpleJsonException;
+    void readInto(T target, String json) throws SimpleJsonException;
+    void readInto(T target, JSONObject object) throws SimpleJsonException;
+    JSONObject diff(T before, T after) throws SimpleJsonException;
+    T applyPatch(T base, String patch) throws SimpleJsonException;
+    T applyPatch(T base, JSONObject patch) throws SimpleJsonException;
+    T merge(T existing, String partialJson) throws SimpleJsonException;
+    T merge(T existing, JSONObject partialObject) throws SimpleJsonException;
 }
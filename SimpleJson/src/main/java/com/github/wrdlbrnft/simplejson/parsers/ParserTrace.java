@@ -0,0 +1,58 @@
+package com.github.wrdlbrnft.simplejson.parsers;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Marks parse and serialize calls as sections in systrace and Perfetto recordings. Sections are only
+ * recorded while the app is being traced, otherwise beginning and ending them is a cheap native check.
+ * Outside of Android, for example in unit tests on a plain JVM, tracing is disabled.
+ */
+final class ParserTrace {
+
+    static final String EVENT_PARSE = "SimpleJson.Parse";
+    static final String EVENT_SERIALIZE = "SimpleJson.Serialize";
+
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+    private static final boolean SUPPORTED = isSupported();
+
+    private ParserTrace() {
+
+    }
+
+    /**
+     * The Android classes are only touched here, so {@link Trace} is never loaded when they are missing
+     * or only stubbed out.
+     */
+    private static boolean isSupported() {
+        try {
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+        } catch (NoClassDefFoundError e) {
+            return false;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    static String createSectionName(String event, Class<?> entityType) {
+        final String name = event + " " + entityType.getName();
+        return name.length() > MAX_SECTION_NAME_LENGTH
+                ? name.substring(0, MAX_SECTION_NAME_LENGTH)
+                : name;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    static void beginSection(String sectionName) {
+        if (SUPPORTED) {
+            Trace.beginSection(sectionName);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    static void endSection() {
+        if (SUPPORTED) {
+            Trace.endSection();
+        }
+    }
+}
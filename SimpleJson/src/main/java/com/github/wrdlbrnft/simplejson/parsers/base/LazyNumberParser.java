@@ -0,0 +1,68 @@
+package com.github.wrdlbrnft.simplejson.parsers.base;
+
+import com.github.wrdlbrnft.simplejson.codec.LazyNumber;
+import com.github.wrdlbrnft.simplejson.codec.OutOfRangeNumber;
+import com.github.wrdlbrnft.simplejson.exceptions.SimpleJsonException;
+import com.github.wrdlbrnft.simplejson.parsers.ElementParser;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.math.BigDecimal;
+
+/**
+ * Reads numbers without converting them to a {@code double} first. Numbers which were decoded as
+ * {@link LazyNumber} or {@link OutOfRangeNumber} are returned as they are, all other values are converted
+ * from their exact text.
+ */
+public class LazyNumberParser implements ElementParser<LazyNumber> {
+
+    @Override
+    public LazyNumber fromJsonObject(JSONObject object, String key) throws SimpleJsonException {
+        try {
+            return toLazyNumber(object.get(key));
+        } catch (JSONException | NumberFormatException e) {
+            throw new SimpleJsonException("Failed to get number with key \"" + key + "\" from json: " + object, e);
+        }
+    }
+
+    @Override
+    public void toJsonObject(JSONObject object, String key, LazyNumber value) throws SimpleJsonException {
+        try {
+            object.put(key, value != null ? value.toJsonValue() : null);
+        } catch (JSONException e) {
+            throw new SimpleJsonException("Failed to add number " + value + " with key \"" + key + "\" to json: " + object, e);
+        }
+    }
+
+    @Override
+    public LazyNumber fromJsonArray(JSONArray array, int index) throws SimpleJsonException {
+        try {
+            return toLazyNumber(array.get(index));
+        } catch (JSONException | NumberFormatException e) {
+            throw new SimpleJsonException("Failed to get number with index " + index + " from json array: " + array, e);
+        }
+    }
+
+    @Override
+    public void toJsonArray(JSONArray array, LazyNumber value) throws SimpleJsonException {
+        array.put(value != null ? value.toJsonValue() : null);
+    }
+
+    private static LazyNumber toLazyNumber(Object value) {
+        if (value instanceof LazyNumber) {
+            return (LazyNumber) value;
+        }
+
+        if (value instanceof OutOfRangeNumber) {
+            return ((OutOfRangeNumber) value).getNumber();
+        }
+
+        if (value instanceof Integer || value instanceof Long) {
+            return LazyNumber.valueOf(((Number) value).longValue());
+        }
+
+        return LazyNumber.valueOf(new BigDecimal(value.toString()));
+    }
+}
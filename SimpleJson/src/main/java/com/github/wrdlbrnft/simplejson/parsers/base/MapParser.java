@@ -0,0 +1,119 @@
+package com.github.wrdlbrnft.simplejson.parsers.base;
+
+import com.github.wrdlbrnft.simplejson.exceptions.SimpleJsonException;
+import com.github.wrdlbrnft.simplejson.parsers.BaseParser;
+import com.github.wrdlbrnft.simplejson.parsers.ElementParser;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parses json objects into {@code Map<String, V>} using the parser of the value type. Maps are sized for
+ * the number of entries up front, insertion ordered maps keep the order of the entries in the json.
+ */
+public class MapParser<V> implements ElementParser<Map<String, V>> {
+
+    private final ElementParser<V> mValueParser;
+    private final boolean mInsertionOrdered;
+
+    public MapParser(ElementParser<V> valueParser, boolean insertionOrdered) {
+        mValueParser = valueParser;
+        mInsertionOrdered = insertionOrdered;
+    }
+
+    @Override
+    public Map<String, V> fromJsonObject(JSONObject object, String key) throws SimpleJsonException {
+        try {
+            return readMap(object.getJSONObject(key));
+        } catch (JSONException e) {
+            throw new SimpleJsonException("Failed to get Map with key \"" + key + "\" from json: " + object, e);
+        }
+    }
+
+    @Override
+    public void toJsonObject(JSONObject object, String key, Map<String, V> value) throws SimpleJsonException {
+        try {
+            object.put(key, value != null ? writeMap(value) : null);
+        } catch (JSONException e) {
+            throw new SimpleJsonException("Failed to add Map " + value + " with key \"" + key + "\" to json: " + object, e);
+        }
+    }
+
+    @Override
+    public Map<String, V> fromJsonArray(JSONArray array, int index) throws SimpleJsonException {
+        try {
+            return readMap(array.getJSONObject(index));
+        } catch (JSONException e) {
+            throw new SimpleJsonException("Failed to get Map with index " + index + " from json array: " + array, e);
+        }
+    }
+
+    @Override
+    public void toJsonArray(JSONArray array, Map<String, V> value) throws SimpleJsonException {
+        array.put(value != null ? writeMap(value) : JSONObject.NULL);
+    }
+
+    /**
+     * Applies a JSON merge patch to a copy of {@code base}. {@code null} members remove their entry, all
+     * other members are patched if they are child entities or replace the entry otherwise. {@code base}
+     * itself is not modified.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, V> applyPatch(Map<String, V> base, JSONObject patch) throws SimpleJsonException {
+        final int size = (base != null ? base.size() : 0) + patch.length();
+        final Map<String, V> map = createMap(size);
+        if (base != null) {
+            map.putAll(base);
+        }
+
+        final Iterator<?> keys = patch.keys();
+        while (keys.hasNext()) {
+            final String key = (String) keys.next();
+            if (patch.isNull(key)) {
+                map.remove(key);
+                continue;
+            }
+
+            final V existing = map.get(key);
+            final Object value = patch.opt(key);
+            if (existing != null && value instanceof JSONObject && mValueParser instanceof BaseParser) {
+                map.put(key, ((BaseParser<V>) mValueParser).applyPatch(existing, (JSONObject) value));
+            } else {
+                map.put(key, mValueParser.fromJsonObject(patch, key));
+            }
+        }
+        return map;
+    }
+
+    private Map<String, V> readMap(JSONObject object) throws SimpleJsonException {
+        final Map<String, V> map = createMap(object.length());
+
+        final Iterator<?> keys = object.keys();
+        while (keys.hasNext()) {
+            final String key = (String) keys.next();
+            map.put(key, mValueParser.fromJsonObject(object, key));
+        }
+        return map;
+    }
+
+    private Map<String, V> createMap(int size) {
+        final int capacity = (int) (size / 0.75f) + 1;
+        return mInsertionOrdered
+                ? new LinkedHashMap<String, V>(capacity)
+                : new HashMap<String, V>(capacity);
+    }
+
+    private JSONObject writeMap(Map<String, V> map) throws SimpleJsonException {
+        final JSONObject object = new JSONObject();
+        for (Map.Entry<String, V> entry : map.entrySet()) {
+            mValueParser.toJsonObject(object, entry.getKey(), entry.getValue());
+        }
+        return object;
+    }
+}
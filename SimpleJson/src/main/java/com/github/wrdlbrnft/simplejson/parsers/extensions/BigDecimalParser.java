@@ -0,0 +1,31 @@
+package com.github.wrdlbrnft.simplejson.parsers.extensions;
+
+import com.github.wrdlbrnft.simplejson.codec.LazyNumber;
+import com.github.wrdlbrnft.simplejson.parsers.ParserExtension;
+import com.github.wrdlbrnft.simplejson.parsers.base.LazyNumberParser;
+
+import java.math.BigDecimal;
+
+/**
+ * Reads numbers from their exact decimal digits, so no precision is lost to a {@code double} in between.
+ */
+public class BigDecimalParser extends ParserExtension<LazyNumber, BigDecimal> {
+
+    public BigDecimalParser() {
+        super(new LazyNumberParser());
+    }
+
+    @Override
+    protected BigDecimal convertUp(LazyNumber input) {
+        return input.bigDecimalValue();
+    }
+
+    @Override
+    protected LazyNumber convertDown(BigDecimal input) {
+        if (input == null) {
+            return null;
+        }
+
+        return LazyNumber.valueOf(input);
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.wrdlbrnft.simplejson.parsers.extensions;
+
+import com.github.wrdlbrnft.simplejson.codec.LazyNumber;
+import com.github.wrdlbrnft.simplejson.exceptions.SimpleJsonException;
+import com.github.wrdlbrnft.simplejson.parsers.ParserExtension;
+import com.github.wrdlbrnft.simplejson.parsers.base.LazyNumberParser;
+
+import java.math.BigInteger;
+
+/**
+ * Reads integers of arbitrary size from their exact decimal digits. Numbers with a fractional part are
+ * rejected.
+ */
+public class BigIntegerParser extends ParserExtension<LazyNumber, BigInteger> {
+
+    public BigIntegerParser() {
+        super(new LazyNumberParser());
+    }
+
+    @Override
+    protected BigInteger convertUp(LazyNumber input) {
+        try {
+            return input.bigIntegerValue();
+        } catch (ArithmeticException e) {
+            throw new SimpleJsonException("Failed to convert number " + input + " to BigInteger, it has a fractional part.", e);
+        }
+    }
+
+    @Override
+    protected LazyNumber convertDown(BigInteger input) {
+        if (input == null) {
+            return null;
+        }
+
+        return LazyNumber.valueOf(input);
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.wrdlbrnft.simplejson.pools;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded table of weakly referenced immutable entities. {@link #intern(Object)} returns an instance
+ * which is already in the table and equal to the given one, so documents which repeat the same nested
+ * object many times only keep one copy of it in memory.
+ * <p>
+ * Each hash code maps to exactly one slot and a new entity replaces whatever occupies its slot. The
+ * table therefore never grows beyond its capacity, but it may miss equal instances after a collision.
+ * Entries are only weakly referenced and don't keep otherwise unused entities alive.
+ * <p>
+ * Instances are thread safe.
+ */
+public class EntityInterner<T> {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final AtomicReferenceArray<WeakReference<T>> mEntries;
+    private final int mMask;
+
+    public EntityInterner() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The number of slots in the table. It is rounded up to the next power of two.
+     */
+    public EntityInterner(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of the interner has to be positive!");
+        }
+
+        int size = 1;
+        while (size < capacity && size < MAX_CAPACITY) {
+            size <<= 1;
+        }
+
+        mEntries = new AtomicReferenceArray<>(size);
+        mMask = size - 1;
+    }
+
+    /**
+     * Returns an instance which is already in the table and equal to {@code entity} or adds
+     * {@code entity} to the table and returns it if there is none.
+     */
+    public T intern(T entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        final int index = spread(entity.hashCode()) & mMask;
+        final WeakReference<T> reference = mEntries.get(index);
+        if (reference != null) {
+            final T existing = reference.get();
+            if (existing != null && existing.equals(entity)) {
+                return existing;
+            }
+        }
+
+        mEntries.set(index, new WeakReference<>(entity));
+        return entity;
+    }
+
+    /**
+     * Removes all entities from the table.
+     */
+    public void clear() {
+        for (int i = 0, count = mEntries.length(); i < count; i++) {
+            mEntries.set(i, null);
+        }
+    }
+
+    public int capacity() {
+        return mEntries.length();
+    }
+
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.wrdlbrnft.simplejson.pools;
+
+/**
+ * Small fixed size pool for mutable entities. Combined with {@code readInto()} on the generated factories
+ * this allows decoding high frequency messages without allocating a new entity for each of them.
+ * <p>
+ * Instances are not thread safe. Use one pool per thread or guard it externally.
+ */
+public class EntityPool<T> {
+
+    public interface Factory<T> {
+        T create();
+    }
+
+    private final Factory<T> mFactory;
+    private final Object[] mEntities;
+    private int mSize;
+
+    public EntityPool(int maxSize, Factory<T> factory) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The max size of the pool has to be positive!");
+        }
+
+        mFactory = factory;
+        mEntities = new Object[maxSize];
+    }
+
+    /**
+     * Returns a pooled entity or creates a new one if the pool is empty. The fields of pooled entities
+     * still contain the values they had when they were released.
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if (mSize == 0) {
+            return mFactory.create();
+        }
+
+        final int index = --mSize;
+        final T entity = (T) mEntities[index];
+        mEntities[index] = null;
+        return entity;
+    }
+
+    /**
+     * Returns an entity to the pool. If the pool is already full the entity is dropped.
+     *
+     * @return {@code true} if the entity was added to the pool.
+     */
+    public boolean release(T entity) {
+        if (mSize == mEntities.length) {
+            return false;
+        }
+
+        mEntities[mSize++] = entity;
+        return true;
+    }
+
+    public int size() {
+        return mSize;
+    }
+}
@@ -0,0 +1,199 @@
+package com.github.wrdlbrnft.simplejson.reactive;
+
+import com.github.wrdlbrnft.simplejson.parsers.Parser;
+import com.github.wrdlbrnft.simplejson.streams.ChunkedJsonDecoder;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Publisher} which decodes a top level JSON array or NDJSON from an {@link InputStream} element by
+ * element. The stream is only read as far as the outstanding demand of the {@link Subscriber} requires,
+ * reading happens on the thread which calls {@link Subscription#request(long)}.
+ * <p>
+ * Each instance can only be subscribed to once and closes the {@link InputStream} once it terminates or
+ * is cancelled.
+ */
+public class JsonArrayPublisher<T> implements Publisher<T> {
+
+    private static final int DEFAULT_READ_BUFFER_SIZE = 8192;
+
+    private final Parser<T> mParser;
+    private final InputStream mInputStream;
+    private final int mReadBufferSize;
+    private final AtomicBoolean mSubscribed = new AtomicBoolean();
+
+    public JsonArrayPublisher(Parser<T> parser, InputStream inputStream) {
+        this(parser, inputStream, DEFAULT_READ_BUFFER_SIZE);
+    }
+
+    public JsonArrayPublisher(Parser<T> parser, InputStream inputStream, int readBufferSize) {
+        mParser = parser;
+        mInputStream = inputStream;
+        mReadBufferSize = readBufferSize;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null!");
+        }
+
+        if (!mSubscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("A JsonArrayPublisher can only be subscribed to once!"));
+            return;
+        }
+
+        final DecodingSubscription<T> subscription = new DecodingSubscription<>(mParser, mInputStream, mReadBufferSize, subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private static class DecodingSubscription<T> implements Subscription, ChunkedJsonDecoder.Callback<T> {
+
+        private final InputStream mInputStream;
+        private final Subscriber<? super T> mSubscriber;
+        private final ChunkedJsonDecoder<T> mDecoder;
+        private final byte[] mReadBuffer;
+
+        private final Queue<T> mPending = new ArrayDeque<>();
+        private final AtomicLong mRequested = new AtomicLong();
+        private final AtomicInteger mWorkInProgress = new AtomicInteger();
+
+        private volatile boolean mCancelled;
+        private volatile Throwable mInvalidRequest;
+        private boolean mEndOfInput;
+        private boolean mTerminated;
+
+        private DecodingSubscription(Parser<T> parser, InputStream inputStream, int readBufferSize, Subscriber<? super T> subscriber) {
+            mInputStream = inputStream;
+            mSubscriber = subscriber;
+            mDecoder = new ChunkedJsonDecoder<>(parser, this);
+            mReadBuffer = new byte[readBufferSize];
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                mInvalidRequest = new IllegalArgumentException("Requested " + n + " elements, a Subscriber must request a positive number of elements!");
+            } else {
+                addDemand(n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            mCancelled = true;
+            drain();
+        }
+
+        @Override
+        public void onEntityDecoded(T entity) {
+            mPending.add(entity);
+        }
+
+        private void addDemand(long n) {
+            while (true) {
+                final long current = mRequested.get();
+                final long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (mRequested.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        private void drain() {
+            if (mWorkInProgress.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                drainLoop();
+                missed = mWorkInProgress.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainLoop() {
+            while (!mTerminated) {
+                if (mCancelled) {
+                    terminate();
+                    return;
+                }
+
+                final Throwable invalidRequest = mInvalidRequest;
+                if (invalidRequest != null) {
+                    terminate();
+                    mSubscriber.onError(invalidRequest);
+                    return;
+                }
+
+                if (!mPending.isEmpty()) {
+                    if (mRequested.get() == 0) {
+                        return;
+                    }
+
+                    mRequested.decrementAndGet();
+                    mSubscriber.onNext(mPending.poll());
+                    continue;
+                }
+
+                if (mEndOfInput) {
+                    terminate();
+                    mSubscriber.onComplete();
+                    return;
+                }
+
+                if (mRequested.get() == 0) {
+                    return;
+                }
+
+                try {
+                    readChunk();
+                } catch (Throwable e) {
+                    terminate();
+                    mSubscriber.onError(e);
+                    return;
+                }
+            }
+        }
+
+        private void readChunk() throws IOException {
+            final int count = mInputStream.read(mReadBuffer);
+            if (count < 0) {
+                mEndOfInput = true;
+                mDecoder.finish();
+                return;
+            }
+
+            mDecoder.feed(mReadBuffer, 0, count);
+        }
+
+        private void terminate() {
+            mTerminated = true;
+            mPending.clear();
+            try {
+                mInputStream.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.wrdlbrnft.simplejson.reactive;
+
+import com.github.wrdlbrnft.simplejson.parsers.Parser;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * {@link Subscriber} which writes each entity to a {@link Writer} as soon as it is produced, either as
+ * elements of a JSON array or as NDJSON. Entities are requested in batches so that at most one batch is
+ * in flight at any time.
+ * <p>
+ * The {@link Writer} is flushed and closed once the upstream terminates or writing fails.
+ */
+public class JsonArraySubscriber<T> implements Subscriber<T> {
+
+    public enum Format {
+        ARRAY,
+        NDJSON
+    }
+
+    public interface Callback {
+        void onCompleted();
+        void onFailed(Throwable throwable);
+    }
+
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final Parser<T> mParser;
+    private final Writer mWriter;
+    private final Format mFormat;
+    private final int mBatchSize;
+    private final Callback mCallback;
+
+    private Subscription mSubscription;
+    private boolean mFirstElement = true;
+    private int mReceivedInBatch;
+    private boolean mDone;
+
+    public JsonArraySubscriber(Parser<T> parser, Writer writer, Format format, Callback callback) {
+        this(parser, writer, format, DEFAULT_BATCH_SIZE, callback);
+    }
+
+    public JsonArraySubscriber(Parser<T> parser, Writer writer, Format format, int batchSize, Callback callback) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size has to be positive!");
+        }
+
+        mParser = parser;
+        mWriter = writer;
+        mFormat = format;
+        mBatchSize = batchSize;
+        mCallback = callback;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        if (mSubscription != null) {
+            subscription.cancel();
+            return;
+        }
+
+        mSubscription = subscription;
+        try {
+            if (mFormat == Format.ARRAY) {
+                mWriter.write('[');
+            }
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        subscription.request(mBatchSize);
+    }
+
+    @Override
+    public void onNext(T entity) {
+        if (entity == null) {
+            throw new NullPointerException("Entities emitted by a Publisher must not be null!");
+        }
+
+        if (mDone) {
+            return;
+        }
+
+        try {
+            writeEntity(entity);
+        } catch (Exception e) {
+            fail(e);
+            return;
+        }
+
+        if (++mReceivedInBatch == mBatchSize) {
+            mReceivedInBatch = 0;
+            mSubscription.request(mBatchSize);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (mDone) {
+            return;
+        }
+
+        mDone = true;
+        close();
+        mCallback.onFailed(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (mDone) {
+            return;
+        }
+
+        mDone = true;
+        try {
+            if (mFormat == Format.ARRAY) {
+                mWriter.write(']');
+            }
+            mWriter.flush();
+        } catch (IOException e) {
+            close();
+            mCallback.onFailed(e);
+            return;
+        }
+        close();
+        mCallback.onCompleted();
+    }
+
+    private void writeEntity(T entity) throws IOException {
+        final String json = mParser.toJson(entity);
+
+        if (mFormat == Format.NDJSON) {
+            mWriter.write(json);
+            mWriter.write('\n');
+            return;
+        }
+
+        if (!mFirstElement) {
+            mWriter.write(',');
+        }
+        mFirstElement = false;
+        mWriter.write(json);
+    }
+
+    private void fail(Exception e) {
+        mDone = true;
+        mSubscription.cancel();
+        close();
+        mCallback.onFailed(e);
+    }
+
+    private void close() {
+        try {
+            mWriter.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.github.wrdlbrnft.simplejson.streams;
+
+import com.github.wrdlbrnft.simplejson.codec.ParserContext;
+import com.github.wrdlbrnft.simplejson.codec.ParserLimits;
+import com.github.wrdlbrnft.simplejson.exceptions.LimitExceededException;
+import com.github.wrdlbrnft.simplejson.exceptions.SimpleJsonException;
+import com.github.wrdlbrnft.simplejson.parsers.BaseParser;
+import com.github.wrdlbrnft.simplejson.parsers.Parser;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Push style decoder for JSON which arrives in chunks, for example as a sequence of {@link ByteBuffer}s
+ * read from a non blocking channel. Each entity is handed to the {@link Callback} as soon as its closing
+ * brace has been fed into the decoder.
+ * <p>
+ * The input can either be a top level JSON array of entities, a single entity or a sequence of
+ * entities separated by whitespace or newlines (NDJSON). Only the bytes of the entity which is currently
+ * incomplete and the scanner state are kept between chunks.
+ * <p>
+ * Instances are not thread safe. Use one decoder per connection.
+ */
+public class ChunkedJsonDecoder<T> {
+
+    public interface Callback<T> {
+        void onEntityDecoded(T entity);
+    }
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private static final int STATE_TOP_LEVEL = 0;
+    private static final int STATE_ARRAY_START = 1;
+    private static final int STATE_ARRAY_EXPECT_ELEMENT = 2;
+    private static final int STATE_ARRAY_EXPECT_SEPARATOR = 3;
+    private static final int STATE_ENTITY = 4;
+
+    private final Parser<T> mParser;
+    private final Callback<T> mCallback;
+    private final ParserLimits mLimits;
+
+    private byte[] mBuffer = new byte[INITIAL_BUFFER_SIZE];
+    private int mLength;
+
+    private int mState = STATE_TOP_LEVEL;
+    private boolean mInArray;
+    private int mDepth;
+    private boolean mInString;
+    private boolean mEscaped;
+
+    public ChunkedJsonDecoder(Parser<T> parser, Callback<T> callback) {
+        this(parser, callback, ParserLimits.getDefault());
+    }
+
+    /**
+     * @param limits The maximum document size applies to each entity, so a single huge entity is rejected
+     *               before all of its bytes are buffered.
+     */
+    public ChunkedJsonDecoder(Parser<T> parser, Callback<T> callback, ParserLimits limits) {
+        mParser = parser;
+        mCallback = callback;
+        mLimits = limits;
+    }
+
+    public void feed(ByteBuffer chunk) throws SimpleJsonException {
+        if (chunk.hasArray()) {
+            final int position = chunk.position();
+            final int remaining = chunk.remaining();
+            feed(chunk.array(), chunk.arrayOffset() + position, remaining);
+            chunk.position(position + remaining);
+            return;
+        }
+
+        while (chunk.hasRemaining()) {
+            consume(chunk.get());
+        }
+    }
+
+    public void feed(byte[] data, int offset, int length) throws SimpleJsonException {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            consume(data[i]);
+        }
+    }
+
+    /**
+     * Signals that no more input will be fed into this decoder.
+     *
+     * @throws SimpleJsonException if the input ended in the middle of an entity or array.
+     */
+    public void finish() throws SimpleJsonException {
+        if (mState != STATE_TOP_LEVEL) {
+            final String message = mState == STATE_ENTITY
+                    ? "Input ended in the middle of an entity after " + mLength + " bytes!"
+                    : "Input ended before the closing bracket of the top level array!";
+            reset();
+            throw new SimpleJsonException(message);
+        }
+    }
+
+    public void reset() {
+        mLength = 0;
+        mState = STATE_TOP_LEVEL;
+        mInArray = false;
+        mDepth = 0;
+        mInString = false;
+        mEscaped = false;
+    }
+
+    private void consume(byte b) throws SimpleJsonException {
+        switch (mState) {
+
+            case STATE_ENTITY:
+                consumeEntityByte(b);
+                break;
+
+            case STATE_TOP_LEVEL:
+                if (isWhitespace(b)) {
+                    break;
+                }
+
+                if (b == '[') {
+                    mInArray = true;
+                    mState = STATE_ARRAY_START;
+                } else if (b == '{') {
+                    startEntity(b);
+                } else {
+                    throw unexpected(b, "'[' or '{'");
+                }
+                break;
+
+            case STATE_ARRAY_START:
+                if (isWhitespace(b)) {
+                    break;
+                }
+
+                if (b == ']') {
+                    mInArray = false;
+                    mState = STATE_TOP_LEVEL;
+                } else if (b == '{') {
+                    startEntity(b);
+                } else {
+                    throw unexpected(b, "'{' or ']'");
+                }
+                break;
+
+            case STATE_ARRAY_EXPECT_ELEMENT:
+                if (isWhitespace(b)) {
+                    break;
+                }
+
+                if (b == '{') {
+                    startEntity(b);
+                } else {
+                    throw unexpected(b, "'{'");
+                }
+                break;
+
+            case STATE_ARRAY_EXPECT_SEPARATOR:
+                if (isWhitespace(b)) {
+                    break;
+                }
+
+                if (b == ',') {
+                    mState = STATE_ARRAY_EXPECT_ELEMENT;
+                } else if (b == ']') {
+                    mInArray = false;
+                    mState = STATE_TOP_LEVEL;
+                } else {
+                    throw unexpected(b, "',' or ']'");
+                }
+                break;
+
+            default:
+                throw new IllegalStateException("Encountered unknown decoder state! Decoder is broken...");
+        }
+    }
+
+    private void startEntity(byte b) {
+        mState = STATE_ENTITY;
+        mDepth = 1;
+        mInString = false;
+        mEscaped = false;
+        mLength = 0;
+        append(b);
+    }
+
+    private void consumeEntityByte(byte b) throws SimpleJsonException {
+        append(b);
+
+        if (mInString) {
+            if (mEscaped) {
+                mEscaped = false;
+            } else if (b == '\\') {
+                mEscaped = true;
+            } else if (b == '"') {
+                mInString = false;
+            }
+            return;
+        }
+
+        switch (b) {
+
+            case '"':
+                mInString = true;
+                break;
+
+            case '{':
+            case '[':
+                if (++mDepth > mLimits.getMaxDepth()) {
+                    reset();
+                    throw new LimitExceededException("Maximum depth of " + mLimits.getMaxDepth() + " exceeded");
+                }
+                break;
+
+            case '}':
+            case ']':
+                if (--mDepth == 0) {
+                    completeEntity();
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private void completeEntity() throws SimpleJsonException {
+        final int length = mLength;
+        mLength = 0;
+        mState = mInArray ? STATE_ARRAY_EXPECT_SEPARATOR : STATE_TOP_LEVEL;
+
+        final T entity;
+        final ParserContext context = ParserContext.acquire();
+        try {
+            context.setLimits(mLimits);
+            if (mParser instanceof BaseParser) {
+                entity = ((BaseParser<T>) mParser).fromJson(mBuffer, 0, length, context);
+            } else {
+                final JSONObject object = context.decodeObject(mBuffer, 0, length);
+                entity = mParser.fromJsonObject(object);
+            }
+        } catch (JSONException e) {
+            throw new SimpleJsonException("Failed to parse object from json: " + new String(mBuffer, 0, length, UTF_8), e);
+        } finally {
+            context.release();
+        }
+        mCallback.onEntityDecoded(entity);
+    }
+
+    private void append(byte b) {
+        if (mLength >= mLimits.getMaxDocumentSize()) {
+            reset();
+            throw new LimitExceededException("The entity is larger than the maximum of " + mLimits.getMaxDocumentSize() + " bytes");
+        }
+
+        if (mLength == mBuffer.length) {
+            final byte[] buffer = new byte[mBuffer.length * 2];
+            System.arraycopy(mBuffer, 0, buffer, 0, mLength);
+            mBuffer = buffer;
+        }
+        mBuffer[mLength++] = b;
+    }
+
+    private SimpleJsonException unexpected(byte b, String expected) {
+        reset();
+        return new SimpleJsonException("Unexpected character '" + (char) (b & 0xFF) + "' in chunked input, expected " + expected + "!");
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+}
@@ -0,0 +1,279 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import com.github.wrdlbrnft.simplejson.exceptions.LimitExceededException;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CompressionCodecTest {
+
+    private static final int FLAG_HEADER_CRC = 2;
+    private static final int FLAG_EXTRA = 4;
+    private static final int FLAG_NAME = 8;
+    private static final int FLAG_COMMENT = 16;
+
+    private static final String JSON = createJson();
+
+    private final CompressionCodec mCodec = new CompressionCodec();
+
+    @Test
+    public void writtenGzipIsReadByGzipInputStream() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final int count = mCodec.write(JSON, output, Compression.GZIP);
+
+        final byte[] expected = JSON.getBytes("UTF-8");
+        assertEquals(expected.length, count);
+        assertArrayEquals(expected, readAll(new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))));
+    }
+
+    @Test
+    public void writtenDeflateIsReadByInflaterInputStream() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mCodec.write(JSON, output, Compression.DEFLATE);
+
+        assertArrayEquals(JSON.getBytes("UTF-8"), readAll(new InflaterInputStream(new ByteArrayInputStream(output.toByteArray()))));
+    }
+
+    @Test
+    public void gzipOutputStreamIsRead() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final OutputStream gzip = new GZIPOutputStream(output);
+        gzip.write(JSON.getBytes("UTF-8"));
+        gzip.close();
+
+        assertEquals(JSON, read(output.toByteArray(), Compression.GZIP));
+        assertEquals(JSON, read(new OneByteInputStream(output.toByteArray()), Compression.GZIP));
+    }
+
+    @Test
+    public void deflaterOutputStreamIsRead() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final OutputStream deflate = new DeflaterOutputStream(output);
+        deflate.write(JSON.getBytes("UTF-8"));
+        deflate.close();
+
+        assertEquals(JSON, read(output.toByteArray(), Compression.DEFLATE));
+    }
+
+    @Test
+    public void codecIsReusedForSeveralDocuments() throws Exception {
+        for (Compression compression : Compression.values()) {
+            for (String json : new String[]{JSON, "{}", "[\"é😀\"]"}) {
+                final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                mCodec.write(json, output, compression);
+                assertEquals(json, read(output.toByteArray(), compression));
+            }
+        }
+    }
+
+    @Test
+    public void codecIsUsableAfterItWasEnded() throws Exception {
+        for (Compression compression : Compression.values()) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            mCodec.write(JSON, output, compression);
+            mCodec.end();
+            assertEquals(JSON, read(output.toByteArray(), compression));
+            mCodec.end();
+            mCodec.end();
+        }
+    }
+
+    @Test
+    public void optionalHeaderFieldsAreSkipped() throws Exception {
+        final int[] flagCombinations = {
+                FLAG_EXTRA, FLAG_NAME, FLAG_COMMENT, FLAG_HEADER_CRC,
+                FLAG_EXTRA | FLAG_NAME | FLAG_COMMENT | FLAG_HEADER_CRC
+        };
+        for (int flags : flagCombinations) {
+            final byte[] gzip = gzip(JSON.getBytes("UTF-8"), flags, false, false);
+            assertArrayEquals(JSON.getBytes("UTF-8"), readAll(new GZIPInputStream(new ByteArrayInputStream(gzip))));
+            assertEquals(JSON, read(gzip, Compression.GZIP));
+            assertEquals(JSON, read(new OneByteInputStream(gzip), Compression.GZIP));
+        }
+    }
+
+    @Test(expected = ZipException.class)
+    public void wrongHeaderCrcIsRejected() throws Exception {
+        read(gzip(JSON.getBytes("UTF-8"), FLAG_NAME | FLAG_HEADER_CRC, true, false), Compression.GZIP);
+    }
+
+    @Test(expected = ZipException.class)
+    public void wrongCrcIsRejected() throws Exception {
+        read(gzip(JSON.getBytes("UTF-8"), 0, false, true), Compression.GZIP);
+    }
+
+    @Test(expected = ZipException.class)
+    public void wrongSizeIsRejected() throws Exception {
+        final byte[] gzip = gzip(JSON.getBytes("UTF-8"), 0, false, false);
+        gzip[gzip.length - 1]++;
+        read(gzip, Compression.GZIP);
+    }
+
+    @Test(expected = ZipException.class)
+    public void missingMagicIsRejected() throws Exception {
+        read(JSON.getBytes("UTF-8"), Compression.GZIP);
+    }
+
+    @Test
+    public void truncatedGzipIsRejected() throws Exception {
+        final byte[] gzip = gzip("{\"a\":[1,2,3]}".getBytes("UTF-8"), FLAG_EXTRA | FLAG_NAME | FLAG_HEADER_CRC, false, false);
+        for (int length = 0; length < gzip.length; length++) {
+            final byte[] truncated = new byte[length];
+            System.arraycopy(gzip, 0, truncated, 0, length);
+            try {
+                read(truncated, Compression.GZIP);
+                fail("Truncated to " + length + " bytes");
+            } catch (EOFException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void concatenatedMembersAreReadAsOneDocument() throws Exception {
+        final byte[] first = gzip("[1,2,".getBytes("UTF-8"), FLAG_NAME, false, false);
+        final byte[] second = gzip("3,4]".getBytes("UTF-8"), FLAG_HEADER_CRC, false, false);
+        final byte[] gzip = concat(first, second);
+
+        assertArrayEquals("[1,2,3,4]".getBytes("UTF-8"), readAll(new GZIPInputStream(new ByteArrayInputStream(gzip))));
+        assertEquals("[1,2,3,4]", read(gzip, Compression.GZIP));
+        assertEquals("[1,2,3,4]", read(new OneByteInputStream(gzip), Compression.GZIP));
+    }
+
+    @Test
+    public void dataAfterTheLastMemberIsIgnored() throws Exception {
+        final byte[] gzip = concat(gzip("[1,2]".getBytes("UTF-8"), 0, false, false), "garbage".getBytes("UTF-8"));
+
+        assertArrayEquals("[1,2]".getBytes("UTF-8"), readAll(new GZIPInputStream(new ByteArrayInputStream(gzip))));
+        assertEquals("[1,2]", read(gzip, Compression.GZIP));
+        assertEquals("[1,2]", read(new OneByteInputStream(gzip), Compression.GZIP));
+    }
+
+    @Test(expected = ZipException.class)
+    public void corruptedSecondMemberIsRejected() throws Exception {
+        read(concat(gzip("[1,2,".getBytes("UTF-8"), 0, false, false), gzip("3]".getBytes("UTF-8"), 0, false, true)), Compression.GZIP);
+    }
+
+    @Test(expected = LimitExceededException.class)
+    public void documentsLargerThanTheLimitAreRejected() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mCodec.write(JSON, output, Compression.GZIP);
+        mCodec.read(new ByteArrayInputStream(output.toByteArray()), Compression.GZIP, 1000);
+    }
+
+    private String read(byte[] data, Compression compression) throws IOException {
+        return read(new ByteArrayInputStream(data), compression);
+    }
+
+    private String read(InputStream input, Compression compression) throws IOException {
+        mCodec.read(input, compression, Integer.MAX_VALUE);
+        return new String(mCodec.getChars(), 0, mCodec.getCharCount());
+    }
+
+    /**
+     * Creates a gzip member with the optional header fields selected by {@code flags}.
+     */
+    private static byte[] gzip(byte[] data, int flags, boolean wrongHeaderCrc, boolean wrongCrc) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(new byte[]{0x1F, (byte) 0x8B, 8, (byte) flags, 1, 2, 3, 4, 0, (byte) 255});
+        if ((flags & FLAG_EXTRA) != 0) {
+            output.write(new byte[]{5, 0, 'a', 'b', 0, 'c', 'd'});
+        }
+        if ((flags & FLAG_NAME) != 0) {
+            output.write("document.json\0".getBytes("ISO-8859-1"));
+        }
+        if ((flags & FLAG_COMMENT) != 0) {
+            output.write("Comment\0".getBytes("ISO-8859-1"));
+        }
+        if ((flags & FLAG_HEADER_CRC) != 0) {
+            final CRC32 headerCrc = new CRC32();
+            headerCrc.update(output.toByteArray());
+            writeLittleEndian(output, (int) headerCrc.getValue() + (wrongHeaderCrc ? 1 : 0), 2);
+        }
+
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data);
+        deflater.finish();
+        final byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            output.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        writeLittleEndian(output, (int) crc.getValue() + (wrongCrc ? 1 : 0), 4);
+        writeLittleEndian(output, data.length, 4);
+        return output.toByteArray();
+    }
+
+    private static void writeLittleEndian(OutputStream output, int value, int byteCount) throws IOException {
+        for (int i = 0; i < byteCount; i++) {
+            output.write(value >>> (8 * i));
+        }
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        final byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+        while ((read = input.read(buffer)) >= 0) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * A JSON document which spans several chunks and contains multi byte chars at arbitrary positions.
+     */
+    private static String createJson() {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(i).append(",\"name\":\"élève 😀 ").append(i * 31).append("\"}");
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Returns at most one byte per read, so headers and trailers are split across reads.
+     */
+    private static class OneByteInputStream extends FilterInputStream {
+
+        OneByteInputStream(byte[] data) {
+            super(new ByteArrayInputStream(data));
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return super.read(buffer, offset, Math.min(length, 1));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NumberFormatterTest {
+
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+
+    @Test
+    public void longsAreWrittenLikeLongToString() throws Exception {
+        final long[] values = {0, 1, -1, 9, 10, -99, 100, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+        for (long value : values) {
+            assertEquals(Long.toString(value), formatLong(value));
+        }
+
+        final Random random = new Random(4711);
+        for (int i = 0; i < 10000; i++) {
+            final long value = random.nextLong() >> random.nextInt(64);
+            assertEquals(Long.toString(value), formatLong(value));
+        }
+    }
+
+    @Test
+    public void doublesUseTheLayoutOfDoubleToString() throws Exception {
+        assertEquals("0.0", formatDouble(0.0));
+        assertEquals("-0.0", formatDouble(-0.0));
+        assertEquals("1.0", formatDouble(1.0));
+        assertEquals("-1.5", formatDouble(-1.5));
+        assertEquals("0.1", formatDouble(0.1));
+        assertEquals("100.0", formatDouble(100.0));
+        assertEquals("123.456", formatDouble(123.456));
+        assertEquals("1.0E23", formatDouble(1e23));
+        assertEquals("1.7976931348623157E308", formatDouble(Double.MAX_VALUE));
+        assertEquals("2.2250738585072014E-308", formatDouble(Double.MIN_NORMAL));
+        assertEquals("4.9E-324", formatDouble(Double.MIN_VALUE));
+        assertEquals("-9.9E-324", formatDouble(-2 * Double.MIN_VALUE));
+        assertEquals("-9.223372036854776E18", formatDouble(Long.MIN_VALUE));
+        assertEquals("9.223372036854776E18", formatDouble(Long.MAX_VALUE));
+        assertEquals("9.007199254740992E15", formatDouble(9007199254740992.0));
+    }
+
+    @Test
+    public void onlyValuesBetweenOneThousandthAndTenMillionAreWrittenWithoutExponent() throws Exception {
+        assertEquals("0.001", formatDouble(0.001));
+        assertEquals("9.999999999999998E-4", formatDouble(Math.nextDown(0.001)));
+        assertEquals("-0.0010000000000000002", formatDouble(-Math.nextUp(0.001)));
+        assertEquals("9999999.999999998", formatDouble(Math.nextDown(1e7)));
+        assertEquals("1.0E7", formatDouble(1e7));
+        assertEquals("1.0000000000000002E7", formatDouble(Math.nextUp(1e7)));
+        assertEquals("1234567.0", formatDouble(1234567.0));
+        assertEquals("1.2345678E7", formatDouble(12345678.0));
+    }
+
+    @Test
+    public void powersOfTenAreWrittenWithASingleDigit() throws Exception {
+        for (int k = -307; k <= 308; k++) {
+            final double value = Double.parseDouble("1e" + k);
+            final String expected;
+            if (k < -3 || k >= 7) {
+                expected = "1.0E" + k;
+            } else if (k < 0) {
+                expected = "0." + zeros(-k - 1) + "1";
+            } else {
+                expected = "1" + zeros(k) + ".0";
+            }
+            assertEquals(expected, formatDouble(value));
+        }
+
+        for (int k = -323; k < -307; k++) {
+            assertShortestAndClosest(Double.parseDouble("1e" + k));
+        }
+    }
+
+    @Test
+    public void powersOfTwoAreShortestAndClosest() throws Exception {
+        for (int e = -1072; e <= 1023; e++) {
+            final double value = Math.scalb(1.0, e);
+            assertShortestAndClosest(value);
+            assertShortestAndClosest(-value);
+            assertShortestAndClosest(Math.nextUp(value));
+            assertShortestAndClosest(Math.nextDown(value));
+        }
+    }
+
+    @Test
+    public void randomDoublesAreShortestAndClosest() throws Exception {
+        final Random random = new Random(4711);
+        for (int i = 0; i < 20000; i++) {
+            final double value = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+                assertShortestAndClosest(value);
+            }
+
+            assertShortestAndClosest(Double.longBitsToDouble(random.nextLong() & ((1L << 52) - 1)) + 3 * Double.MIN_VALUE);
+            assertShortestAndClosest(random.nextDouble() * Math.pow(10, random.nextInt(12) - 4));
+        }
+    }
+
+    @Test
+    public void multiplyHighReturnsTheHighBitsOfTheProduct() throws Exception {
+        final long[] values = {0, 1, 0xFFFFFFFFL, 1L << 32, Long.MAX_VALUE, Long.MAX_VALUE - 1, 115292150460684698L << 4};
+        for (long x : values) {
+            for (long y : values) {
+                assertEquals(multiplyHigh(x, y), NumberFormatter.multiplyHigh(x, y));
+            }
+        }
+
+        final Random random = new Random(4711);
+        for (int i = 0; i < 100000; i++) {
+            final long x = random.nextLong() >>> 1 + random.nextInt(63);
+            final long y = random.nextLong() >>> 1;
+            assertEquals(multiplyHigh(x, y), NumberFormatter.multiplyHigh(x, y));
+        }
+    }
+
+    @Test
+    public void powersOfTenTableHoldsRoundedUp126BitValues() throws Exception {
+        final long[] table = NumberFormatter.PowersOfTen.TABLE;
+        assertEquals((K_MAX - K_MIN + 1) * 2, table.length);
+
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            final int index = (k - K_MIN) * 2;
+            assertTrue(table[index] >= 0 && table[index + 1] >= 0);
+            final BigInteger g = BigInteger.valueOf(table[index]).shiftLeft(63).or(BigInteger.valueOf(table[index + 1]));
+            assertEquals("k = " + k, 126, g.bitLength());
+
+            // g has to be the next integer above 10^-k * 2^s, where s scales 10^-k to [2^125, 2^126)
+            final BigInteger numerator = k <= 0 ? BigInteger.TEN.pow(-k) : BigInteger.ONE;
+            final BigInteger denominator = k <= 0 ? BigInteger.ONE : BigInteger.TEN.pow(k);
+            final int s = 125 - (k <= 0 ? numerator.bitLength() - 1 : -denominator.bitLength());
+            final BigInteger floor = s >= 0
+                    ? numerator.shiftLeft(s).divide(denominator)
+                    : numerator.shiftRight(-s);
+            assertEquals("k = " + k, floor.add(BigInteger.ONE), g);
+        }
+    }
+
+    /**
+     * Checks the specification of {@link Double#toString(double)} since Java 19: no decimal with fewer
+     * digits parses back to {@code value} and no other decimal with as many digits is closer to it. Two
+     * digits always count as short enough, so a closer two digit decimal wins over a single digit.
+     */
+    private static void assertShortestAndClosest(double value) {
+        final String text = formatDouble(value);
+        assertEquals(text, Double.doubleToRawLongBits(value), Double.doubleToRawLongBits(Double.parseDouble(text)));
+        assertEquals(text, Double.toString(value).contains("E"), text.contains("E"));
+        if (value == 0) {
+            return;
+        }
+
+        final BigDecimal exact = new BigDecimal(Math.abs(value));
+        final BigDecimal written = new BigDecimal(text).abs();
+        final int digits = Math.max(2, written.stripTrailingZeros().precision());
+        for (int n = 2; n < digits; n++) {
+            assertTrue(text, !parsesBack(exact.round(new MathContext(n, RoundingMode.FLOOR)), value)
+                    && !parsesBack(exact.round(new MathContext(n, RoundingMode.CEILING)), value));
+        }
+
+        final BigDecimal distance = written.subtract(exact).abs();
+        for (RoundingMode mode : new RoundingMode[]{RoundingMode.FLOOR, RoundingMode.CEILING}) {
+            final BigDecimal candidate = exact.round(new MathContext(digits, mode));
+            if (parsesBack(candidate, value)) {
+                assertTrue(text, distance.compareTo(candidate.subtract(exact).abs()) <= 0);
+            }
+        }
+    }
+
+    private static boolean parsesBack(BigDecimal candidate, double value) {
+        return Double.parseDouble(candidate.toString()) == Math.abs(value);
+    }
+
+    private static long multiplyHigh(long x, long y) {
+        return BigInteger.valueOf(x).multiply(BigInteger.valueOf(y)).shiftRight(64).longValue();
+    }
+
+    private static String formatLong(long value) {
+        final char[] buffer = new char[NumberFormatter.MAX_LENGTH];
+        return new String(buffer, 0, NumberFormatter.formatLong(value, buffer));
+    }
+
+    private static String formatDouble(double value) {
+        final char[] buffer = new char[NumberFormatter.MAX_LENGTH];
+        return new String(buffer, 0, NumberFormatter.formatDouble(value, buffer));
+    }
+
+    private static String zeros(int count) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append('0');
+        }
+        return builder.toString();
+    }
+}
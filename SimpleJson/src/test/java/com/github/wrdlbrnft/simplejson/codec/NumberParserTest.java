@@ -0,0 +1,127 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import org.json.JSONArray;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NumberParserTest {
+
+    private static final String[] LITERALS = {
+            "0.0", "-0.0", "0e10", "-0E-10", "1.0", "-1.5", "0.1", "0.3", "123.456", "1e22", "1e23",
+            "4.9e-324", "-4.9e-324", "2.4703282292062327e-324", "2.4703282292062328e-324",
+            "2.2250738585072011e-308", "2.2250738585072014e-308", "1e-310", "3e-320",
+            "1.7976931348623157e308", "-1.7976931348623157e308", "1.7976931348623158e308",
+            "9007199254740991.0", "9007199254740992.0", "9007199254740993.0", "9007199254740995.0",
+            "9007199254740993e-5", "9007199254740993e10",
+            "9223372036854775807.5", "1844674407370955161.5", "1234567890123456789e-20",
+            "12345678901234567890e-25", "12345678901234567891.5", "0.00000000000000000000123456789012345678901",
+            "1.00000000000000011102230246251565404236316680908203125",
+            "1.00000000000000011102230246251565404236316680908203124",
+            "1.00000000000000011102230246251565404236316680908203126",
+            "7.3177701707893310e15", "8.98846567431158e307", "2.2250738585072012e-308",
+            "1e-400", "-1e-400", "1e-348", "1e-349", "1e347", "1e-325", "4.5e-324", "2.5e-324"
+    };
+
+    @Test
+    public void decodedNumbersMatchParseDouble() throws Exception {
+        for (String literal : LITERALS) {
+            assertDecodesTo(literal);
+        }
+    }
+
+    @Test
+    public void decodedNumbersKeepTheirExactValue() throws Exception {
+        for (String literal : LITERALS) {
+            final Object value = decode(literal);
+            if (value instanceof LazyNumber) {
+                assertEquals(literal, 0, new BigDecimal(literal).compareTo(((LazyNumber) value).bigDecimalValue()));
+            }
+        }
+    }
+
+    @Test
+    public void randomSignificandsAndExponentsMatchParseDouble() throws Exception {
+        final Random random = new Random(4711);
+        for (int i = 0; i < 100000; i++) {
+            final long significand = random.nextLong() >>> (1 + random.nextInt(63));
+            final int exponent = random.nextInt(700) - 350;
+            final double expected = Double.parseDouble(significand + "E" + exponent);
+
+            final double value = NumberParser.toDouble(significand, exponent, false);
+            if (!Double.isNaN(value)) {
+                assertEquals(significand + "E" + exponent, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(value));
+            }
+
+            final LazyNumber number = new LazyNumber(significand, exponent, true);
+            assertEquals(Double.doubleToRawLongBits(-expected), Double.doubleToRawLongBits(number.doubleValue()));
+        }
+    }
+
+    @Test
+    public void halfwayCasesRoundToEven() throws Exception {
+        final BigDecimal ulp = new BigDecimal(Math.ulp(1.0));
+        for (int i = 0; i < 64; i++) {
+            final BigDecimal lower = new BigDecimal(1.0 + i * Math.ulp(1.0));
+            final String halfway = lower.add(ulp.divide(BigDecimal.valueOf(2))).toPlainString();
+            assertDecodesTo(halfway);
+        }
+    }
+
+    @Test
+    public void integersWhichFitIntoALongAreBoxed() throws Exception {
+        assertEquals(Integer.MAX_VALUE, decode("2147483647"));
+        assertEquals(2147483648L, decode("2147483648"));
+        assertEquals(Long.MAX_VALUE, decode("9223372036854775807"));
+        assertEquals(Long.MIN_VALUE, decode("-9223372036854775808"));
+        assertEquals(9007199254740993L, decode("9007199254740993"));
+    }
+
+    @Test
+    public void integersWhichOverflowALongKeepTheirLiteral() throws Exception {
+        for (String literal : new String[]{"9223372036854775808", "-9223372036854775809", "18446744073709551616", "123456789012345678901234567890"}) {
+            final Object value = decode(literal);
+            assertTrue(literal, value instanceof LazyNumber);
+            assertEquals(literal, value.toString());
+            assertEquals(new BigDecimal(literal).toBigInteger(), ((LazyNumber) value).bigIntegerValue());
+            assertDecodesTo(literal);
+        }
+    }
+
+    @Test
+    public void numbersBeyondTheRangeOfADoubleAreOutOfRange() throws Exception {
+        for (String literal : new String[]{"1e309", "-1e400", "1.7976931348623159e308", "1e100000000", "123456789012345678901e300"}) {
+            final Object value = decode(literal);
+            assertTrue(literal, value instanceof OutOfRangeNumber);
+            assertEquals(literal, 0, new BigDecimal(literal).compareTo(((OutOfRangeNumber) value).getNumber().bigDecimalValue()));
+        }
+    }
+
+    @Test
+    public void negativeZeroKeepsItsSign() throws Exception {
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(NumberParser.toDouble(0, 5, true)));
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(((Number) decode("-0.0e-400")).doubleValue()));
+        assertEquals(0, decode("-0"));
+    }
+
+    private static void assertDecodesTo(String literal) throws Exception {
+        final Object value = decode(literal);
+        final double expected = Double.parseDouble(literal);
+        if (Double.isInfinite(expected)) {
+            assertTrue(literal, value instanceof OutOfRangeNumber);
+            return;
+        }
+        assertEquals(literal, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(((Number) value).doubleValue()));
+    }
+
+    private static Object decode(String literal) throws Exception {
+        final char[] input = ("[" + literal + "]").toCharArray();
+        final JsonDecoder decoder = new JsonDecoder(new SymbolTable());
+        final JSONArray array = decoder.decodeArray(input, 0, input.length, null, ParserLimits.UNLIMITED);
+        return array.get(0);
+    }
+}
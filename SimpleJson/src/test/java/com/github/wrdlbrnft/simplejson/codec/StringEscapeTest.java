@@ -0,0 +1,133 @@
+package com.github.wrdlbrnft.simplejson.codec;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class StringEscapeTest {
+
+    @Test
+    public void stringsWithoutEscapesAreReadAndWrittenAsTheyAre() throws Exception {
+        assertEquals("", decode("\"\""));
+        assertEquals("Hello World", decode("\"Hello World\""));
+        assertEquals("\u00e9\u2603\ud83d\ude00", decode("\"\u00e9\u2603\ud83d\ude00\""));
+
+        assertEquals("\"\"", encode(""));
+        assertEquals("\"Hello World\"", encode("Hello World"));
+        assertEquals("\"a/b \u00e9\u2603\ud83d\ude00\"", encode("a/b \u00e9\u2603\ud83d\ude00"));
+    }
+
+    @Test
+    public void escapesAreReadAtTheStartAndEndOfARun() throws Exception {
+        assertEquals("\"start", decode("\"\\\"start\""));
+        assertEquals("end\n", decode("\"end\\n\""));
+        assertEquals("\\", decode("\"\\\\\""));
+        assertEquals("\t\t", decode("\"\\t\\t\""));
+        assertEquals("a/b\bc\fd\re", decode("\"a\\/b\\bc\\fd\\re\""));
+        assertEquals("x\"y\\z", decode("\"x\\\"y\\\\z\""));
+    }
+
+    @Test
+    public void escapesAreWrittenAtTheStartAndEndOfARun() throws Exception {
+        assertEquals("\"\\\"start\"", encode("\"start"));
+        assertEquals("\"end\\n\"", encode("end\n"));
+        assertEquals("\"\\\\\"", encode("\\"));
+        assertEquals("\"\\t\\t\"", encode("\t\t"));
+        assertEquals("\"\\b\\f\\r\\u0000\\u001f\"", encode("\b\f\r\u0000\u001f"));
+    }
+
+    @Test
+    public void unicodeEscapesAreRead() throws Exception {
+        assertEquals("\u00e9", decode("\"\\u00e9\""));
+        assertEquals("\u00e9\u00e9", decode("\"\\u00E9\\u00e9\""));
+        assertEquals("a\ud83d\ude00b", decode("\"a\\ud83d\\uDE00b\""));
+        assertEquals("\ud83d", decode("\"\\ud83d\""));
+        assertEquals("\ude00x", decode("\"\\ude00x\""));
+        assertEquals("\u2028\u2029", decode("\"\\u2028\\u2029\""));
+        assertEquals("\u0000", decode("\"\\u0000\""));
+    }
+
+    @Test
+    public void lineSeparatorsAndLoneSurrogatesAreWrittenAsUnicodeEscapes() throws Exception {
+        assertEquals("\"\\u2028\\u2029\"", encode("\u2028\u2029"));
+        assertEquals("\"\\ud83d\"", encode("\ud83d"));
+        assertEquals("\"\\ude00x\"", encode("\ude00x"));
+        assertEquals("\"x\\ud83d\ud83d\ude00\"", encode("x\ud83d\ud83d\ude00"));
+        assertEquals("\"\ud83d\ude00\\ude00\"", encode("\ud83d\ude00\ude00"));
+    }
+
+    @Test
+    public void longStringsGrowTheScratchBuffer() throws Exception {
+        final StringBuilder expected = new StringBuilder();
+        final StringBuilder json = new StringBuilder("\"");
+        for (int i = 0; i < 1000; i++) {
+            expected.append("\n0123456789");
+            json.append("\\n0123456789");
+        }
+        json.append('"');
+
+        assertEquals(expected.toString(), decode(json.toString()));
+        assertEquals(json.toString(), encode(expected.toString()));
+    }
+
+    @Test
+    public void randomStringsMatchOrgJson() throws Exception {
+        final char[] alphabet = {'a', 'Z', ' ', '"', '\\', '/', '\n', '\t', '\u0000', '\u001f', '\u007f',
+                '\u00e9', '\u2028', '\u2029', '\ud83d', '\ude00', '\uffff'};
+        final Random random = new Random(4711);
+        for (int i = 0; i < 10000; i++) {
+            final char[] chars = new char[random.nextInt(20)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            final String value = new String(chars);
+
+            final String encoded = encode(value);
+            assertEquals(value, decode(encoded));
+            assertEquals(value, new JSONArray("[" + encoded + "]").getString(0));
+
+            final String orgJson = new JSONArray().put(value).toString();
+            assertEquals(value, decode(orgJson.substring(1, orgJson.length() - 1)));
+        }
+    }
+
+    @Test(expected = JSONException.class)
+    public void invalidEscapesAreRejected() throws Exception {
+        decode("\"a\\xb\"");
+    }
+
+    @Test(expected = JSONException.class)
+    public void invalidHexDigitsAreRejected() throws Exception {
+        decode("\"\\u12g4\"");
+    }
+
+    @Test(expected = JSONException.class)
+    public void truncatedUnicodeEscapesAreRejected() throws Exception {
+        decodeArray("[\"\\u12");
+    }
+
+    @Test(expected = JSONException.class)
+    public void stringsEndingInAnEscapeAreRejected() throws Exception {
+        decodeArray("[\"abc\\");
+    }
+
+    private static String decode(String json) throws Exception {
+        return decodeArray("[" + json + "]").getString(0);
+    }
+
+    private static JSONArray decodeArray(String json) throws Exception {
+        final char[] input = json.toCharArray();
+        final JsonDecoder decoder = new JsonDecoder(new SymbolTable());
+        return decoder.decodeArray(input, 0, input.length, null, ParserLimits.UNLIMITED);
+    }
+
+    private static String encode(String value) throws Exception {
+        final StringBuilder output = new StringBuilder();
+        new JsonEncoder().encodeArray(new JSONArray().put(value), output);
+        return output.substring(1, output.length() - 1);
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.wrdlbrnft.simplejson.parsers;
+
+import com.github.wrdlbrnft.simplejson.codec.JsonMergePatch;
+import com.github.wrdlbrnft.simplejson.parsers.base.MapParser;
+import com.github.wrdlbrnft.simplejson.parsers.base.StringParser;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class MapPatchTest {
+
+    private final MapParser<String> mParser = new MapParser<>(new StringParser(), true);
+
+    @Test
+    public void diffAndApplyPatchRoundTripForMapFields() throws Exception {
+        final Map<String, String> before = new LinkedHashMap<>();
+        before.put("en", "Hello");
+        before.put("fr", "Bonjour");
+        before.put("de", "Hallo");
+
+        final Map<String, String> after = new LinkedHashMap<>();
+        after.put("en", "Hi");
+        after.put("de", "Hallo");
+
+        final JSONObject patch = JsonMergePatch.diff(toJson(before), toJson(after));
+        final Map<String, String> patched = BaseParser.patchValue(mParser, before, patch, "m");
+
+        assertEquals(after, patched);
+        assertFalse(patched.containsKey("fr"));
+        assertEquals(3, before.size());
+    }
+
+    @Test
+    public void patchOnMissingMapDropsRemovedKeys() throws Exception {
+        final JSONObject patch = new JSONObject("{\"m\":{\"en\":\"Hi\",\"fr\":null}}");
+        final Map<String, String> patched = BaseParser.patchValue(mParser, null, patch, "m");
+
+        final Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("en", "Hi");
+        assertEquals(expected, patched);
+    }
+
+    private JSONObject toJson(Map<String, String> map) throws Exception {
+        final JSONObject object = new JSONObject();
+        mParser.toJsonObject(object, "m", map);
+        return object;
+    }
+}
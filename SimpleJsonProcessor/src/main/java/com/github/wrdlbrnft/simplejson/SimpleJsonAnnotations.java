@@ -11,6 +11,8 @@ public class SimpleJsonAnnotations {
     public static final String OPTIONAL = "com.github.wrdlbrnft.simplejson.annotations.Optional";
     public static final String MAP_TO = "com.github.wrdlbrnft.simplejson.annotations.MapTo";
     public static final String MAP_DEFAULT = "com.github.wrdlbrnft.simplejson.annotations.MapDefault";
+    public static final String DEFAULT_VALUE = "com.github.wrdlbrnft.simplejson.annotations.DefaultValue";
+    public static final String JSON_SUB_TYPES = "com.github.wrdlbrnft.simplejson.annotations.JsonSubTypes";
     public static final String CUSTOM_JSON_PARSER = "com.github.wrdlbrnft.simplejson.annotations.CustomJsonParser";
 
     private SimpleJsonAnnotations() {
@@ -6,6 +6,8 @@ import com.github.wrdlbrnft.codebuilder.util.Utils;
 import com.github.wrdlbrnft.simplejson.builder.ParserBuilder;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -17,6 +19,7 @@ import java.util.logging.Logger;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeElement;
@@ -31,6 +34,7 @@ public class SimpleJsonProcessor extends AbstractProcessor {
     @Override
     public synchronized void init(ProcessingEnvironment processingEnvironment) {
         super.init(processingEnvironment);
+        mParserBuilder = new ParserBuilder(processingEnvironment);
     }
 
     @Override
@@ -47,24 +51,27 @@ public class SimpleJsonProcessor extends AbstractProcessor {
     }
 
     private void tryProcess(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) throws IOException {
-        mParserBuilder = new ParserBuilder(processingEnv);
         final ParserBuilder.ParserCollection parserCollection = mParserBuilder.getParserCollection();
 
-        final Map<String, Type> customParserMap = createCustomParserMap(annotations, roundEnv);
-        parserCollection.registerCustomParsers(customParserMap);
+        final List<Element> customParserElements = new ArrayList<>();
+        final Map<String, Type> customParserMap = createCustomParserMap(annotations, roundEnv, customParserElements);
+        parserCollection.registerCustomParsers(customParserMap, customParserElements);
 
-        tryHandleAnnotations(annotations, roundEnv);
+        final boolean builtEntities = tryHandleAnnotations(annotations, roundEnv);
 
-//        if (roundEnv.processingOver()) {
+        // Sources generated in the last round are not compiled anymore, so the index is already written
+        // in the first round without new entities.
+        if (!builtEntities || roundEnv.processingOver()) {
+            mParserBuilder.buildIndex();
 //        mRetrofitConverterBuilder.build(mParserCollection);
-//        }
+        }
     }
 
     private TypeElement getTypeElement(String charSequence) {
         return processingEnv.getElementUtils().getTypeElement(charSequence);
     }
 
-    private Map<String, Type> createCustomParserMap(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    private Map<String, Type> createCustomParserMap(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv, List<Element> customParserElements) {
         final Map<String, Type> customParserMap = new HashMap<>();
 
         final TypeElement annotation = Utils.getTypeElementFromList(annotations, SimpleJsonAnnotations.CUSTOM_JSON_PARSER);
@@ -88,19 +95,52 @@ public class SimpleJsonProcessor extends AbstractProcessor {
                 final TypeMirror typeParameterMirror = typeParameters.get(0);
                 final String qualifiedName = typeParameterMirror.toString();
                 customParserMap.put(qualifiedName, Types.of(parserTypeMirror));
+                customParserElements.add(parser);
             }
         }
 
         return customParserMap;
     }
 
-    private void tryHandleAnnotations(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) throws IOException {
+    /**
+     * @return {@code true} if any {@code @JsonEntity} was processed in this round.
+     */
+    private boolean tryHandleAnnotations(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) throws IOException {
+        final TypeElement jsonEnumAnnotation = Utils.getTypeElementFromList(annotations, SimpleJsonAnnotations.JSON_ENUM);
+        if (jsonEnumAnnotation != null) {
+            final Set<? extends Element> annotatedElements = roundEnv.getElementsAnnotatedWith(jsonEnumAnnotation);
+            for (Element element : annotatedElements) {
+                handleJsonEnum(element);
+            }
+        }
+
         final TypeElement jsonEntityAnnotation = Utils.getTypeElementFromList(annotations, SimpleJsonAnnotations.JSON_ENTITY);
         if (jsonEntityAnnotation != null) {
             final Set<? extends Element> annotatedElements = roundEnv.getElementsAnnotatedWith(jsonEntityAnnotation);
             for (Element element : annotatedElements) {
                 handleJsonEntity(element);
             }
+            return !annotatedElements.isEmpty();
+        }
+        return false;
+    }
+
+    private void handleJsonEnum(Element element) {
+        try {
+            tryHandleJsonEnum(element);
+        } catch (Exception e) {
+            final String errorMessage = "Could not generate parser for " + element.getSimpleName() + "!";
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, errorMessage, element);
+            Logger.getAnonymousLogger().log(Level.SEVERE, errorMessage, e);
+        }
+    }
+
+    private void tryHandleJsonEnum(Element element) throws IOException {
+        if (element.getKind() == ElementKind.ENUM) {
+            final TypeElement enumElement = (TypeElement) element;
+            mParserBuilder.buildEnum(enumElement);
+        } else {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "You can only annotate enums with @JsonEnum! ", element);
         }
     }
 
@@ -123,6 +163,21 @@ public class SimpleJsonProcessor extends AbstractProcessor {
         }
     }
 
+    @Override
+    public Set<String> getSupportedOptions() {
+        return new HashSet<>(Arrays.asList(
+                ParserBuilder.OPTION_INDEX_PACKAGE,
+                ParserBuilder.OPTION_OMIT_NULLS,
+                ParserBuilder.OPTION_OMIT_EMPTY,
+                ParserBuilder.OPTION_OMIT_DEFAULTS
+        ));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
     @Override
     public Set<String> getSupportedAnnotationTypes() {
         final Set<String> annotationTypes = new HashSet<>();
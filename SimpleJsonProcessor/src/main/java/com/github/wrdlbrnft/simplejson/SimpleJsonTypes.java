@@ -19,14 +19,28 @@ public class SimpleJsonTypes {
     public static final Type STRING_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.base", "StringParser");
     public static final Type DATE_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.extensions", "DateParser");
     public static final Type CALENDAR_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.extensions", "CalendarParser");
+    public static final Type LAZY_NUMBER_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.base", "LazyNumberParser");
+    public static final Type BIG_DECIMAL_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.extensions", "BigDecimalParser");
+    public static final Type BIG_INTEGER_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.extensions", "BigIntegerParser");
     public static final Type INTEGER_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.base", "IntegerParser");
     public static final Type LONG_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.base", "LongParser");
     public static final Type DOUBLE_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.base", "DoubleParser");
+    public static final Type MAP_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.base", "MapParser");
     public static final Type BOOLEAN_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.base", "BooleanParser");
     public static final Type ENTITY_PARSER = Types.of("com.github.wrdlbrnft.simplejson.parsers.base", "EntityParser");
 
     public static final Type SIMPLE_JSON = Types.of("com.github.wrdlbrnft.simplejson", "SimpleJson");
     public static final Method SIMPLE_JSON_REGISTER_PARSER = Methods.stub("registerParser");
+    public static final Type PARSER_INDEX = Types.of("com.github.wrdlbrnft.simplejson", "ParserIndex");
+    public static final Type UNMODIFIABLE_COLLECTIONS = Types.of("com.github.wrdlbrnft.simplejson", "UnmodifiableCollections");
+    public static final Type FIELD_FILTER = Types.of("com.github.wrdlbrnft.simplejson.codec", "FieldFilter");
+    public static final Type COMPRESSION = Types.of("com.github.wrdlbrnft.simplejson.codec", "Compression");
+    public static final Type ENTITY_INTERNER = Types.of("com.github.wrdlbrnft.simplejson.pools", "EntityInterner");
+    public static final Method ENTITY_INTERNER_INTERN = Methods.stub("intern");
+
+    public static final Type LAZY_NUMBER = Types.of("com.github.wrdlbrnft.simplejson.codec", "LazyNumber");
+    public static final Type BIG_DECIMAL = Types.of("java.math", "BigDecimal");
+    public static final Type BIG_INTEGER = Types.of("java.math", "BigInteger");
 
     public static final Type ENUM = Types.of("java.lang", "Enum");
     public static final Type JSON_OBJECT = Types.of("org.json", "JSONObject");
@@ -36,6 +50,12 @@ public class SimpleJsonTypes {
     public static final Type SIMPLE_JSON_EXCEPTION = Types.of("com.github.wrdlbrnft.simplejson.exceptions", "SimpleJsonException");
 
     public static final Type COLLECTION = Types.of("java.util", "Collection");
+    public static final Type CLASS = Types.of("java.lang", "Class");
+    public static final Type MAP = Types.of("java.util", "Map");
+    public static final Type HASH_MAP = Types.of("java.util", "HashMap");
+    public static final Type LINKED_HASH_MAP = Types.of("java.util", "LinkedHashMap");
+    public static final Type INPUT_STREAM = Types.of("java.io", "InputStream");
+    public static final Type OUTPUT_STREAM = Types.of("java.io", "OutputStream");
 
     private SimpleJsonTypes() {
 
@@ -0,0 +1,107 @@
+package com.github.wrdlbrnft.simplejson.builder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+
+/**
+ * {@code SourceFile} creates its files through the {@link Filer} of the {@link ProcessingEnvironment} it
+ * is given. Wrapping the environment is the only way to attach originating elements to those files,
+ * which incremental builds need to know which sources a generated file depends on.
+ */
+class OriginatingProcessingEnvironment implements ProcessingEnvironment {
+
+    private final ProcessingEnvironment mProcessingEnvironment;
+    private final Filer mFiler;
+
+    OriginatingProcessingEnvironment(ProcessingEnvironment processingEnvironment, List<? extends Element> originatingElements) {
+        mProcessingEnvironment = processingEnvironment;
+        mFiler = new OriginatingFiler(processingEnvironment.getFiler(), originatingElements);
+    }
+
+    @Override
+    public Map<String, String> getOptions() {
+        return mProcessingEnvironment.getOptions();
+    }
+
+    @Override
+    public Messager getMessager() {
+        return mProcessingEnvironment.getMessager();
+    }
+
+    @Override
+    public Filer getFiler() {
+        return mFiler;
+    }
+
+    @Override
+    public Elements getElementUtils() {
+        return mProcessingEnvironment.getElementUtils();
+    }
+
+    @Override
+    public Types getTypeUtils() {
+        return mProcessingEnvironment.getTypeUtils();
+    }
+
+    @Override
+    public SourceVersion getSourceVersion() {
+        return mProcessingEnvironment.getSourceVersion();
+    }
+
+    @Override
+    public Locale getLocale() {
+        return mProcessingEnvironment.getLocale();
+    }
+
+    private static class OriginatingFiler implements Filer {
+
+        private final Filer mFiler;
+        private final List<? extends Element> mOriginatingElements;
+
+        private OriginatingFiler(Filer filer, List<? extends Element> originatingElements) {
+            mFiler = filer;
+            mOriginatingElements = originatingElements;
+        }
+
+        @Override
+        public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+            return mFiler.createSourceFile(name, appendOriginatingElements(originatingElements));
+        }
+
+        @Override
+        public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+            return mFiler.createClassFile(name, appendOriginatingElements(originatingElements));
+        }
+
+        @Override
+        public FileObject createResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName, Element... originatingElements) throws IOException {
+            return mFiler.createResource(location, pkg, relativeName, appendOriginatingElements(originatingElements));
+        }
+
+        @Override
+        public FileObject getResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName) throws IOException {
+            return mFiler.getResource(location, pkg, relativeName);
+        }
+
+        private Element[] appendOriginatingElements(Element[] originatingElements) {
+            final List<Element> elements = new ArrayList<>(Arrays.asList(originatingElements));
+            elements.addAll(mOriginatingElements);
+            return elements.toArray(new Element[elements.size()]);
+        }
+    }
+}
@@ -1,45 +1,56 @@
 package com.github.wrdlbrnft.simplejson.builder;
 
+import com.github.wrdlbrnft.codebuilder.code.CodeElement;
 import com.github.wrdlbrnft.codebuilder.code.SourceFile;
 import com.github.wrdlbrnft.codebuilder.implementations.Implementation;
 import com.github.wrdlbrnft.codebuilder.types.Type;
+import com.github.wrdlbrnft.codebuilder.types.Types;
 import com.github.wrdlbrnft.codebuilder.util.Utils;
 import com.github.wrdlbrnft.simplejson.builder.enums.EnumParserBuilder;
 import com.github.wrdlbrnft.simplejson.builder.factories.entity.JsonEntityFactoryBuilder;
 import com.github.wrdlbrnft.simplejson.builder.factories.enums.EnumFactoryBuilder;
 import com.github.wrdlbrnft.simplejson.builder.implementation.ImplementationBuilder;
+import com.github.wrdlbrnft.simplejson.builder.index.ParserIndexBuilder;
 import com.github.wrdlbrnft.simplejson.builder.parser.InternalParserBuilder;
-import com.github.wrdlbrnft.simplejson.models.ImplementationResult;
+import com.github.wrdlbrnft.simplejson.builder.parser.PolymorphicParserBuilder;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
 
 /**
  * Created by kapeller on 13/01/16.
  */
 public class ParserBuilder {
 
+    public static final String OPTION_INDEX_PACKAGE = "simplejson.indexPackage";
+    public static final String OPTION_OMIT_NULLS = "simplejson.omitNulls";
+    public static final String OPTION_OMIT_EMPTY = "simplejson.omitEmpty";
+    public static final String OPTION_OMIT_DEFAULTS = "simplejson.omitDefaults";
+
+    private static final String INDEX_NAME = "SimpleJsonIndex";
+
     private final ProcessingEnvironment mProcessingEnvironment;
 
     public interface BuildCache {
-        Type getEnumParser(TypeElement element);
-        Type getEntityParser(TypeElement element);
+        CodeElement getEnumParser(TypeElement element);
+        CodeElement getEntityParser(TypeElement element);
         Type getCustomParser(TypeElement element);
-        void registerParent(Implementation.Builder builder);
-        boolean hasEntityParser(TypeElement element);
-        List<Implementation> getImplementations();
-        void clear();
     }
 
     public interface ParserCollection {
         Map<TypeElement, Type> getEntityToParserMap();
-        void registerCustomParsers(Map<String, Type> parserMap);
+        void registerCustomParsers(Map<String, Type> parserMap, List<? extends Element> parserElements);
     }
 
     private final ImplementationBuilder mImplementationBuilder;
@@ -47,123 +58,137 @@ public class ParserBuilder {
     private final InternalParserBuilder mInternalParserBuilder;
     private final JsonEntityFactoryBuilder mFactoryBuilder;
     private final EnumFactoryBuilder mEnumFactoryBuilder;
-    private final BuildCache mBuildCache;
     private final ParserCollection mParserCollection;
 
+    private final ParserIndexBuilder mParserIndexBuilder = new ParserIndexBuilder();
+    private final Set<String> mGeneratedTypes = new HashSet<>();
+    private final List<TypeElement> mIndexedEntities = new ArrayList<>();
+    private final List<Element> mCustomParserElements = new ArrayList<>();
+
+    private boolean mIndexWritten;
+
     public ParserBuilder(ProcessingEnvironment processingEnvironment) {
         mProcessingEnvironment = processingEnvironment;
         final BuildCacheParserCollection collection = new BuildCacheParserCollection();
-        mBuildCache = collection;
         mParserCollection = collection;
 
         mImplementationBuilder = new ImplementationBuilder(processingEnvironment);
         mEnumParserBuilder = new EnumParserBuilder(processingEnvironment);
         mInternalParserBuilder = new InternalParserBuilder(processingEnvironment, collection);
-        mFactoryBuilder = new JsonEntityFactoryBuilder(mBuildCache, mImplementationBuilder, mInternalParserBuilder);
+        mFactoryBuilder = new JsonEntityFactoryBuilder(mImplementationBuilder, mInternalParserBuilder, new PolymorphicParserBuilder(processingEnvironment));
         mEnumFactoryBuilder = new EnumFactoryBuilder(processingEnvironment);
     }
 
     public void build(TypeElement element) throws IOException {
-        try {
-            final SourceFile sourceFile = SourceFile.create(mProcessingEnvironment, Utils.getPackageName(element));
-            sourceFile.write(mFactoryBuilder.build(element));
-            sourceFile.flushAndClose();
-        } finally {
-            mBuildCache.clear();
+        final String packageName = Utils.getPackageName(element);
+        if (!mGeneratedTypes.add(packageName + "." + JsonEntityFactoryBuilder.createFactoryName(element))) {
+            return;
         }
-    }
 
-    public ParserCollection getParserCollection() {
-        return mParserCollection;
-    }
+        final List<Element> originatingElements = new ArrayList<>();
+        originatingElements.add(element);
+        originatingElements.addAll(mCustomParserElements);
 
-    private class BuildCacheParserCollection implements BuildCache, ParserCollection {
+        final SourceFile sourceFile = SourceFile.create(new OriginatingProcessingEnvironment(mProcessingEnvironment, originatingElements), packageName);
+        sourceFile.write(mFactoryBuilder.build(element));
+        sourceFile.flushAndClose();
 
-        private final Map<String, Implementation> mClassNameToEnumParserMap = new HashMap<>();
-        private final Map<String, Implementation> mClassNameToEntityParserMap = new HashMap<>();
-        private final Map<String, Type> mClassNameToCustomParserMap = new HashMap<>();
+        mIndexedEntities.add(element);
+    }
 
-        private Implementation.Builder mParent;
+    /**
+     * Writes the {@code ParserIndex} for all entities built so far. It is called in the first round which
+     * doesn't build any entity, so the index is still compiled in a regular round and a module always
+     * ends up with a single {@code SimpleJsonIndex}. Entities which are only built in a later round can't
+     * be added to it anymore and are reported as errors.
+     * <p>
+     * The index is placed in the package configured with the {@code simplejson.indexPackage} option or
+     * otherwise in the first package of all entities in alphabetical order. If another module on the
+     * classpath already has an index in that package the option is required, since both classes would
+     * have the same name.
+     */
+    public void buildIndex() throws IOException {
+        if (mIndexedEntities.isEmpty()) {
+            return;
+        }
 
-        @Override
-        public Type getEnumParser(TypeElement element) {
-            final String qualifiedName = element.getQualifiedName().toString();
-            final Implementation cachedType = mClassNameToEnumParserMap.get(qualifiedName);
-            if (cachedType != null) {
-                return cachedType;
+        if (mIndexWritten) {
+            for (TypeElement entity : mIndexedEntities) {
+                mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, entity.getSimpleName() + " was generated after the " + INDEX_NAME + " had already been written and is missing from it. Generate it in an earlier round of annotation processing.", entity);
             }
-
-            createEnumParser(element, qualifiedName);
-            return mClassNameToEnumParserMap.get(qualifiedName);
+            mIndexedEntities.clear();
+            return;
         }
 
-        @Override
-        public Type getEntityParser(TypeElement element) {
-            final String qualifiedName = element.getQualifiedName().toString();
-            final Type cachedType = mClassNameToEntityParserMap.get(qualifiedName);
-            if (cachedType != null) {
-                return cachedType;
+        final String configuredPackageName = mProcessingEnvironment.getOptions().get(OPTION_INDEX_PACKAGE);
+        String packageName = configuredPackageName;
+        if (packageName == null) {
+            for (TypeElement entity : mIndexedEntities) {
+                final String entityPackageName = Utils.getPackageName(entity);
+                if (packageName == null || entityPackageName.compareTo(packageName) < 0) {
+                    packageName = entityPackageName;
+                }
             }
-
-            createImplementationAndParser(element, qualifiedName);
-            return mClassNameToEntityParserMap.get(qualifiedName);
         }
 
-        @Override
-        public Type getCustomParser(TypeElement element) {
-            final String qualifiedName = element.getQualifiedName().toString();
-            return mClassNameToCustomParserMap.get(qualifiedName);
+        mIndexWritten = true;
+        if (mProcessingEnvironment.getElementUtils().getTypeElement(packageName + "." + INDEX_NAME) != null) {
+            final String message = configuredPackageName == null
+                    ? "Another module already contains " + packageName + "." + INDEX_NAME + ". Choose a package for the index of this module with the annotation processor option " + OPTION_INDEX_PACKAGE + "."
+                    : packageName + "." + INDEX_NAME + " already exists. Choose another package with the annotation processor option " + OPTION_INDEX_PACKAGE + ".";
+            mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, message, mIndexedEntities.get(0));
+            mIndexedEntities.clear();
+            return;
         }
 
-        @Override
-        public void registerParent(Implementation.Builder builder) {
-            mParent = builder;
-        }
+        final SourceFile sourceFile = SourceFile.create(new OriginatingProcessingEnvironment(mProcessingEnvironment, mIndexedEntities), packageName);
+        sourceFile.write(mParserIndexBuilder.build(INDEX_NAME, mIndexedEntities));
+        sourceFile.flushAndClose();
 
-        @Override
-        public boolean hasEntityParser(TypeElement element) {
-            final String qualifiedName = element.getQualifiedName().toString();
-            return mClassNameToEntityParserMap.containsKey(qualifiedName);
+        mIndexedEntities.clear();
+    }
+
+    public void buildEnum(TypeElement element) throws IOException {
+        final String packageName = Utils.getPackageName(element);
+        if (!mGeneratedTypes.add(packageName + "." + EnumFactoryBuilder.createFactoryName(element))) {
+            return;
         }
 
-        @Override
-        public List<Implementation> getImplementations() {
-            final List<Implementation> implementations = new ArrayList<>();
+        final Implementation parserType = mEnumParserBuilder.build(element);
+        final SourceFile sourceFile = SourceFile.create(new OriginatingProcessingEnvironment(mProcessingEnvironment, Collections.singletonList(element)), packageName);
+        sourceFile.write(mEnumFactoryBuilder.build(parserType, element));
+        sourceFile.flushAndClose();
+    }
 
-            for (String key : mClassNameToEnumParserMap.keySet()) {
-                final Implementation implementation = mClassNameToEnumParserMap.get(key);
-                implementations.add(implementation);
-            }
+    public ParserCollection getParserCollection() {
+        return mParserCollection;
+    }
 
-            for (String key : mClassNameToEntityParserMap.keySet()) {
-                final Implementation implementation = mClassNameToEntityParserMap.get(key);
-                implementations.add(implementation);
-            }
+    /**
+     * Child entities and enums are not generated again for every entity that uses them. Each of them
+     * gets its own top level factory when its annotation is processed and all other parsers just
+     * reference the parser exposed by that factory.
+     */
+    private class BuildCacheParserCollection implements BuildCache, ParserCollection {
 
-            return implementations;
-        }
+        private final Map<String, Type> mClassNameToCustomParserMap = new HashMap<>();
 
         @Override
-        public void clear() {
-            mClassNameToCustomParserMap.clear();
-            mClassNameToEntityParserMap.clear();
-            mClassNameToEnumParserMap.clear();
+        public CodeElement getEnumParser(TypeElement element) {
+            final Type factoryType = Types.of(Utils.getPackageName(element), EnumFactoryBuilder.createFactoryName(element));
+            return EnumFactoryBuilder.METHOD_STUB_GET_PARSER.callOnTarget(factoryType);
         }
 
-        private void createEnumParser(TypeElement element, String qualifiedName) {
-            final Implementation parserType = mEnumParserBuilder.build(element);
-            final Implementation factoryImpl = mEnumFactoryBuilder.build(parserType, element);
-            mClassNameToEnumParserMap.put(qualifiedName, parserType);
-            mParent.addNestedImplementation(parserType);
-            mParent.addNestedImplementation(factoryImpl);
+        @Override
+        public CodeElement getEntityParser(TypeElement element) {
+            final Type factoryType = Types.of(Utils.getPackageName(element), JsonEntityFactoryBuilder.createFactoryName(element));
+            return JsonEntityFactoryBuilder.METHOD_STUB_GET_PARSER.callOnTarget(factoryType);
         }
 
-        private void createImplementationAndParser(TypeElement element, String qualifiedName) {
-            final ImplementationResult result = mImplementationBuilder.build(element);
-            final Implementation parserType = mInternalParserBuilder.build(element, result);
-            mClassNameToEntityParserMap.put(qualifiedName, parserType);
-            mParent.addNestedImplementation(result.getImplType());
-            mParent.addNestedImplementation(parserType);
+        @Override
+        public Type getCustomParser(TypeElement element) {
+            final String qualifiedName = element.getQualifiedName().toString();
+            return mClassNameToCustomParserMap.get(qualifiedName);
         }
 
         @Override
@@ -172,11 +197,12 @@ public class ParserBuilder {
         }
 
         @Override
-        public void registerCustomParsers(Map<String, Type> parserMap) {
+        public void registerCustomParsers(Map<String, Type> parserMap, List<? extends Element> parserElements) {
             for (String key : parserMap.keySet()) {
                 final Type parser = parserMap.get(key);
                 mClassNameToCustomParserMap.put(key, parser);
             }
+            mCustomParserElements.addAll(parserElements);
         }
     }
 }
@@ -1,10 +1,15 @@
 package com.github.wrdlbrnft.simplejson.builder.factories.entity;
 
 import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.code.CodeElement;
+import com.github.wrdlbrnft.codebuilder.elements.ifs.TernaryIf;
+import com.github.wrdlbrnft.codebuilder.elements.values.Values;
 import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
 import com.github.wrdlbrnft.codebuilder.types.Type;
 import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.util.Operators;
 import com.github.wrdlbrnft.codebuilder.variables.Variable;
+import com.github.wrdlbrnft.simplejson.SimpleJsonTypes;
 import com.github.wrdlbrnft.simplejson.builder.implementation.MethodPairInfo;
 import com.github.wrdlbrnft.simplejson.models.MappedValue;
 
@@ -51,7 +56,43 @@ class FactoryMethodBuilder extends ExecutableBuilder {
 
     @Override
     protected void write(Block block) {
-        block.append("return ").append(mImplementationType.newInstance(mParameters)).append(";");
+        final CodeElement[] arguments = new CodeElement[mParameters.length];
+        for (int i = 0, count = mMappedValues.size(); i < count; i++) {
+            arguments[i] = createArgument(mMappedValues.get(i), mParameters[i]);
+        }
+        block.append("return ").append(mImplementationType.newInstance(arguments)).append(";");
+    }
+
+    /**
+     * Lists, sets and maps are copied since the caller may still change them afterwards. Neither the
+     * cached hash code of an immutable entity nor the collections which {@code readInto()} reuses may
+     * change with them. Collections allocated by the decoder are passed to the constructor as they are.
+     */
+    private static CodeElement createArgument(MappedValue mappedValue, Variable parameter) {
+        final Type copyType;
+        switch (mappedValue.getValueType()) {
+
+            case LIST:
+                copyType = Types.generic(Types.ARRAY_LIST, Types.of(mappedValue.getItemType()));
+                break;
+
+            case SET:
+                copyType = Types.generic(Types.HASH_SET, Types.of(mappedValue.getItemType()));
+                break;
+
+            case MAP:
+                copyType = Types.generic(mappedValue.isInsertionOrdered() ? SimpleJsonTypes.LINKED_HASH_MAP : SimpleJsonTypes.HASH_MAP, Types.STRING, Types.of(mappedValue.getItemType()));
+                break;
+
+            default:
+                return parameter;
+        }
+
+        return new TernaryIf.Builder()
+                .setComparison(Operators.operate(parameter, "!=", Values.ofNull()))
+                .setTrueBlock(copyType.newInstance(parameter))
+                .setFalseBlock(Values.ofNull())
+                .build();
     }
 
     private String formatAsParameterName(String groupName) {
@@ -3,6 +3,7 @@ package com.github.wrdlbrnft.simplejson.builder.factories.entity;
 import com.github.wrdlbrnft.codebuilder.code.Block;
 import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
 import com.github.wrdlbrnft.codebuilder.executables.Method;
+import com.github.wrdlbrnft.codebuilder.executables.Methods;
 import com.github.wrdlbrnft.codebuilder.implementations.Implementation;
 import com.github.wrdlbrnft.codebuilder.types.Type;
 import com.github.wrdlbrnft.codebuilder.types.Types;
@@ -12,9 +13,9 @@ import com.github.wrdlbrnft.codebuilder.variables.Variable;
 import com.github.wrdlbrnft.codebuilder.variables.Variables;
 import com.github.wrdlbrnft.simplejson.SimpleJsonAnnotations;
 import com.github.wrdlbrnft.simplejson.SimpleJsonTypes;
-import com.github.wrdlbrnft.simplejson.builder.ParserBuilder;
 import com.github.wrdlbrnft.simplejson.builder.implementation.ImplementationBuilder;
 import com.github.wrdlbrnft.simplejson.builder.parser.InternalParserBuilder;
+import com.github.wrdlbrnft.simplejson.builder.parser.PolymorphicParserBuilder;
 import com.github.wrdlbrnft.simplejson.models.ImplementationResult;
 import com.github.wrdlbrnft.simplejson.models.MappedValue;
 
@@ -32,25 +33,35 @@ import javax.lang.model.element.TypeElement;
  */
 public class JsonEntityFactoryBuilder {
 
-    private final ParserBuilder.BuildCache mBuildCache;
+    public static final String METHOD_NAME_GET_PARSER = "getParser";
+    public static final Method METHOD_STUB_GET_PARSER = Methods.stub(METHOD_NAME_GET_PARSER);
+
     private final ImplementationBuilder mImplementationBuilder;
     private final InternalParserBuilder mInternalParserBuilder;
+    private final PolymorphicParserBuilder mPolymorphicParserBuilder;
 
-    public JsonEntityFactoryBuilder(ParserBuilder.BuildCache buildCache, ImplementationBuilder implementationBuilder, InternalParserBuilder internalParserBuilder) {
-        mBuildCache = buildCache;
+    public JsonEntityFactoryBuilder(ImplementationBuilder implementationBuilder, InternalParserBuilder internalParserBuilder, PolymorphicParserBuilder polymorphicParserBuilder) {
         mImplementationBuilder = implementationBuilder;
         mInternalParserBuilder = internalParserBuilder;
+        mPolymorphicParserBuilder = polymorphicParserBuilder;
     }
 
     public Implementation build(TypeElement interfaceElement) {
 
         final Implementation.Builder builder = new Implementation.Builder();
-        mBuildCache.registerParent(builder);
 
         final ImplementationResult result = mImplementationBuilder.build(interfaceElement);
         builder.addNestedImplementation(result.getImplType());
-        final Implementation parserType = mInternalParserBuilder.build(interfaceElement, result);
-        builder.addNestedImplementation(parserType);
+        final Implementation internalParserType = mInternalParserBuilder.build(interfaceElement, result);
+        builder.addNestedImplementation(internalParserType);
+
+        final Implementation parserType;
+        if (PolymorphicParserBuilder.isPolymorphic(interfaceElement)) {
+            parserType = mPolymorphicParserBuilder.build(interfaceElement, internalParserType);
+            builder.addNestedImplementation(parserType);
+        } else {
+            parserType = internalParserType;
+        }
 
         final TypeElement element = result.getInterfaceType();
         final Type entityType = Types.of(element);
@@ -67,7 +78,11 @@ public class JsonEntityFactoryBuilder {
         final Field parserField = new Field.Builder()
                 .setType(Types.generic(SimpleJsonTypes.PARSER, entityType))
                 .setModifiers(EnumSet.of(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL))
-                .setInitialValue(parserType.newInstance())
+                .setInitialValue(SimpleJsonTypes.SIMPLE_JSON_REGISTER_PARSER.callOnTarget(
+                        SimpleJsonTypes.SIMPLE_JSON,
+                        new Block().append(entityType).append(".class"),
+                        parserType.newInstance()
+                ))
                 .build();
         builder.addField(parserField);
 
@@ -78,6 +93,24 @@ public class JsonEntityFactoryBuilder {
                 .setCode(new FactoryMethodBuilder(implType, mappedValues))
                 .build());
 
+        builder.addMethod(new Method.Builder()
+                .setReturnType(Types.generic(SimpleJsonTypes.PARSER, entityType))
+                .setName(METHOD_NAME_GET_PARSER)
+                .setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC))
+                .setCode(new ExecutableBuilder() {
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        return new ArrayList<>();
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append("return ").append(parserField).append(";");
+                    }
+                })
+                .build());
+
         builder.addMethod(new Method.Builder()
                 .setReturnType(entityType)
                 .setName("fromJson")
@@ -124,6 +157,82 @@ public class JsonEntityFactoryBuilder {
                 })
                 .build());
 
+        builder.addMethod(new Method.Builder()
+                .setReturnType(entityType)
+                .setName("fromJson")
+                .setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC))
+                .addThrownException(SimpleJsonTypes.SIMPLE_JSON_EXCEPTION)
+                .setCode(new ExecutableBuilder() {
+
+                    private Variable mParamInput;
+                    private Variable mParamCompression;
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        final List<Variable> parameters = new ArrayList<>();
+                        parameters.add(mParamInput = Variables.of(SimpleJsonTypes.INPUT_STREAM));
+                        parameters.add(mParamCompression = Variables.of(SimpleJsonTypes.COMPRESSION));
+                        return parameters;
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append("return ").append(InternalParserBuilder.METHOD_STUB_FROM_JSON.callOnTarget(parserField, mParamInput, mParamCompression)).append(";");
+                    }
+                })
+                .build());
+
+        builder.addMethod(new Method.Builder()
+                .setReturnType(Types.generic(Types.LIST, entityType))
+                .setName("fromJsonArray")
+                .setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC))
+                .addThrownException(SimpleJsonTypes.SIMPLE_JSON_EXCEPTION)
+                .setCode(new ExecutableBuilder() {
+
+                    private Variable mParamInput;
+                    private Variable mParamCompression;
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        final List<Variable> parameters = new ArrayList<>();
+                        parameters.add(mParamInput = Variables.of(SimpleJsonTypes.INPUT_STREAM));
+                        parameters.add(mParamCompression = Variables.of(SimpleJsonTypes.COMPRESSION));
+                        return parameters;
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append("return ").append(InternalParserBuilder.METHOD_STUB_FROM_JSON_ARRAY.callOnTarget(parserField, mParamInput, mParamCompression)).append(";");
+                    }
+                })
+                .build());
+
+        if (result.isMutable()) {
+            builder.addMethod(new Method.Builder()
+                    .setName("readInto")
+                    .setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC))
+                    .addThrownException(SimpleJsonTypes.SIMPLE_JSON_EXCEPTION)
+                    .setCode(new ExecutableBuilder() {
+
+                        private Variable mParamTarget;
+                        private Variable mParamJson;
+
+                        @Override
+                        protected List<Variable> createParameters() {
+                            final List<Variable> parameters = new ArrayList<>();
+                            parameters.add(mParamTarget = Variables.of(entityType));
+                            parameters.add(mParamJson = Variables.of(Types.STRING));
+                            return parameters;
+                        }
+
+                        @Override
+                        protected void write(Block block) {
+                            block.append(InternalParserBuilder.METHOD_STUB_READ_INTO.callOnTarget(parserField, mParamTarget, mParamJson)).append(";");
+                        }
+                    })
+                    .build());
+        }
+
         builder.addMethod(new Method.Builder()
                 .setReturnType(Types.STRING)
                 .setName("toJson")
@@ -170,10 +279,137 @@ public class JsonEntityFactoryBuilder {
                 })
                 .build());
 
+        builder.addMethod(new Method.Builder()
+                .setName("toJson")
+                .setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC))
+                .addThrownException(SimpleJsonTypes.SIMPLE_JSON_EXCEPTION)
+                .setCode(new ExecutableBuilder() {
+
+                    private Variable mParamCollection;
+                    private Variable mParamOutput;
+                    private Variable mParamCompression;
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        final List<Variable> parameters = new ArrayList<>();
+                        parameters.add(mParamCollection = Variables.of(Types.generic(SimpleJsonTypes.COLLECTION, entityType)));
+                        parameters.add(mParamOutput = Variables.of(SimpleJsonTypes.OUTPUT_STREAM));
+                        parameters.add(mParamCompression = Variables.of(SimpleJsonTypes.COMPRESSION));
+                        return parameters;
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append(InternalParserBuilder.METHOD_STUB_LIST_TO_JSON.callOnTarget(parserField, mParamCollection, mParamOutput, mParamCompression)).append(";");
+                    }
+                })
+                .build());
+
+        builder.addMethod(new Method.Builder()
+                .setName("toJson")
+                .setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC))
+                .addThrownException(SimpleJsonTypes.SIMPLE_JSON_EXCEPTION)
+                .setCode(new ExecutableBuilder() {
+
+                    private Variable mParamEntity;
+                    private Variable mParamOutput;
+                    private Variable mParamCompression;
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        final List<Variable> parameters = new ArrayList<>();
+                        parameters.add(mParamEntity = Variables.of(entityType));
+                        parameters.add(mParamOutput = Variables.of(SimpleJsonTypes.OUTPUT_STREAM));
+                        parameters.add(mParamCompression = Variables.of(SimpleJsonTypes.COMPRESSION));
+                        return parameters;
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append(InternalParserBuilder.METHOD_STUB_TO_JSON.callOnTarget(parserField, mParamEntity, mParamOutput, mParamCompression)).append(";");
+                    }
+                })
+                .build());
+
+        builder.addMethod(new Method.Builder()
+                .setReturnType(SimpleJsonTypes.JSON_OBJECT)
+                .setName("diff")
+                .setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC))
+                .addThrownException(SimpleJsonTypes.SIMPLE_JSON_EXCEPTION)
+                .setCode(new ExecutableBuilder() {
+
+                    private Variable mParamBefore;
+                    private Variable mParamAfter;
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        final List<Variable> parameters = new ArrayList<>();
+                        parameters.add(mParamBefore = Variables.of(entityType));
+                        parameters.add(mParamAfter = Variables.of(entityType));
+                        return parameters;
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append("return ").append(InternalParserBuilder.METHOD_STUB_DIFF.callOnTarget(parserField, mParamBefore, mParamAfter)).append(";");
+                    }
+                })
+                .build());
+
+        builder.addMethod(new Method.Builder()
+                .setReturnType(entityType)
+                .setName("applyPatch")
+                .setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC))
+                .addThrownException(SimpleJsonTypes.SIMPLE_JSON_EXCEPTION)
+                .setCode(new ExecutableBuilder() {
+
+                    private Variable mParamBase;
+                    private Variable mParamPatch;
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        final List<Variable> parameters = new ArrayList<>();
+                        parameters.add(mParamBase = Variables.of(entityType));
+                        parameters.add(mParamPatch = Variables.of(Types.STRING));
+                        return parameters;
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append("return ").append(InternalParserBuilder.METHOD_STUB_APPLY_PATCH.callOnTarget(parserField, mParamBase, mParamPatch)).append(";");
+                    }
+                })
+                .build());
+
+        builder.addMethod(new Method.Builder()
+                .setReturnType(entityType)
+                .setName("merge")
+                .setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC))
+                .addThrownException(SimpleJsonTypes.SIMPLE_JSON_EXCEPTION)
+                .setCode(new ExecutableBuilder() {
+
+                    private Variable mParamExisting;
+                    private Variable mParamJson;
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        final List<Variable> parameters = new ArrayList<>();
+                        parameters.add(mParamExisting = Variables.of(entityType));
+                        parameters.add(mParamJson = Variables.of(Types.STRING));
+                        return parameters;
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append("return ").append(InternalParserBuilder.METHOD_STUB_MERGE.callOnTarget(parserField, mParamExisting, mParamJson)).append(";");
+                    }
+                })
+                .build());
+
         return builder.build();
     }
 
-    private String createFactoryName(TypeElement element) {
+    public static String createFactoryName(TypeElement element) {
         final AnnotationValue annotationFactoryName = Utils.getAnnotationValue(element, SimpleJsonAnnotations.JSON_ENTITY, "factoryName");
         if (annotationFactoryName != null) {
             final Object value = annotationFactoryName.getValue();
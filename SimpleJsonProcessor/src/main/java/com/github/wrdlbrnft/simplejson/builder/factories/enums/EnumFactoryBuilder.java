@@ -27,6 +27,9 @@ import javax.lang.model.element.TypeElement;
  */
 public class EnumFactoryBuilder {
 
+    public static final String METHOD_NAME_GET_PARSER = "getParser";
+    public static final Method METHOD_STUB_GET_PARSER = Methods.stub(METHOD_NAME_GET_PARSER);
+
     private static final Method METHOD_PARSE = Methods.stub(EnumParserBuilder.METHOD_NAME_PARSE);
     private static final Method METHOD_FORMAT = Methods.stub(EnumParserBuilder.METHOD_NAME_FORMAT);
 
@@ -41,7 +44,8 @@ public class EnumFactoryBuilder {
 
         final Implementation.Builder builder = new Implementation.Builder();
         builder.setName(createFactoryName(enumElement));
-        builder.setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL));
+        builder.setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.FINAL));
+        builder.addNestedImplementation(parserType);
 
         final Field parserField = new Field.Builder()
                 .setType(Types.generic(SimpleJsonTypes.ENUM_PARSER, enumType))
@@ -50,6 +54,24 @@ public class EnumFactoryBuilder {
                 .build();
         builder.addField(parserField);
 
+        builder.addMethod(new Method.Builder()
+                .setReturnType(Types.generic(SimpleJsonTypes.ENUM_PARSER, enumType))
+                .setName(METHOD_NAME_GET_PARSER)
+                .setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC))
+                .setCode(new ExecutableBuilder() {
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        return new ArrayList<>();
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append("return ").append(parserField).append(";");
+                    }
+                })
+                .build());
+
         builder.addMethod(new Method.Builder()
                 .setReturnType(enumType)
                 .setName(EnumParserBuilder.METHOD_NAME_PARSE)
@@ -95,13 +117,9 @@ public class EnumFactoryBuilder {
                 .build());
 
         return builder.build();
-
-//        final SourceFile sourceFile = SourceFile.create(mProcessingEnvironment, Utils.getPackageName(enumElement));
-//        sourceFile.write(factoryImplementation);
-//        sourceFile.flushAndClose();
     }
 
-    private String createFactoryName(TypeElement element) {
+    public static String createFactoryName(TypeElement element) {
         return Utils.getClassName(element).replace(".", "") + "Parser";
     }
 }
@@ -0,0 +1,53 @@
+package com.github.wrdlbrnft.simplejson.builder.implementation;
+
+import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.elements.ifs.If;
+import com.github.wrdlbrnft.codebuilder.elements.values.Values;
+import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
+import com.github.wrdlbrnft.codebuilder.executables.Method;
+import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.util.Operators;
+import com.github.wrdlbrnft.codebuilder.variables.Field;
+import com.github.wrdlbrnft.codebuilder.variables.Variable;
+import com.github.wrdlbrnft.codebuilder.variables.Variables;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds {@code hashCode()} of entities without setters. The hash is computed on first use and cached
+ * in a field the same way {@link String#hashCode()} does it. A hash of 0 is simply computed again each
+ * time.
+ */
+class CachedHashCodeExecutableBuilder extends ExecutableBuilder {
+
+    private final Field mCacheField;
+    private final Method mComputeMethod;
+
+    CachedHashCodeExecutableBuilder(Field cacheField, Method computeMethod) {
+        mCacheField = cacheField;
+        mComputeMethod = computeMethod;
+    }
+
+    @Override
+    protected List<Variable> createParameters() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    protected void write(Block block) {
+        final Variable varResult = Variables.of(Types.Primitives.INTEGER);
+        block.set(varResult, mCacheField).append(";").newLine();
+
+        final Block computeBlock = new Block();
+        computeBlock.append(varResult).append(" = ").append(mComputeMethod.call()).append(";").newLine();
+        computeBlock.append(mCacheField).append(" = ").append(varResult).append(";");
+
+        block.append(new If.Builder()
+                .add(Operators.operate(varResult, "==", Values.of(0)), computeBlock)
+                .build());
+        block.newLine();
+
+        block.append("return ").append(varResult).append(";");
+    }
+}
@@ -1,11 +1,13 @@
 package com.github.wrdlbrnft.simplejson.builder.implementation;
 
 import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.code.CodeElement;
 import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
 import com.github.wrdlbrnft.codebuilder.types.Types;
 import com.github.wrdlbrnft.codebuilder.variables.Field;
 import com.github.wrdlbrnft.codebuilder.variables.Variable;
 import com.github.wrdlbrnft.codebuilder.variables.Variables;
+import com.github.wrdlbrnft.simplejson.SimpleJsonTypes;
 import com.github.wrdlbrnft.simplejson.models.MappedValue;
 
 import java.util.ArrayList;
@@ -19,10 +21,19 @@ import java.util.Map;
 class ConstructorBuilder extends ExecutableBuilder {
 
     private final List<MappedValue> mMappedValues;
+    private final Map<MappedValue, Field> mOwnedCollectionFields;
+    private final boolean mImmutable;
     private final Map<Field, Variable> parameterMap = new HashMap<>();
 
-    ConstructorBuilder(List<MappedValue> mappedValues) {
+    /**
+     * @param ownedCollectionFields The collections passed to the constructor are always allocated by
+     *                              generated code, so they are recorded in these fields as well.
+     * @param immutable             If {@code true} lists, sets and maps are wrapped as unmodifiable.
+     */
+    ConstructorBuilder(List<MappedValue> mappedValues, Map<MappedValue, Field> ownedCollectionFields, boolean immutable) {
         mMappedValues = mappedValues;
+        mOwnedCollectionFields = ownedCollectionFields;
+        mImmutable = immutable;
     }
 
     @Override
@@ -51,7 +62,36 @@ class ConstructorBuilder extends ExecutableBuilder {
                 block.newLine();
             }
 
-            block.set(field, parameter).append(";");
+            block.set(field, mImmutable ? wrapUnmodifiable(mappedValue, parameter) : parameter).append(";");
+
+            final Field ownedCollectionField = mOwnedCollectionFields.get(mappedValue);
+            if (ownedCollectionField != null) {
+                block.newLine().set(ownedCollectionField, parameter).append(";");
+            }
+        }
+    }
+
+    /**
+     * A {@code LinkedHashMap} can't be wrapped without changing its type, its getter returns a copy
+     * instead.
+     */
+    private static CodeElement wrapUnmodifiable(MappedValue mappedValue, Variable parameter) {
+        switch (mappedValue.getValueType()) {
+
+            case LIST:
+                return new Block().append(SimpleJsonTypes.UNMODIFIABLE_COLLECTIONS).append(".list(").append(parameter).append(")");
+
+            case SET:
+                return new Block().append(SimpleJsonTypes.UNMODIFIABLE_COLLECTIONS).append(".set(").append(parameter).append(")");
+
+            case MAP:
+                if (mappedValue.isInsertionOrdered()) {
+                    return parameter;
+                }
+                return new Block().append(SimpleJsonTypes.UNMODIFIABLE_COLLECTIONS).append(".map(").append(parameter).append(")");
+
+            default:
+                return parameter;
         }
     }
 }
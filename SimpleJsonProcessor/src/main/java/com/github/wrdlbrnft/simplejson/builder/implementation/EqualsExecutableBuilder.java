@@ -20,8 +20,15 @@ import com.github.wrdlbrnft.codebuilder.variables.Variables;
 import com.github.wrdlbrnft.simplejson.models.MappedValue;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
 
 /**
  * Created by kapeller on 22/06/16.
@@ -30,14 +37,33 @@ class EqualsExecutableBuilder extends ExecutableBuilder {
 
     private static final Method METHOD_COMPARE = Methods.stub("compare");
 
+    private static final int COST_PRIMITIVE = 0;
+    private static final int COST_SIMPLE_OBJECT = 1;
+    private static final int COST_OBJECT = 2;
+    private static final int COST_COLLECTION = 3;
+
+    private static final Comparator<MappedValue> CHEAPEST_FIRST = new Comparator<MappedValue>() {
+        @Override
+        public int compare(MappedValue a, MappedValue b) {
+            return getComparisonCost(a) - getComparisonCost(b);
+        }
+    };
+
     private final List<MappedValue> mMappedValues;
     private final Type mImplType;
+    private final Field mHashCodeCache;
 
     private Variable paramObject;
 
-    EqualsExecutableBuilder(List<MappedValue> mappedValues, Type implType) {
-        mMappedValues = mappedValues;
+    /**
+     * @param hashCodeCache The field in which the hash code is cached or {@code null} if the entity
+     *                      doesn't cache it.
+     */
+    EqualsExecutableBuilder(List<MappedValue> mappedValues, Type implType, Field hashCodeCache) {
+        mMappedValues = new ArrayList<>(mappedValues);
+        Collections.sort(mMappedValues, CHEAPEST_FIRST);
         mImplType = implType;
+        mHashCodeCache = hashCodeCache;
     }
 
     @Override
@@ -67,6 +93,18 @@ class EqualsExecutableBuilder extends ExecutableBuilder {
             }
         }).append(";").newLine();
 
+        if (mHashCodeCache != null) {
+            final CodeElement otherHashCode = new Block().append(otherInstance).append(".").append(mHashCodeCache);
+            block.append(new If.Builder()
+                    .add(new Block()
+                                    .append(mHashCodeCache).append(" != 0 && ")
+                                    .append(otherHashCode).append(" != 0 && ")
+                                    .append(mHashCodeCache).append(" != ").append(otherHashCode),
+                            new ReturnStatement(Values.of(false)))
+                    .build()
+            ).newLine();
+        }
+
         for (MappedValue mappedValue : mMappedValues) {
             final Field field = mappedValue.getField();
             final CodeElement otherInstanceField = new Block().append(otherInstance).append(".").append(field);
@@ -87,6 +125,35 @@ class EqualsExecutableBuilder extends ExecutableBuilder {
         block.append(new ReturnStatement(Values.of(true)));
     }
 
+    /**
+     * Fields are compared cheapest first so that entities which differ are usually rejected before any
+     * nested entity or collection has to be compared.
+     */
+    private static int getComparisonCost(MappedValue mappedValue) {
+        if (mappedValue.getValueType() != MappedValue.ValueType.VALUE) {
+            return COST_COLLECTION;
+        }
+
+        final TypeMirror type = mappedValue.getBaseType();
+        if (type.getKind().isPrimitive()) {
+            return COST_PRIMITIVE;
+        }
+
+        if (Utils.isSameType(type, String.class)
+                || Utils.isSameType(type, Integer.class)
+                || Utils.isSameType(type, Long.class)
+                || Utils.isSameType(type, Double.class)
+                || Utils.isSameType(type, Boolean.class)) {
+            return COST_SIMPLE_OBJECT;
+        }
+
+        if (type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+            return COST_SIMPLE_OBJECT;
+        }
+
+        return COST_OBJECT;
+    }
+
     private CodeElement createPrimitiveEqualsComparison(CodeElement otherInstanceField, Field field) {
         final If.Builder builder = new If.Builder();
         builder.add(Operators.operate(field, "!=", otherInstanceField), new ReturnStatement(Values.of(false)));
@@ -0,0 +1,153 @@
+package com.github.wrdlbrnft.simplejson.builder.implementation;
+
+import com.github.wrdlbrnft.codebuilder.util.Utils;
+import com.github.wrdlbrnft.simplejson.SimpleJsonAnnotations;
+import com.github.wrdlbrnft.simplejson.models.MappedValue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Decides if the values of an entity can change after it was created. Strings, boxed primitives, big
+ * numbers and enums never change. A child entity never changes if neither it nor any of its
+ * {@code @JsonSubTypes} has a setter and all of their values never change either. Lists, sets and maps
+ * never change if their elements don't, since entities without setters copy and wrap them. Everything
+ * else, for example a {@code Date} or a type with a custom parser, is assumed to change.
+ */
+class ImmutabilityAnalyzer {
+
+    private static final List<String> IMMUTABLE_TYPES = Arrays.asList(
+            "java.lang.String",
+            "java.lang.Boolean",
+            "java.lang.Byte",
+            "java.lang.Character",
+            "java.lang.Short",
+            "java.lang.Integer",
+            "java.lang.Long",
+            "java.lang.Float",
+            "java.lang.Double",
+            "java.math.BigDecimal",
+            "java.math.BigInteger",
+            "com.github.wrdlbrnft.simplejson.codec.LazyNumber"
+    );
+
+    private final ProcessingEnvironment mProcessingEnvironment;
+    private final TypeMirror mTypeList;
+    private final TypeMirror mTypeSet;
+    private final TypeMirror mTypeMap;
+
+    private final Map<TypeElement, Boolean> mResults = new HashMap<>();
+    private final Set<TypeElement> mEntitiesInProgress = new HashSet<>();
+
+    ImmutabilityAnalyzer(ProcessingEnvironment processingEnvironment) {
+        mProcessingEnvironment = processingEnvironment;
+        mTypeList = processingEnvironment.getElementUtils().getTypeElement("java.util.List").asType();
+        mTypeSet = processingEnvironment.getElementUtils().getTypeElement("java.util.Set").asType();
+        mTypeMap = processingEnvironment.getElementUtils().getTypeElement("java.util.Map").asType();
+    }
+
+    public boolean hasImmutableValues(List<MappedValue> mappedValues) {
+        for (MappedValue mappedValue : mappedValues) {
+            if (!isImmutable(mappedValue.getBaseType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isImmutable(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        }
+
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+
+        final DeclaredType declaredType = (DeclaredType) type;
+        final TypeElement element = (TypeElement) declaredType.asElement();
+        if (element.getKind() == ElementKind.ENUM || IMMUTABLE_TYPES.contains(element.getQualifiedName().toString())) {
+            return true;
+        }
+
+        if (Utils.isSubTypeOf(mProcessingEnvironment, type, mTypeList)
+                || Utils.isSubTypeOf(mProcessingEnvironment, type, mTypeSet)
+                || Utils.isSubTypeOf(mProcessingEnvironment, type, mTypeMap)) {
+            final List<? extends TypeMirror> typeArguments = declaredType.getTypeArguments();
+            if (typeArguments.isEmpty()) {
+                return false;
+            }
+
+            for (TypeMirror typeArgument : typeArguments) {
+                if (!isImmutable(typeArgument)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return Utils.hasAnnotation(element, SimpleJsonAnnotations.JSON_ENTITY) && isImmutableEntity(element);
+    }
+
+    /**
+     * Entities which reference each other are assumed to be immutable while they are analyzed. Such a
+     * result is only cached once the outermost entity is done, since it may still turn out to be wrong.
+     */
+    private boolean isImmutableEntity(TypeElement element) {
+        final Boolean result = mResults.get(element);
+        if (result != null) {
+            return result;
+        }
+
+        if (!mEntitiesInProgress.add(element)) {
+            return true;
+        }
+
+        final boolean immutable = analyzeEntity(element);
+        mEntitiesInProgress.remove(element);
+
+        if (!immutable || mEntitiesInProgress.isEmpty()) {
+            mResults.put(element, immutable);
+        }
+        return immutable;
+    }
+
+    private boolean analyzeEntity(TypeElement element) {
+        final List<? extends Element> members = Utils.getAllDeclaredInterfaceElements(mProcessingEnvironment, element);
+        for (Element member : members) {
+            if (member.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+
+            final ExecutableElement method = (ExecutableElement) member;
+            if (method.getSimpleName().toString().startsWith("set") || !isImmutable(method.getReturnType())) {
+                return false;
+            }
+        }
+
+        final AnnotationValue subTypesValue = Utils.getAnnotationValue(element, SimpleJsonAnnotations.JSON_SUB_TYPES, "value");
+        if (subTypesValue != null) {
+            for (Object value : (List<?>) subTypesValue.getValue()) {
+                if (!isImmutable((TypeMirror) ((AnnotationValue) value).getValue())) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+}
@@ -6,25 +6,33 @@ import com.github.wrdlbrnft.codebuilder.code.BlockWriter;
 import com.github.wrdlbrnft.codebuilder.code.CodeElement;
 import com.github.wrdlbrnft.codebuilder.code.SourceFile;
 import com.github.wrdlbrnft.codebuilder.executables.Constructor;
+import com.github.wrdlbrnft.codebuilder.elements.ifs.TernaryIf;
+import com.github.wrdlbrnft.codebuilder.elements.values.Values;
 import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
 import com.github.wrdlbrnft.codebuilder.executables.Method;
+import com.github.wrdlbrnft.codebuilder.executables.Methods;
 import com.github.wrdlbrnft.codebuilder.implementations.Implementation;
 import com.github.wrdlbrnft.codebuilder.types.Type;
 import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.util.Operators;
 import com.github.wrdlbrnft.codebuilder.util.Utils;
 import com.github.wrdlbrnft.codebuilder.variables.Field;
 import com.github.wrdlbrnft.codebuilder.variables.Variable;
 import com.github.wrdlbrnft.codebuilder.variables.Variables;
 import com.github.wrdlbrnft.simplejson.SimpleJsonAnnotations;
+import com.github.wrdlbrnft.simplejson.SimpleJsonTypes;
 import com.github.wrdlbrnft.simplejson.models.ImplementationResult;
 import com.github.wrdlbrnft.simplejson.models.MappedValue;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
@@ -39,19 +47,27 @@ import javax.tools.Diagnostic;
  */
 public class ImplementationBuilder {
 
+    private static final String METHOD_NAME_COMPUTE_HASH_CODE = "computeHashCode";
+
     private final ProcessingEnvironment mProcessingEnvironment;
     private final InterfaceAnalyzer mAnalyzer;
+    private final ImmutabilityAnalyzer mImmutabilityAnalyzer;
     private final TypeMirror mTypeList;
     private final TypeMirror mTypeSet;
+    private final TypeMirror mTypeMap;
+    private final TypeMirror mTypeLinkedHashMap;
 
     private Implementation.Builder mBuilder;
 
     public ImplementationBuilder(ProcessingEnvironment processingEnvironment) {
         mProcessingEnvironment = processingEnvironment;
         mAnalyzer = new InterfaceAnalyzer(mProcessingEnvironment);
+        mImmutabilityAnalyzer = new ImmutabilityAnalyzer(mProcessingEnvironment);
 
         mTypeList = mProcessingEnvironment.getElementUtils().getTypeElement("java.util.List").asType();
         mTypeSet = mProcessingEnvironment.getElementUtils().getTypeElement("java.util.Set").asType();
+        mTypeMap = mProcessingEnvironment.getElementUtils().getTypeElement("java.util.Map").asType();
+        mTypeLinkedHashMap = mProcessingEnvironment.getElementUtils().getTypeElement("java.util.LinkedHashMap").asType();
     }
 
     public ImplementationResult build(TypeElement model) {
@@ -66,20 +82,93 @@ public class ImplementationBuilder {
             mappedValues.add(createMappedValueWrapper(info));
         }
 
+        final boolean immutable = ImplementationResult.isImmutable(mappedValues);
+        final boolean deeplyImmutable = immutable && mImmutabilityAnalyzer.hasImmutableValues(mappedValues);
+        for (MappedValue mappedValue : mappedValues) {
+            mBuilder.addMethod(createGetterImplementation(mappedValue, immutable));
+        }
+
+        final Map<MappedValue, Field> ownedCollectionFields = ImplementationResult.isMutable(mappedValues)
+                ? addOwnedCollectionFields(mappedValues)
+                : new HashMap<MappedValue, Field>();
+
         final Constructor constructor = new Constructor.Builder()
                 .setModifiers(EnumSet.of(Modifier.PUBLIC))
-                .setCode(new ConstructorBuilder(mappedValues))
+                .setCode(new ConstructorBuilder(mappedValues, ownedCollectionFields, immutable))
                 .build();
         mBuilder.addConstructor(constructor);
 
         final LazyEvalType lazyImplType = new LazyEvalType();
 
+        final Field hashCodeCache = deeplyImmutable ? addHashCodeCache(mappedValues) : null;
+
         mBuilder.addMethod(new Method.Builder()
                 .setModifiers(EnumSet.of(Modifier.PUBLIC))
                 .setReturnType(Types.Primitives.BOOLEAN)
                 .setName("equals")
                 .addAnnotation(Annotations.forType(Override.class))
-                .setCode(new EqualsExecutableBuilder(mappedValues, lazyImplType))
+                .setCode(new EqualsExecutableBuilder(mappedValues, lazyImplType, hashCodeCache))
+                .build());
+
+        if (hashCodeCache == null) {
+            mBuilder.addMethod(new Method.Builder()
+                    .setModifiers(EnumSet.of(Modifier.PUBLIC))
+                    .setReturnType(Types.Primitives.INTEGER)
+                    .setName("hashCode")
+                    .addAnnotation(Annotations.forType(Override.class))
+                    .setCode(new HashCodeExecutableBuilder(mappedValues))
+                    .build());
+        }
+
+        final Implementation implementation = mBuilder.build();
+        lazyImplType.setType(implementation);
+
+        return new ImplementationResult(implementation, model, mappedValues, ownedCollectionFields, deeplyImmutable);
+    }
+
+    /**
+     * Mutable entities remember which of their lists and sets were allocated by generated code. Only
+     * those are cleared and reused when JSON is read into the entity, a collection passed to a setter
+     * may still be used somewhere else.
+     */
+    private Map<MappedValue, Field> addOwnedCollectionFields(List<MappedValue> mappedValues) {
+        final Map<MappedValue, Field> ownedCollectionFields = new HashMap<>();
+        for (MappedValue mappedValue : mappedValues) {
+            final Type collectionType;
+            if (mappedValue.getValueType() == MappedValue.ValueType.LIST) {
+                collectionType = Types.LIST;
+            } else if (mappedValue.getValueType() == MappedValue.ValueType.SET) {
+                collectionType = Types.SET;
+            } else {
+                continue;
+            }
+
+            final Field field = new Field.Builder()
+                    .setType(Types.generic(collectionType, Types.of(mappedValue.getItemType())))
+                    .setModifiers(EnumSet.of(Modifier.PRIVATE))
+                    .build();
+            mBuilder.addField(field);
+            ownedCollectionFields.put(mappedValue, field);
+        }
+        return ownedCollectionFields;
+    }
+
+    /**
+     * Entities without setters whose values can't change either never change after they are created, so
+     * their hash is computed once in {@code computeHashCode()} and then cached in a field.
+     */
+    private Field addHashCodeCache(List<MappedValue> mappedValues) {
+        final Field hashCodeCache = new Field.Builder()
+                .setType(Types.Primitives.INTEGER)
+                .setModifiers(EnumSet.of(Modifier.PRIVATE))
+                .build();
+        mBuilder.addField(hashCodeCache);
+
+        mBuilder.addMethod(new Method.Builder()
+                .setModifiers(EnumSet.of(Modifier.PRIVATE))
+                .setReturnType(Types.Primitives.INTEGER)
+                .setName(METHOD_NAME_COMPUTE_HASH_CODE)
+                .setCode(new HashCodeExecutableBuilder(mappedValues))
                 .build());
 
         mBuilder.addMethod(new Method.Builder()
@@ -87,13 +176,10 @@ public class ImplementationBuilder {
                 .setReturnType(Types.Primitives.INTEGER)
                 .setName("hashCode")
                 .addAnnotation(Annotations.forType(Override.class))
-                .setCode(new HashCodeExecutableBuilder(mappedValues))
+                .setCode(new CachedHashCodeExecutableBuilder(hashCodeCache, Methods.stub(METHOD_NAME_COMPUTE_HASH_CODE)))
                 .build());
 
-        final Implementation implementation = mBuilder.build();
-        lazyImplType.setType(implementation);
-
-        return new ImplementationResult(implementation, model, mappedValues);
+        return hashCodeCache;
     }
 
     private MappedValue createMappedValueWrapper(MethodPairInfo info) {
@@ -105,6 +191,7 @@ public class ImplementationBuilder {
         final Type resultingType;
         final TypeMirror itemType;
         final MappedValue.ValueType valueType;
+        boolean insertionOrdered = false;
         if (baseType.getKind() == TypeKind.ARRAY) {
             mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "Arrays are not supported yet as return types!", getter);
             itemType = null;
@@ -132,6 +219,19 @@ public class ImplementationBuilder {
                 itemType = null;
                 resultingType = Types.SET;
             }
+        } else if (Utils.isSubTypeOf(mProcessingEnvironment, baseType, mTypeMap)) {
+            valueType = MappedValue.ValueType.MAP;
+            insertionOrdered = Utils.isSubTypeOf(mProcessingEnvironment, baseType, mTypeLinkedHashMap);
+            final Type mapType = insertionOrdered ? SimpleJsonTypes.LINKED_HASH_MAP : SimpleJsonTypes.MAP;
+            final List<TypeMirror> typeParameters = Utils.getTypeParameters(baseType);
+            if (typeParameters.size() == 2 && Utils.isSameType(typeParameters.get(0), String.class)) {
+                itemType = typeParameters.get(1);
+                resultingType = Types.generic(mapType, Types.STRING, Types.of(itemType));
+            } else {
+                mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "Only Maps with String keys are supported! You need to explicitly state the type of the values in the returned Map!!1", getter);
+                itemType = null;
+                resultingType = mapType;
+            }
         } else {
             valueType = MappedValue.ValueType.VALUE;
             itemType = baseType;
@@ -157,19 +257,67 @@ public class ImplementationBuilder {
             }
         }
 
-        final Method getterMethod = createGetterImplementation(info, resultingType, field);
-        if (getterMethod != null) {
-            mBuilder.addMethod(getterMethod);
+        final CodeElement defaultValue = createDefaultValue(getter, valueType, baseType);
+
+        return new MappedValue(info.getFieldName(), baseType, itemType, optional, valueType, info, field, insertionOrdered, defaultValue);
+    }
+
+    private CodeElement createDefaultValue(ExecutableElement getter, MappedValue.ValueType valueType, TypeMirror type) {
+        final AnnotationValue annotationValue = Utils.getAnnotationValue(getter, SimpleJsonAnnotations.DEFAULT_VALUE, "value");
+        if (annotationValue == null) {
+            return null;
+        }
+
+        final String value = annotationValue.getValue().toString();
+        if (valueType != MappedValue.ValueType.VALUE) {
+            mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "@DefaultValue cannot be used on collections or maps!", getter);
+            return null;
         }
 
-        return new MappedValue(info.getFieldName(), baseType, itemType, optional, valueType, info, field);
+        try {
+            if (Utils.isSameType(type, String.class)) {
+                return Values.of(value);
+            } else if (Utils.isSameType(type, int.class) || Utils.isSameType(type, Integer.class)) {
+                return Values.of(Integer.parseInt(value));
+            } else if (Utils.isSameType(type, long.class) || Utils.isSameType(type, Long.class)) {
+                return new Block().append(String.valueOf(Long.parseLong(value))).append("L");
+            } else if (Utils.isSameType(type, double.class) || Utils.isSameType(type, Double.class)) {
+                final double parsedValue = Double.parseDouble(value);
+                if (Double.isNaN(parsedValue) || Double.isInfinite(parsedValue)) {
+                    mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "The default value of a double has to be a finite number!", getter);
+                    return null;
+                }
+                return new Block().append(String.valueOf(parsedValue));
+            } else if (Utils.isSameType(type, boolean.class) || Utils.isSameType(type, Boolean.class)) {
+                if (!"true".equals(value) && !"false".equals(value)) {
+                    mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "The default value of a boolean has to be either true or false!", getter);
+                    return null;
+                }
+                return Values.of(Boolean.parseBoolean(value));
+            }
+        } catch (NumberFormatException e) {
+            mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "\"" + value + "\" is not a valid default value for " + type + "!", getter);
+            return null;
+        }
+
+        mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "@DefaultValue can only be used on Strings, numbers and booleans!", getter);
+        return null;
     }
 
-    private Method createGetterImplementation(MethodPairInfo info, Type resultingType, final Field field) {
-        final ExecutableElement getter = info.getGetter();
+    /**
+     * Getters of entities without setters must not hand out anything which changes the entity, since
+     * its hash code is cached and it may be interned. Their lists, sets and maps are already wrapped as
+     * unmodifiable by the constructor. A {@code LinkedHashMap} can't be wrapped without changing its
+     * type, so it is copied every time the getter is called. Generated code never calls such a getter
+     * on the generated implementation, it reads the field directly.
+     */
+    private Method createGetterImplementation(final MappedValue mappedValue, boolean immutable) {
+        final ExecutableElement getter = mappedValue.getMethodPairInfo().getGetter();
+        final Field field = mappedValue.getField();
+        final boolean copy = ImplementationResult.isCopiedByGetter(mappedValue, immutable);
         return new Method.Builder()
                 .setName(getter.getSimpleName().toString())
-                .setReturnType(resultingType)
+                .setReturnType(Types.of(mappedValue.getBaseType()))
                 .addAnnotation(Annotations.forType(Override.class))
                 .setModifiers(EnumSet.of(Modifier.PUBLIC))
                 .setCode(new ExecutableBuilder() {
@@ -180,7 +328,16 @@ public class ImplementationBuilder {
 
                     @Override
                     protected void write(Block block) {
-                        block.append("return ").append(field).append(";");
+                        if (copy) {
+                            final Type mapType = Types.generic(SimpleJsonTypes.LINKED_HASH_MAP, Types.STRING, Types.of(mappedValue.getItemType()));
+                            block.append("return ").append(new TernaryIf.Builder()
+                                    .setComparison(Operators.operate(field, "!=", Values.ofNull()))
+                                    .setTrueBlock(mapType.newInstance(field))
+                                    .setFalseBlock(Values.ofNull())
+                                    .build()).append(";");
+                        } else {
+                            block.append("return ").append(field).append(";");
+                        }
                     }
                 })
                 .build();
@@ -0,0 +1,139 @@
+package com.github.wrdlbrnft.simplejson.builder.index;
+
+import com.github.wrdlbrnft.codebuilder.annotations.Annotations;
+import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.code.BlockWriter;
+import com.github.wrdlbrnft.codebuilder.elements.switches.Switch;
+import com.github.wrdlbrnft.codebuilder.elements.values.Values;
+import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
+import com.github.wrdlbrnft.codebuilder.executables.Method;
+import com.github.wrdlbrnft.codebuilder.implementations.Implementation;
+import com.github.wrdlbrnft.codebuilder.types.Type;
+import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.util.Utils;
+import com.github.wrdlbrnft.codebuilder.variables.Variable;
+import com.github.wrdlbrnft.codebuilder.variables.Variables;
+import com.github.wrdlbrnft.simplejson.SimpleJsonTypes;
+import com.github.wrdlbrnft.simplejson.builder.factories.entity.JsonEntityFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Builds the {@code ParserIndex} of a module. Entity types and parsers are looked up with a switch over
+ * the position of the entity so no factory is loaded before its parser is actually requested.
+ */
+public class ParserIndexBuilder {
+
+    public Implementation build(String name, List<TypeElement> entityElements) {
+        final Implementation.Builder builder = new Implementation.Builder();
+        builder.setName(name);
+        builder.setModifiers(EnumSet.of(Modifier.PUBLIC, Modifier.FINAL));
+        builder.addImplementedType(SimpleJsonTypes.PARSER_INDEX);
+
+        final List<Type> entityTypes = new ArrayList<>();
+        final List<Type> factoryTypes = new ArrayList<>();
+        for (TypeElement element : entityElements) {
+            entityTypes.add(Types.of(element));
+            factoryTypes.add(Types.of(Utils.getPackageName(element), JsonEntityFactoryBuilder.createFactoryName(element)));
+        }
+
+        builder.addMethod(new Method.Builder()
+                .setReturnType(Types.Primitives.INTEGER)
+                .setName("getEntityCount")
+                .setModifiers(EnumSet.of(Modifier.PUBLIC))
+                .addAnnotation(Annotations.forType(Override.class))
+                .setCode(new ExecutableBuilder() {
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        return new ArrayList<>();
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append("return ").append(Values.of(entityTypes.size())).append(";");
+                    }
+                })
+                .build());
+
+        builder.addMethod(new Method.Builder()
+                .setReturnType(SimpleJsonTypes.CLASS)
+                .setName("getEntityType")
+                .setModifiers(EnumSet.of(Modifier.PUBLIC))
+                .addAnnotation(Annotations.forType(Override.class))
+                .setCode(new PositionSwitchBuilder(entityTypes.size()) {
+
+                    @Override
+                    protected void writeCase(Block block, int position) {
+                        block.append("return ").append(entityTypes.get(position)).append(".class;");
+                    }
+                })
+                .build());
+
+        builder.addMethod(new Method.Builder()
+                .setReturnType(SimpleJsonTypes.PARSER)
+                .setName("getParser")
+                .setModifiers(EnumSet.of(Modifier.PUBLIC))
+                .addAnnotation(Annotations.forType(Override.class))
+                .setCode(new PositionSwitchBuilder(entityTypes.size()) {
+
+                    @Override
+                    protected void writeCase(Block block, int position) {
+                        block.append("return ").append(JsonEntityFactoryBuilder.METHOD_STUB_GET_PARSER.callOnTarget(factoryTypes.get(position))).append(";");
+                    }
+                })
+                .build());
+
+        return builder.build();
+    }
+
+    private abstract static class PositionSwitchBuilder extends ExecutableBuilder {
+
+        private final int mCount;
+
+        private Variable mParamPosition;
+
+        private PositionSwitchBuilder(int count) {
+            mCount = count;
+        }
+
+        @Override
+        protected List<Variable> createParameters() {
+            final List<Variable> parameters = new ArrayList<>();
+            parameters.add(mParamPosition = Variables.of(Types.Primitives.INTEGER));
+            return parameters;
+        }
+
+        @Override
+        protected void write(Block block) {
+            final Switch.Builder switchBuilder = new Switch.Builder();
+            switchBuilder.setVariable(mParamPosition);
+
+            for (int i = 0; i < mCount; i++) {
+                final int position = i;
+                switchBuilder.addCase(Values.of(position), new BlockWriter() {
+                    @Override
+                    protected void write(Block block) {
+                        writeCase(block, position);
+                    }
+                });
+            }
+
+            switchBuilder.setDefaultCase(new BlockWriter() {
+                @Override
+                protected void write(Block block) {
+                    block.append("throw ").append(Types.of("java.lang", "IndexOutOfBoundsException").newInstance(new Block().append(Values.of("No entity at position ")).append(" + ").append(mParamPosition))).append(";");
+                }
+            });
+
+            block.append(switchBuilder.build());
+        }
+
+        protected abstract void writeCase(Block block, int position);
+    }
+}
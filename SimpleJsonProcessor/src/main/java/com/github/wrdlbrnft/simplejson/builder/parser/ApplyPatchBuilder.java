@@ -0,0 +1,130 @@
+package com.github.wrdlbrnft.simplejson.builder.parser;
+
+import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.code.CodeElement;
+import com.github.wrdlbrnft.codebuilder.elements.ifs.If;
+import com.github.wrdlbrnft.codebuilder.elements.values.Values;
+import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
+import com.github.wrdlbrnft.codebuilder.executables.Methods;
+import com.github.wrdlbrnft.codebuilder.types.Type;
+import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.util.Operators;
+import com.github.wrdlbrnft.codebuilder.variables.Field;
+import com.github.wrdlbrnft.codebuilder.variables.Variable;
+import com.github.wrdlbrnft.codebuilder.variables.Variables;
+import com.github.wrdlbrnft.simplejson.SimpleJsonTypes;
+import com.github.wrdlbrnft.simplejson.models.MappedValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Writes the body of {@code convertPatch()}. Only the fields present in the patch are parsed, all other
+ * values are taken from the base entity. For entities without setters they are shared with the new
+ * instance and if no value changes the base entity itself is returned. Entities with setters always get
+ * a new instance with copies of the untouched collections and maps, so changing the result never
+ * changes the base entity.
+ */
+class ApplyPatchBuilder extends ExecutableBuilder {
+
+    private final TypeElement mInterfaceElement;
+    private final Type mImplementationType;
+    private final List<MappedValue> mMappedValues;
+    private final EntityParser mEntityParser;
+    private final ValueAccessor mValueAccessor;
+    private final Field mInterner;
+    private final boolean mImmutable;
+
+    private Variable paramBase;
+    private Variable paramPatch;
+
+    ApplyPatchBuilder(TypeElement interfaceElement, Type implementationType, List<MappedValue> mappedValues, EntityParser entityParser, ValueAccessor valueAccessor, Field interner, boolean immutable) {
+        mInterfaceElement = interfaceElement;
+        mImplementationType = implementationType;
+        mMappedValues = mappedValues;
+        mEntityParser = entityParser;
+        mValueAccessor = valueAccessor;
+        mInterner = interner;
+        mImmutable = immutable;
+    }
+
+    @Override
+    protected List<Variable> createParameters() {
+        final List<Variable> parameters = new ArrayList<>();
+
+        parameters.add(paramBase = Variables.of(Types.of(mInterfaceElement)));
+        parameters.add(paramPatch = Variables.of(SimpleJsonTypes.JSON_OBJECT));
+
+        return parameters;
+    }
+
+    @Override
+    protected void write(Block block) {
+        final Variable[] params = new Variable[mMappedValues.size()];
+        for (int i = 0, count = mMappedValues.size(); i < count; i++) {
+            final MappedValue mappedValue = mMappedValues.get(i);
+
+            switch (mappedValue.getValueType()) {
+
+                case VALUE:
+                    params[i] = mEntityParser.patchValue(block, mappedValue, paramPatch, paramBase);
+                    break;
+
+                case LIST:
+                    params[i] = mEntityParser.patchList(block, mappedValue, paramPatch, paramBase, !mImmutable);
+                    break;
+
+                case SET:
+                    params[i] = mEntityParser.patchSet(block, mappedValue, paramPatch, paramBase, !mImmutable);
+                    break;
+
+                case MAP:
+                    params[i] = mEntityParser.patchMap(block, mappedValue, paramPatch, paramBase, !mImmutable);
+                    break;
+
+                default:
+                    throw new IllegalStateException("Encountered unknown ValueType! Compiler is broken...");
+            }
+        }
+
+        if (mImmutable) {
+            block.append(new If.Builder()
+                    .add(createUnchangedComparison(params), new Block().append("return ").append(paramBase).append(";"))
+                    .build());
+            block.newLine();
+        }
+
+        if (mInterner != null) {
+            block.append("return ").append(SimpleJsonTypes.ENTITY_INTERNER_INTERN.callOnTarget(mInterner, mImplementationType.newInstance(params))).append(";");
+        } else {
+            block.append("return ").append(mImplementationType.newInstance(params)).append(";");
+        }
+    }
+
+    /**
+     * A patch which doesn't change any value returns the base entity itself. Unchanged child entities
+     * therefore keep their identity and the parent can detect that it is unchanged as well.
+     */
+    private CodeElement createUnchangedComparison(Variable[] params) {
+        final Block comparison = new Block();
+        for (int i = 0, count = mMappedValues.size(); i < count; i++) {
+            final MappedValue mappedValue = mMappedValues.get(i);
+            final CodeElement baseValue = mValueAccessor.read(mappedValue, paramBase);
+
+            if (i > 0) {
+                comparison.append(" && ");
+            }
+
+            if (mappedValue.getBaseType().getKind().isPrimitive()) {
+                comparison.append(Operators.operate(params[i], "==", baseValue));
+            } else {
+                comparison.append("(").append(Operators.operate(params[i], "==", baseValue))
+                        .append(" || ").append(Operators.operate(params[i], "!=", Values.ofNull()))
+                        .append(" && ").append(Methods.EQUALS.callOnTarget(params[i], baseValue)).append(")");
+            }
+        }
+        return comparison;
+    }
+}
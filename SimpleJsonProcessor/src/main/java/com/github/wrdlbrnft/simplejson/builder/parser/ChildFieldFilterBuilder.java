@@ -0,0 +1,69 @@
+package com.github.wrdlbrnft.simplejson.builder.parser;
+
+import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.code.BlockWriter;
+import com.github.wrdlbrnft.codebuilder.code.CodeElement;
+import com.github.wrdlbrnft.codebuilder.elements.switches.Switch;
+import com.github.wrdlbrnft.codebuilder.elements.values.Values;
+import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
+import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.variables.Variable;
+import com.github.wrdlbrnft.codebuilder.variables.Variables;
+import com.github.wrdlbrnft.simplejson.models.MappedValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds {@code getChildFieldFilter()} of a parser, a switch over the index of each key in the field
+ * filter. The parsers of child entities live in holder classes, referencing them inside of the switch
+ * keeps the holders from being initialized before the decoder actually reaches one of their values.
+ */
+class ChildFieldFilterBuilder extends ExecutableBuilder {
+
+    private final List<MappedValue> mMappedValues;
+    private final ElementParserResolver mParserResolver;
+
+    private Variable paramIndex;
+
+    public ChildFieldFilterBuilder(List<MappedValue> mappedValues, ElementParserResolver parserResolver) {
+        mMappedValues = mappedValues;
+        mParserResolver = parserResolver;
+    }
+
+    @Override
+    protected List<Variable> createParameters() {
+        final List<Variable> parameters = new ArrayList<>();
+        parameters.add(paramIndex = Variables.of(Types.Primitives.INTEGER));
+        return parameters;
+    }
+
+    @Override
+    protected void write(Block block) {
+        final Switch.Builder switchBuilder = new Switch.Builder();
+        switchBuilder.setVariable(paramIndex);
+
+        for (int i = 0, count = mMappedValues.size(); i < count; i++) {
+            final CodeElement parser = mParserResolver.getElementParser(mMappedValues.get(i));
+            if (parser == null) {
+                continue;
+            }
+
+            switchBuilder.addCase(Values.of(i), new BlockWriter() {
+                @Override
+                protected void write(Block block) {
+                    block.append("return fieldFilterOf(").append(parser).append(");");
+                }
+            });
+        }
+
+        switchBuilder.setDefaultCase(new BlockWriter() {
+            @Override
+            protected void write(Block block) {
+                block.append("return ").append(Values.ofNull()).append(";");
+            }
+        });
+
+        block.append(switchBuilder.build());
+    }
+}
@@ -1,5 +1,10 @@
 package com.github.wrdlbrnft.simplejson.builder.parser;
 
+import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.code.BlockWriter;
+import com.github.wrdlbrnft.codebuilder.code.CodeElement;
+import com.github.wrdlbrnft.codebuilder.elements.values.Values;
+import com.github.wrdlbrnft.codebuilder.implementations.Implementation;
 import com.github.wrdlbrnft.codebuilder.types.Type;
 import com.github.wrdlbrnft.codebuilder.types.Types;
 import com.github.wrdlbrnft.codebuilder.util.Utils;
@@ -10,6 +15,8 @@ import com.github.wrdlbrnft.simplejson.builder.ParserBuilder;
 import com.github.wrdlbrnft.simplejson.builder.implementation.MethodPairInfo;
 import com.github.wrdlbrnft.simplejson.models.MappedValue;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
@@ -30,8 +37,11 @@ import javax.tools.Diagnostic;
  */
 class ElementParserResolver {
 
-    private final Map<String, Field> mParserMap = new HashMap<>();
+    private static final String LAZY_NUMBER_CLASS_NAME = "com.github.wrdlbrnft.simplejson.codec.LazyNumber";
+
+    private final Map<String, CodeElement> mParserMap = new HashMap<>();
     private final List<Field> mFields = new ArrayList<>();
+    private final List<Implementation> mHolders = new ArrayList<>();
 
     private final ProcessingEnvironment mProcessingEnvironment;
     private final ParserBuilder.BuildCache mBuildCache;
@@ -43,7 +53,35 @@ class ElementParserResolver {
         mBuildCache = buildCache;
     }
 
-    public Field getElementParserField(MappedValue mappedValue) {
+    public CodeElement getElementParser(MappedValue mappedValue) {
+        if (mappedValue.getValueType() == MappedValue.ValueType.MAP) {
+            return getMapParser(mappedValue);
+        }
+        return getItemParser(mappedValue);
+    }
+
+    private CodeElement getMapParser(MappedValue mappedValue) {
+        final TypeMirror type = mappedValue.getItemType();
+        final String key = (mappedValue.isInsertionOrdered() ? "ordered-map:" : "map:") + type.toString();
+        if (mParserMap.containsKey(key)) {
+            return mParserMap.get(key);
+        }
+
+        final CodeElement valueParser = getItemParser(mappedValue);
+        if (valueParser == null) {
+            return null;
+        }
+
+        final CodeElement parser = createLazyElementParser(
+                Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.generic(SimpleJsonTypes.MAP, Types.STRING, Types.of(type))),
+                Types.generic(SimpleJsonTypes.MAP_PARSER, Types.of(type)).newInstance(valueParser, Values.of(mappedValue.isInsertionOrdered()))
+        );
+
+        mParserMap.put(key, parser);
+        return parser;
+    }
+
+    private CodeElement getItemParser(MappedValue mappedValue) {
         final TypeMirror type = mappedValue.getItemType();
 
         final TypeElement element = (TypeElement) mProcessingEnvironment.getTypeUtils().asElement(type);
@@ -52,49 +90,64 @@ class ElementParserResolver {
             return mParserMap.get(key);
         }
 
-        final Field field;
+        final CodeElement parser;
         if (Utils.isSubTypeOf(mProcessingEnvironment, type, Enum.class) && Utils.hasAnnotation(element, SimpleJsonAnnotations.JSON_ENUM)) {
-            field = createElementParserField(
+            parser = createLazyElementParser(
                     Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.of(element)),
                     mBuildCache.getEnumParser(element)
             );
         } else if (Utils.isSameType(type, String.class)) {
-            field = createElementParserField(
+            parser = createElementParserField(
                     Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.STRING),
                     SimpleJsonTypes.STRING_PARSER
             );
         } else if (Utils.isSameType(type, int.class) || Utils.isSameType(type, Integer.class)) {
-            field = createElementParserField(
+            parser = createElementParserField(
                     Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.Boxed.INTEGER),
                     SimpleJsonTypes.INTEGER_PARSER
             );
         } else if (Utils.isSameType(type, double.class) || Utils.isSameType(type, Double.class)) {
-            field = createElementParserField(
+            parser = createElementParserField(
                     Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.Boxed.DOUBLE),
                     SimpleJsonTypes.DOUBLE_PARSER
             );
         } else if (Utils.isSameType(type, long.class) || Utils.isSameType(type, Long.class)) {
-            field = createElementParserField(
+            parser = createElementParserField(
                     Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.Boxed.LONG),
                     SimpleJsonTypes.LONG_PARSER
             );
         } else if (Utils.isSameType(type, boolean.class) || Utils.isSameType(type, Boolean.class)) {
-            field = createElementParserField(
+            parser = createElementParserField(
                     Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.Boxed.BOOLEAN),
                     SimpleJsonTypes.BOOLEAN_PARSER
             );
         } else if (Utils.isSameType(type, Date.class)) {
-            field = createElementParserField(
+            parser = createElementParserField(
                     Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.DATE),
                     SimpleJsonTypes.DATE_PARSER
             );
         } else if (Utils.isSameType(type, Calendar.class)) {
-            field = createElementParserField(
+            parser = createElementParserField(
                     Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.CALENDAR),
                     SimpleJsonTypes.CALENDAR_PARSER
             );
+        } else if (Utils.isSameType(type, BigDecimal.class)) {
+            parser = createElementParserField(
+                    Types.generic(SimpleJsonTypes.ELEMENT_PARSER, SimpleJsonTypes.BIG_DECIMAL),
+                    SimpleJsonTypes.BIG_DECIMAL_PARSER
+            );
+        } else if (Utils.isSameType(type, BigInteger.class)) {
+            parser = createElementParserField(
+                    Types.generic(SimpleJsonTypes.ELEMENT_PARSER, SimpleJsonTypes.BIG_INTEGER),
+                    SimpleJsonTypes.BIG_INTEGER_PARSER
+            );
+        } else if (element != null && element.getQualifiedName().contentEquals(LAZY_NUMBER_CLASS_NAME)) {
+            parser = createElementParserField(
+                    Types.generic(SimpleJsonTypes.ELEMENT_PARSER, SimpleJsonTypes.LAZY_NUMBER),
+                    SimpleJsonTypes.LAZY_NUMBER_PARSER
+            );
         } else if (Utils.hasAnnotation(element, SimpleJsonAnnotations.JSON_ENTITY)) {
-            field = createElementParserField(
+            parser = createLazyElementParser(
                     Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.of(type)),
                     mBuildCache.getEntityParser(element)
             );
@@ -103,40 +156,74 @@ class ElementParserResolver {
             final AnnotationValue parserClassValue = methodPairInfo.findAnnotationValue(SimpleJsonAnnotations.FIELD_NAME, "parserClass");
             if (parserClassValue != null) {
                 final TypeMirror parserTypeMirror = (TypeMirror) parserClassValue.getValue();
-                field = createElementParserField(
+                parser = createLazyElementParser(
                         Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.of(type)),
                         Types.of(parserTypeMirror)
                 );
             } else {
 
-                final Type parser = mBuildCache.getCustomParser(element);
-                if (parser == null) {
+                final Type customParser = mBuildCache.getCustomParser(element);
+                if (customParser == null) {
                     mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not find a parser for " + element.getSimpleName() + "!!1 Have you forgot to annotate it? If the class is a framework class then most likely it is not supported to be used in entities created with this library.", mInterfaceType);
                     return null;
                 }
 
-                field = createElementParserField(
+                parser = createLazyElementParser(
                         Types.generic(SimpleJsonTypes.ELEMENT_PARSER, Types.of(type)),
-                        parser
+                        customParser
                 );
             }
         }
 
-        mParserMap.put(key, field);
-        mFields.add(field);
-
-        return field;
+        mParserMap.put(key, parser);
+        return parser;
     }
 
-    private Field createElementParserField(Type baseType, Type implType) {
-        return new Field.Builder()
+    private CodeElement createElementParserField(Type baseType, Type implType) {
+        final Field field = new Field.Builder()
                 .setType(baseType)
                 .setModifiers(EnumSet.of(Modifier.PRIVATE, Modifier.FINAL, Modifier.STATIC))
                 .setInitialValue(implType.newInstance())
                 .build();
+        mFields.add(field);
+        return field;
+    }
+
+    private CodeElement createLazyElementParser(Type baseType, Type implType) {
+        return createLazyElementParser(baseType, implType.newInstance());
+    }
+
+    /**
+     * Parsers of child entities, enums and custom parsers are kept in a holder class. The holder is only
+     * initialized when the parser is used for the first time, so loading a parser does not load the
+     * parsers of all of its children.
+     */
+    private CodeElement createLazyElementParser(Type baseType, CodeElement parserInstance) {
+        final Field field = new Field.Builder()
+                .setType(baseType)
+                .setModifiers(EnumSet.of(Modifier.STATIC, Modifier.FINAL))
+                .setInitialValue(parserInstance)
+                .build();
+
+        final Implementation holder = new Implementation.Builder()
+                .setModifiers(EnumSet.of(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL))
+                .addField(field)
+                .build();
+        mHolders.add(holder);
+
+        return new BlockWriter() {
+            @Override
+            protected void write(Block block) {
+                block.append(holder).append(".").append(field);
+            }
+        };
     }
 
     public List<Field> getFields() {
         return mFields;
     }
+
+    public List<Implementation> getHolders() {
+        return mHolders;
+    }
 }
@@ -1,19 +1,21 @@
 package com.github.wrdlbrnft.simplejson.builder.parser;
 
 import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.code.CodeElement;
 import com.github.wrdlbrnft.codebuilder.elements.forloop.item.Foreach;
+import com.github.wrdlbrnft.codebuilder.elements.ifs.If;
 import com.github.wrdlbrnft.codebuilder.elements.values.Values;
-import com.github.wrdlbrnft.codebuilder.executables.Methods;
 import com.github.wrdlbrnft.codebuilder.types.Types;
-import com.github.wrdlbrnft.codebuilder.variables.Field;
+import com.github.wrdlbrnft.codebuilder.util.Utils;
 import com.github.wrdlbrnft.codebuilder.variables.Variable;
 import com.github.wrdlbrnft.codebuilder.variables.Variables;
 import com.github.wrdlbrnft.simplejson.SimpleJsonTypes;
-import com.github.wrdlbrnft.simplejson.builder.implementation.MethodPairInfo;
 import com.github.wrdlbrnft.simplejson.models.MappedValue;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
+import javax.lang.model.element.Modifier;
 import javax.lang.model.type.TypeMirror;
 
 /**
@@ -21,22 +23,37 @@ import javax.lang.model.type.TypeMirror;
  */
 class EntityFormater {
 
+    private interface ValueWriter {
+        void write(Block block, CodeElement value);
+    }
+
     private final ElementParserResolver mParserResolver;
+    private final OmissionRules mOmissionRules;
+    private final ValueAccessor mValueAccessor;
 
-    public EntityFormater(ElementParserResolver parserResolver) {
+    public EntityFormater(ElementParserResolver parserResolver, OmissionRules omissionRules, ValueAccessor valueAccessor) {
         mParserResolver = parserResolver;
+        mOmissionRules = omissionRules;
+        mValueAccessor = valueAccessor;
     }
 
-    public void formatValue(Block block, MappedValue mappedValue, Variable varJsonObject, Variable varEntity) {
-        final MethodPairInfo info = mappedValue.getMethodPairInfo();
-        final TypeMirror type = mappedValue.getItemType();
-        final Field parser = mParserResolver.getElementParserField(mappedValue);
+    public void formatValue(Block block, final MappedValue mappedValue, final Variable varJsonObject, Variable varEntity) {
+        final CodeElement parser = mParserResolver.getElementParser(mappedValue);
+
+        writeValue(block, mappedValue, varEntity, new ValueWriter() {
+            @Override
+            public void write(Block block, CodeElement value) {
+                block.append(parser).append(".toJsonObject(")
+                        .append(varJsonObject).append(", ")
+                        .append(Values.of(mappedValue.getFieldName())).append(", ")
+                        .append(value)
+                        .append(");").newLine();
+            }
+        });
+    }
 
-        block.append(parser).append(".toJsonObject(")
-                .append(varJsonObject).append(", ")
-                .append(Values.of(mappedValue.getFieldName())).append(", ")
-                .append(Methods.call(info.getGetter(), varEntity))
-                .append(");").newLine();
+    public void formatMap(Block block, MappedValue mappedValue, Variable varJsonObject, Variable varEntity) {
+        formatValue(block, mappedValue, varJsonObject, varEntity);
     }
 
     public void formatList(Block block, MappedValue mappedValue, Variable varJsonObject, Variable varEntity) {
@@ -47,25 +64,92 @@ class EntityFormater {
         formatCollection(block, mappedValue, varJsonObject, varEntity);
     }
 
-    private void formatCollection(Block block, final MappedValue mappedValue, Variable varJsonObject, final Variable varEntity) {
-        final MethodPairInfo info = mappedValue.getMethodPairInfo();
+    private void formatCollection(Block block, final MappedValue mappedValue, final Variable varJsonObject, Variable varEntity) {
         final TypeMirror type = mappedValue.getItemType();
-        final Field parser = mParserResolver.getElementParserField(mappedValue);
-        final Variable varJsonArray = Variables.of(SimpleJsonTypes.JSON_ARRAY);
-        block.set(varJsonArray, SimpleJsonTypes.JSON_ARRAY.newInstance()).append(";").newLine();
-
-        block.append(new Foreach.Builder()
-                .setItemType(Types.of(type))
-                .setCollection(Methods.call(info.getGetter(), varEntity))
-                .setIteration(new Foreach.Iteration() {
-                    @Override
-                    public void onIteration(Block block, Variable item) {
-                        block.append(parser).append(".toJsonArray(").append(varJsonArray).append(", ").append(item).append(");");
-                    }
-                })
+        final CodeElement parser = mParserResolver.getElementParser(mappedValue);
+
+        writeValue(block, mappedValue, varEntity, new ValueWriter() {
+            @Override
+            public void write(Block block, CodeElement value) {
+                final Variable varJsonArray = Variables.of(SimpleJsonTypes.JSON_ARRAY);
+                block.set(varJsonArray, SimpleJsonTypes.JSON_ARRAY.newInstance()).append(";").newLine();
+
+                block.append(new Foreach.Builder()
+                        .setItemType(Types.of(type))
+                        .setCollection(value)
+                        .setIteration(new Foreach.Iteration() {
+                            @Override
+                            public void onIteration(Block block, Variable item) {
+                                block.append(parser).append(".toJsonArray(").append(varJsonArray).append(", ").append(item).append(");");
+                            }
+                        })
+                        .build());
+                block.newLine();
+
+                block.append(varJsonObject).append(".put(").append(Values.of(mappedValue.getFieldName())).append(", ").append(varJsonArray).append(");").newLine();
+            }
+        });
+    }
+
+    /**
+     * Only {@code @Optional} fields and fields with a {@code @DefaultValue} are ever left out, because
+     * those are the only ones which can be read again when they are missing from the JSON. The
+     * conditions are decided here so entities which don't omit anything get the same code as before.
+     */
+    private void writeValue(Block block, MappedValue mappedValue, Variable varEntity, ValueWriter writer) {
+        final CodeElement defaultValue = mappedValue.getDefaultValue();
+        final boolean primitive = mappedValue.getBaseType().getKind().isPrimitive();
+        final boolean collection = mappedValue.getValueType() != MappedValue.ValueType.VALUE;
+
+        final boolean omitNull = mOmissionRules.isOmitNulls() && mappedValue.isOptional() && defaultValue == null;
+        final boolean omitEmpty = mOmissionRules.isOmitEmpty() && mappedValue.isOptional() && collection;
+        final boolean omitDefault = mOmissionRules.isOmitDefaults() && defaultValue != null;
+
+        if (!omitNull && !omitEmpty && !omitDefault) {
+            writer.write(block, mValueAccessor.read(mappedValue, varEntity));
+            return;
+        }
+
+        final Variable varValue = Variables.of(Types.of(mappedValue.getBaseType()), Modifier.FINAL);
+        block.set(varValue, mValueAccessor.read(mappedValue, varEntity)).append(";").newLine();
+
+        final List<Block> conditions = new ArrayList<>();
+        if (omitNull) {
+            conditions.add(new Block().append(varValue).append(" != ").append(Values.ofNull()));
+        }
+
+        if (omitEmpty) {
+            if (omitNull) {
+                conditions.add(new Block().append("!").append(varValue).append(".isEmpty()"));
+            } else {
+                conditions.add(new Block().append("(").append(varValue).append(" == ").append(Values.ofNull()).append(" || !").append(varValue).append(".isEmpty())"));
+            }
+        }
+
+        if (omitDefault) {
+            if (Utils.isSameType(mappedValue.getBaseType(), String.class)) {
+                conditions.add(new Block().append("!").append(defaultValue).append(".equals(").append(varValue).append(")"));
+            } else if (primitive) {
+                conditions.add(new Block().append(varValue).append(" != ").append(defaultValue));
+            } else {
+                conditions.add(new Block().append("(").append(varValue).append(" == ").append(Values.ofNull()).append(" || ").append(varValue).append(" != ").append(defaultValue).append(")"));
+            }
+        }
+
+        final Block condition = new Block();
+        for (int i = 0, count = conditions.size(); i < count; i++) {
+            if (i > 0) {
+                condition.append(" && ");
+            }
+            condition.append(conditions.get(i));
+        }
+
+        final Block trueBlock = new Block();
+        writer.write(trueBlock, varValue);
+
+        block.append(new If.Builder()
+                .add(condition, trueBlock)
                 .build());
         block.newLine();
-
-        block.append(varJsonObject).append(".put(").append(Values.of(mappedValue.getFieldName())).append(", ").append(varJsonArray).append(");").newLine();
     }
 }
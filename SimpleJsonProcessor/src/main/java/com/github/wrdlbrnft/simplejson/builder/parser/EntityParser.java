@@ -6,7 +6,11 @@ import com.github.wrdlbrnft.codebuilder.code.CodeElement;
 import com.github.wrdlbrnft.codebuilder.code.Statement;
 import com.github.wrdlbrnft.codebuilder.elements.forloop.counting.CountingFor;
 import com.github.wrdlbrnft.codebuilder.elements.ifs.If;
+import com.github.wrdlbrnft.codebuilder.elements.ifs.TernaryIf;
 import com.github.wrdlbrnft.codebuilder.elements.values.Values;
+import com.github.wrdlbrnft.codebuilder.executables.Method;
+import com.github.wrdlbrnft.codebuilder.executables.Methods;
+import com.github.wrdlbrnft.codebuilder.types.Type;
 import com.github.wrdlbrnft.codebuilder.types.Types;
 import com.github.wrdlbrnft.codebuilder.util.Operators;
 import com.github.wrdlbrnft.codebuilder.variables.Field;
@@ -23,32 +27,57 @@ import javax.lang.model.type.TypeMirror;
  */
 class EntityParser {
 
+    private static final Method METHOD_PATCH_VALUE = Methods.stub("patchValue");
+
     private final ElementParserResolver mElementParserResolver;
+    private final ValueAccessor mValueAccessor;
 
-    public EntityParser(ElementParserResolver elementParserResolver) {
+    public EntityParser(ElementParserResolver elementParserResolver, ValueAccessor valueAccessor) {
         mElementParserResolver = elementParserResolver;
+        mValueAccessor = valueAccessor;
     }
 
     public Variable parseValue(Block block, MappedValue mappedValue, final Variable varJsonObject) {
+        return parseElement(block, mappedValue, varJsonObject, Types.of(mappedValue.getItemType()), null);
+    }
+
+    public Variable parseMap(Block block, MappedValue mappedValue, final Variable varJsonObject) {
+        final Type valueType = Types.of(mappedValue.getItemType());
+        if (mappedValue.isInsertionOrdered()) {
+            final Type mapType = Types.generic(SimpleJsonTypes.LINKED_HASH_MAP, Types.STRING, valueType);
+            return parseElement(block, mappedValue, varJsonObject, mapType, mapType);
+        }
+        return parseElement(block, mappedValue, varJsonObject, Types.generic(SimpleJsonTypes.MAP, Types.STRING, valueType), null);
+    }
+
+    private Variable parseElement(Block block, MappedValue mappedValue, final Variable varJsonObject, Type variableType, final Type castType) {
         final CodeElement key = Values.of(mappedValue.getFieldName());
-        final TypeMirror type = mappedValue.getItemType();
-        final Field parser = mElementParserResolver.getElementParserField(mappedValue);
-        final Variable variable = Variables.of(Types.of(type), Modifier.FINAL);
+        final CodeElement parser = mElementParserResolver.getElementParser(mappedValue);
+        final Variable variable = Variables.of(variableType, Modifier.FINAL);
+        final CodeElement cast = new BlockWriter() {
+            @Override
+            protected void write(Block block) {
+                if (castType != null) {
+                    block.append(Types.asCast(castType)).append(" ");
+                }
+            }
+        };
 
-        if (mappedValue.isOptional()) {
+        final CodeElement defaultValue = mappedValue.getDefaultValue();
+        if (mappedValue.isOptional() || defaultValue != null) {
             block.set(variable, new BlockWriter() {
                 @Override
                 protected void write(Block block) {
                     block.append(varJsonObject).append(".has(").append(key).append(") ")
-                            .append("? ").append(parser).append(".fromJsonObject(").append(varJsonObject).append(", ").append(key).append(") ")
-                            .append(": ").append(Values.ofNull());
+                            .append("? ").append(cast).append(parser).append(".fromJsonObject(").append(varJsonObject).append(", ").append(key).append(") ")
+                            .append(": ").append(defaultValue != null ? defaultValue : Values.ofNull());
                 }
             }).append(";");
         } else {
             block.set(variable, new BlockWriter() {
                 @Override
                 protected void write(Block block) {
-                    block.append(parser).append(".fromJsonObject(").append(varJsonObject).append(", ").append(key).append(")");
+                    block.append(cast).append(parser).append(".fromJsonObject(").append(varJsonObject).append(", ").append(key).append(")");
                 }
             }).append(";");
         }
@@ -57,9 +86,121 @@ class EntityParser {
         return variable;
     }
 
+    public Variable patchValue(Block block, MappedValue mappedValue, Variable varPatch, Variable varBase) {
+        return patchElement(block, mappedValue, varPatch, varBase, Types.of(mappedValue.getItemType()), null, null);
+    }
+
+    /**
+     * @param copyUntouched If {@code true} a map which is not contained in the patch is copied instead
+     *                      of shared with {@code varBase}.
+     */
+    public Variable patchMap(Block block, MappedValue mappedValue, Variable varPatch, Variable varBase, boolean copyUntouched) {
+        final Type valueType = Types.of(mappedValue.getItemType());
+        if (mappedValue.isInsertionOrdered()) {
+            final Type mapType = Types.generic(SimpleJsonTypes.LINKED_HASH_MAP, Types.STRING, valueType);
+            return patchElement(block, mappedValue, varPatch, varBase, mapType, mapType, copyUntouched ? mapType : null);
+        }
+        final Type copyType = copyUntouched ? Types.generic(SimpleJsonTypes.HASH_MAP, Types.STRING, valueType) : null;
+        return patchElement(block, mappedValue, varPatch, varBase, Types.generic(SimpleJsonTypes.MAP, Types.STRING, valueType), null, copyType);
+    }
+
+    /**
+     * Keeps the value of {@code varBase} if the patch doesn't contain the field, as a new instance of
+     * {@code copyType} unless that is {@code null}. Otherwise the value is parsed from the patch,
+     * {@code null} resets optional fields to their default value.
+     */
+    private Variable patchElement(Block block, MappedValue mappedValue, final Variable varPatch, Variable varBase, Type variableType, final Type castType, Type copyType) {
+        final CodeElement key = Values.of(mappedValue.getFieldName());
+        final CodeElement parser = mElementParserResolver.getElementParser(mappedValue);
+        final CodeElement baseValue = mValueAccessor.read(mappedValue, varBase);
+        final CodeElement defaultValue = mappedValue.getDefaultValue();
+        final Variable variable = Variables.of(variableType, Modifier.FINAL);
+
+        final Block patchedValue = new Block();
+        if (castType != null) {
+            patchedValue.append(Types.asCast(castType)).append(" ");
+        }
+        patchedValue.append(METHOD_PATCH_VALUE.call(parser, baseValue, varPatch, key));
+
+        final CodeElement value;
+        if (mappedValue.isOptional() || defaultValue != null) {
+            value = new Block().append("(").append(new TernaryIf.Builder()
+                    .setComparison(new Block().append(varPatch).append(".isNull(").append(key).append(")"))
+                    .setTrueBlock(defaultValue != null ? defaultValue : Values.ofNull())
+                    .setFalseBlock(patchedValue)
+                    .build()).append(")");
+        } else {
+            value = patchedValue;
+        }
+
+        final CodeElement untouchedValue;
+        if (copyType != null) {
+            untouchedValue = new Block().append("(").append(new TernaryIf.Builder()
+                    .setComparison(Operators.operate(baseValue, "!=", Values.ofNull()))
+                    .setTrueBlock(copyType.newInstance(baseValue))
+                    .setFalseBlock(Values.ofNull())
+                    .build()).append(")");
+        } else {
+            untouchedValue = baseValue;
+        }
+
+        block.set(variable, new TernaryIf.Builder()
+                .setComparison(new Block().append(varPatch).append(".has(").append(key).append(")"))
+                .setTrueBlock(value)
+                .setFalseBlock(untouchedValue)
+                .build()).append(";").newLine();
+
+        return variable;
+    }
+
+    public Variable patchList(Block block, MappedValue mappedValue, Variable varPatch, Variable varBase, boolean copyUntouched) {
+        final TypeMirror itemType = mappedValue.getItemType();
+        return patchCollection(block, mappedValue, varPatch, varBase, Types.generic(Types.LIST, Types.of(itemType)), Types.generic(Types.ARRAY_LIST, Types.of(itemType)), copyUntouched);
+    }
+
+    public Variable patchSet(Block block, MappedValue mappedValue, Variable varPatch, Variable varBase, boolean copyUntouched) {
+        final TypeMirror itemType = mappedValue.getItemType();
+        return patchCollection(block, mappedValue, varPatch, varBase, Types.generic(Types.SET, Types.of(itemType)), Types.generic(Types.HASH_SET, Types.of(itemType)), copyUntouched);
+    }
+
+    /**
+     * Collections are replaced as a whole if the patch contains them, just like arrays in a JSON merge
+     * patch. Otherwise the collection of {@code varBase} is reused, or copied if {@code copyUntouched}
+     * is set.
+     */
+    private Variable patchCollection(Block block, MappedValue mappedValue, Variable varPatch, Variable varBase, Type collectionType, Type implementationType, boolean copyUntouched) {
+        final CodeElement parser = mElementParserResolver.getElementParser(mappedValue);
+        final CodeElement key = Values.of(mappedValue.getFieldName());
+        final Variable varCollection = Variables.of(collectionType);
+        block.set(varCollection, mValueAccessor.read(mappedValue, varBase)).append(";").newLine();
+
+        final Block patchBlock = new Block();
+        patchBlock.append(varCollection).append(" = ").append(implementationType.newInstance()).append(";").newLine();
+        if (mappedValue.isOptional()) {
+            final Block parseBlock = new Block();
+            parseCollection(parseBlock, varCollection, varPatch, mappedValue.getFieldName(), parser);
+            patchBlock.append(new If.Builder()
+                    .add(new Block().append("!").append(varPatch).append(".isNull(").append(key).append(")"), parseBlock)
+                    .build());
+        } else {
+            parseCollection(patchBlock, varCollection, varPatch, mappedValue.getFieldName(), parser);
+        }
+
+        final If.Builder ifBuilder = new If.Builder()
+                .add(new Block().append(varPatch).append(".has(").append(key).append(")"), patchBlock);
+        if (copyUntouched) {
+            ifBuilder.add(Operators.operate(varCollection, "!=", Values.ofNull()), new Block()
+                    .append(varCollection).append(" = ").append(implementationType.newInstance(varCollection)).append(";"));
+        }
+        block.append(ifBuilder.build());
+        block.newLine();
+
+        return varCollection;
+    }
+
     public Variable parseList(Block block, final MappedValue mappedValue, final Variable varJsonObject) {
         final TypeMirror itemType = mappedValue.getItemType();
-        final Field parser = mElementParserResolver.getElementParserField(mappedValue);
+        final CodeElement parser = mElementParserResolver.getElementParser(mappedValue);
         final Variable varList = Variables.of(Types.generic(Types.LIST, Types.of(itemType)), Modifier.FINAL);
         block.set(varList, Types.generic(Types.ARRAY_LIST, Types.of(itemType)).newInstance()).append(";").newLine();
 
@@ -71,7 +212,7 @@ class EntityParser {
 
     public Variable parseSet(Block block, final MappedValue mappedValue, final Variable varJsonObject) {
         final TypeMirror itemType = mappedValue.getItemType();
-        final Field parser = mElementParserResolver.getElementParserField(mappedValue);
+        final CodeElement parser = mElementParserResolver.getElementParser(mappedValue);
         final Variable varSet = Variables.of(Types.generic(Types.SET, Types.of(itemType)), Modifier.FINAL);
         block.set(varSet, Types.generic(Types.HASH_SET, Types.of(itemType)).newInstance()).append(";").newLine();
 
@@ -80,7 +221,63 @@ class EntityParser {
         return varSet;
     }
 
-    private void handleOptionalAnnotation(Block block, final MappedValue mappedValue, final Variable varJsonObject, final Field parser, final Variable varSet) {
+    public Variable parseListInto(Block block, MappedValue mappedValue, Variable varJsonObject, Variable varTarget, Type targetImplType, Field ownedField) {
+        final TypeMirror itemType = mappedValue.getItemType();
+        final Type listType = Types.generic(Types.LIST, Types.of(itemType));
+        return parseCollectionInto(block, mappedValue, varJsonObject, varTarget, targetImplType, ownedField, listType, Types.generic(Types.ARRAY_LIST, Types.of(itemType)));
+    }
+
+    public Variable parseSetInto(Block block, MappedValue mappedValue, Variable varJsonObject, Variable varTarget, Type targetImplType, Field ownedField) {
+        final TypeMirror itemType = mappedValue.getItemType();
+        final Type setType = Types.generic(Types.SET, Types.of(itemType));
+        return parseCollectionInto(block, mappedValue, varJsonObject, varTarget, targetImplType, ownedField, setType, Types.generic(Types.HASH_SET, Types.of(itemType)));
+    }
+
+    /**
+     * The collection of {@code varTarget} is only cleared and reused if {@code ownedField} of the
+     * generated implementation still references it. Collections which were passed to a setter, or
+     * which belong to another implementation of the entity, are left alone and a new one is allocated.
+     */
+    private Variable parseCollectionInto(Block block, MappedValue mappedValue, Variable varJsonObject, Variable varTarget, Type targetImplType, Field ownedField, Type collectionType, Type implementationType) {
+        final CodeElement parser = mElementParserResolver.getElementParser(mappedValue);
+        final Variable varExisting = Variables.of(collectionType, Modifier.FINAL);
+        block.set(varExisting, mValueAccessor.read(mappedValue, varTarget)).append(";").newLine();
+
+        final CodeElement owned = new Block()
+                .append(Operators.operate(varExisting, "!=", Values.ofNull()))
+                .append(" && ").append(varTarget).append(" instanceof ").append(targetImplType)
+                .append(" && ").append(Operators.operate(createFieldAccess(varTarget, targetImplType, ownedField), "==", varExisting));
+
+        final Variable varCollection = Variables.of(collectionType, Modifier.FINAL);
+        block.set(varCollection, new TernaryIf.Builder()
+                .setComparison(owned)
+                .setTrueBlock(varExisting)
+                .setFalseBlock(implementationType.newInstance())
+                .build()).append(";").newLine();
+        block.append(varCollection).append(".clear();").newLine();
+
+        handleOptionalAnnotation(block, mappedValue, varJsonObject, parser, varCollection);
+
+        return varCollection;
+    }
+
+    /**
+     * Records that {@code varCollection} was allocated by generated code after it was passed to the
+     * setter of {@code varTarget}.
+     */
+    public void markOwned(Block block, Variable varTarget, Type targetImplType, Field ownedField, Variable varCollection) {
+        block.append(new If.Builder()
+                .add(new Block().append(varTarget).append(" instanceof ").append(targetImplType), new Block()
+                        .append(createFieldAccess(varTarget, targetImplType, ownedField)).append(" = ").append(varCollection).append(";"))
+                .build());
+        block.newLine();
+    }
+
+    private static CodeElement createFieldAccess(Variable varTarget, Type targetImplType, Field field) {
+        return new Block().append("(").append(Types.asCast(targetImplType)).append(" ").append(varTarget).append(").").append(field);
+    }
+
+    private void handleOptionalAnnotation(Block block, final MappedValue mappedValue, final Variable varJsonObject, final CodeElement parser, final Variable varSet) {
         if (mappedValue.isOptional()) {
             final Block trueBlock = new Block();
             parseCollection(trueBlock, varSet, varJsonObject, mappedValue.getFieldName(), parser);
@@ -94,7 +291,7 @@ class EntityParser {
         }
     }
 
-    private void parseCollection(Block block, final Variable varCollection, Variable varJsonObject, String key, final Field parser) {
+    private void parseCollection(Block block, final Variable varCollection, Variable varJsonObject, String key, final CodeElement parser) {
         final Variable varJsonArray = Variables.of(SimpleJsonTypes.JSON_ARRAY, Modifier.FINAL);
 
         block.set(varJsonArray, new Block().append(varJsonObject).append(".getJSONArray(").append(Values.of(key)).append(")")).append(";").newLine();
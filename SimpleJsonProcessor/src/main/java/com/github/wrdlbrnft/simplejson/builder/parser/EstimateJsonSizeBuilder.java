@@ -0,0 +1,114 @@
+package com.github.wrdlbrnft.simplejson.builder.parser;
+
+import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.code.CodeElement;
+import com.github.wrdlbrnft.codebuilder.elements.values.Values;
+import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
+import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.util.Utils;
+import com.github.wrdlbrnft.codebuilder.variables.Variable;
+import com.github.wrdlbrnft.codebuilder.variables.Variables;
+import com.github.wrdlbrnft.simplejson.models.MappedValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Builds {@code estimateJsonSize()} of a parser. Everything that is known at compile time, the keys,
+ * the punctuation and the typical size of numbers and booleans, is added up into a single constant.
+ * Only strings, nested entities and collections are estimated at runtime.
+ */
+class EstimateJsonSizeBuilder extends ExecutableBuilder {
+
+    private static final int OBJECT_OVERHEAD = 2;
+    private static final int FIELD_OVERHEAD = 4;
+    private static final int INTEGER_SIZE = 6;
+    private static final int LONG_SIZE = 13;
+    private static final int DOUBLE_SIZE = 12;
+    private static final int BOOLEAN_SIZE = 5;
+
+    private final TypeElement mInterfaceElement;
+    private final List<MappedValue> mMappedValues;
+    private final ElementParserResolver mParserResolver;
+    private final ValueAccessor mValueAccessor;
+
+    private Variable paramEntity;
+
+    public EstimateJsonSizeBuilder(TypeElement interfaceElement, List<MappedValue> mappedValues, ElementParserResolver parserResolver, ValueAccessor valueAccessor) {
+        mInterfaceElement = interfaceElement;
+        mMappedValues = mappedValues;
+        mParserResolver = parserResolver;
+        mValueAccessor = valueAccessor;
+    }
+
+    @Override
+    protected List<Variable> createParameters() {
+        final List<Variable> parameters = new ArrayList<>();
+        parameters.add(paramEntity = Variables.of(Types.of(mInterfaceElement)));
+        return parameters;
+    }
+
+    @Override
+    protected void write(Block block) {
+        int fixedSize = OBJECT_OVERHEAD;
+        final List<CodeElement> estimates = new ArrayList<>();
+
+        for (MappedValue mappedValue : mMappedValues) {
+            fixedSize += mappedValue.getFieldName().length() + FIELD_OVERHEAD;
+
+            final CodeElement value = mValueAccessor.read(mappedValue, paramEntity);
+            switch (mappedValue.getValueType()) {
+
+                case VALUE:
+                    final int constantSize = getConstantSize(mappedValue.getItemType());
+                    if (constantSize > 0) {
+                        fixedSize += constantSize;
+                    } else if (Utils.isSameType(mappedValue.getItemType(), String.class)) {
+                        estimates.add(new Block().append("estimateStringSize(").append(value).append(")"));
+                    } else {
+                        estimates.add(createEstimate("estimateValueSize", mappedValue, value));
+                    }
+                    break;
+
+                case LIST:
+                case SET:
+                    estimates.add(createEstimate("estimateCollectionSize", mappedValue, value));
+                    break;
+
+                case MAP:
+                    estimates.add(createEstimate("estimateMapSize", mappedValue, value));
+                    break;
+
+                default:
+                    throw new IllegalStateException("Encountered unknown ValueType! Compiler is broken...");
+            }
+        }
+
+        block.append("return ").append(Values.of(fixedSize));
+        for (CodeElement estimate : estimates) {
+            block.append(" + ").append(estimate);
+        }
+        block.append(";");
+    }
+
+    private CodeElement createEstimate(String methodName, MappedValue mappedValue, CodeElement value) {
+        final CodeElement parser = mParserResolver.getElementParser(mappedValue);
+        return new Block().append(methodName).append("(").append(parser).append(", ").append(value).append(")");
+    }
+
+    private static int getConstantSize(TypeMirror type) {
+        if (Utils.isSameType(type, int.class) || Utils.isSameType(type, Integer.class)) {
+            return INTEGER_SIZE;
+        } else if (Utils.isSameType(type, long.class) || Utils.isSameType(type, Long.class)) {
+            return LONG_SIZE;
+        } else if (Utils.isSameType(type, double.class) || Utils.isSameType(type, Double.class)) {
+            return DOUBLE_SIZE;
+        } else if (Utils.isSameType(type, boolean.class) || Utils.isSameType(type, Boolean.class)) {
+            return BOOLEAN_SIZE;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.wrdlbrnft.simplejson.builder.parser;
+
+import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.elements.values.Values;
+import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
+import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.variables.Variable;
+import com.github.wrdlbrnft.simplejson.models.MappedValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds {@code createFieldFilter()} of a parser. The filter contains the keys of all mapped values, so
+ * the decoder can skip everything else. The filters of child entities are looked up through
+ * {@link ChildFieldFilterBuilder the generated switch} only once the decoder reaches one of their values.
+ */
+class FieldFilterBuilder extends ExecutableBuilder {
+
+    private final List<MappedValue> mMappedValues;
+
+    public FieldFilterBuilder(List<MappedValue> mappedValues) {
+        mMappedValues = mappedValues;
+    }
+
+    @Override
+    protected List<Variable> createParameters() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    protected void write(Block block) {
+        final Block keys = new Block();
+        for (int i = 0, count = mMappedValues.size(); i < count; i++) {
+            if (i > 0) {
+                keys.append(", ");
+            }
+            keys.append(Values.of(mMappedValues.get(i).getFieldName()));
+        }
+
+        block.append("return newFieldFilter(new ").append(Types.STRING).append("[]{").append(keys).append("});");
+    }
+}
@@ -3,6 +3,7 @@ package com.github.wrdlbrnft.simplejson.builder.parser;
 import com.github.wrdlbrnft.codebuilder.code.Block;
 import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
 import com.github.wrdlbrnft.codebuilder.types.Type;
+import com.github.wrdlbrnft.codebuilder.variables.Field;
 import com.github.wrdlbrnft.codebuilder.variables.Variable;
 import com.github.wrdlbrnft.codebuilder.variables.Variables;
 import com.github.wrdlbrnft.simplejson.SimpleJsonTypes;
@@ -19,13 +20,19 @@ class FromJsonObjectBuilder extends ExecutableBuilder {
     private final EntityParser mEntityParser;
     private final List<MappedValue> mMappedValues;
     private final Type mImplementationType;
+    private final Field mInterner;
 
     private Variable paramJsonObject;
 
-    FromJsonObjectBuilder(Type implementationType, List<MappedValue> mappedValues, EntityParser entityParser) {
+    /**
+     * @param interner The {@code EntityInterner} the new instance is passed through or {@code null} if
+     *                 the entity is not interned.
+     */
+    FromJsonObjectBuilder(Type implementationType, List<MappedValue> mappedValues, EntityParser entityParser, Field interner) {
         mEntityParser = entityParser;
         mMappedValues = mappedValues;
         mImplementationType = implementationType;
+        mInterner = interner;
     }
 
     @Override
@@ -57,11 +64,19 @@ class FromJsonObjectBuilder extends ExecutableBuilder {
                     params[i] = mEntityParser.parseSet(block, mappedValue, paramJsonObject);
                     break;
 
+                case MAP:
+                    params[i] = mEntityParser.parseMap(block, mappedValue, paramJsonObject);
+                    break;
+
                 default:
                     throw new IllegalStateException("Encountered unknown ValueType! Compiler is broken...");
             }
         }
 
-        block.append("return ").append(mImplementationType.newInstance(params)).append(";");
+        if (mInterner != null) {
+            block.append("return ").append(SimpleJsonTypes.ENTITY_INTERNER_INTERN.callOnTarget(mInterner, mImplementationType.newInstance(params))).append(";");
+        } else {
+            block.append("return ").append(mImplementationType.newInstance(params)).append(";");
+        }
     }
 }
@@ -1,41 +1,63 @@
 package com.github.wrdlbrnft.simplejson.builder.parser;
 
 import com.github.wrdlbrnft.codebuilder.annotations.Annotations;
+import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
 import com.github.wrdlbrnft.codebuilder.executables.Method;
 import com.github.wrdlbrnft.codebuilder.executables.Methods;
 import com.github.wrdlbrnft.codebuilder.implementations.Implementation;
 import com.github.wrdlbrnft.codebuilder.types.Type;
 import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.util.Utils;
 import com.github.wrdlbrnft.codebuilder.variables.Field;
+import com.github.wrdlbrnft.codebuilder.variables.Variable;
+import com.github.wrdlbrnft.simplejson.SimpleJsonAnnotations;
 import com.github.wrdlbrnft.simplejson.SimpleJsonTypes;
 import com.github.wrdlbrnft.simplejson.builder.ParserBuilder;
 import com.github.wrdlbrnft.simplejson.models.ImplementationResult;
 import com.github.wrdlbrnft.simplejson.models.MappedValue;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
 
 /**
  * Created by kapeller on 21/04/15.
  */
 public class InternalParserBuilder {
 
-    private static final String METHOD_NAME_CONVERT_FROM_JSON = "convertFromJson";
-    private static final String METHOD_NAME_CONVERT_TO_JSON = "convertToJson";
+    static final String METHOD_NAME_CONVERT_FROM_JSON = "convertFromJson";
+    static final String METHOD_NAME_CONVERT_TO_JSON = "convertToJson";
+    static final String METHOD_NAME_CONVERT_INTO = "convertInto";
+    private static final String METHOD_NAME_CONVERT_PATCH = "convertPatch";
     private static final String METHOD_NAME_FROM_JSON = "fromJson";
     private static final String METHOD_NAME_FROM_JSON_ARRAY = "fromJsonArray";
     private static final String METHOD_NAME_TO_JSON = "toJson";
     private static final String METHOD_NAME_LIST_TO_JSON = "toJson";
+    private static final String METHOD_NAME_READ_INTO = "readInto";
+    private static final String METHOD_NAME_DIFF = "diff";
+    private static final String METHOD_NAME_APPLY_PATCH = "applyPatch";
+    private static final String METHOD_NAME_MERGE = "merge";
+    private static final String METHOD_NAME_GET_ENTITY_TYPE = "getEntityType";
+    private static final String METHOD_NAME_ESTIMATE_JSON_SIZE = "estimateJsonSize";
+    private static final String METHOD_NAME_CREATE_FIELD_FILTER = "createFieldFilter";
+    private static final String METHOD_NAME_GET_CHILD_FIELD_FILTER = "getChildFieldFilter";
 
     public static final Method METHOD_STUB_FROM_JSON = Methods.stub(METHOD_NAME_FROM_JSON);
     public static final Method METHOD_STUB_FROM_JSON_ARRAY = Methods.stub(METHOD_NAME_FROM_JSON_ARRAY);
     public static final Method METHOD_STUB_TO_JSON = Methods.stub(METHOD_NAME_TO_JSON);
     public static final Method METHOD_STUB_LIST_TO_JSON = Methods.stub(METHOD_NAME_LIST_TO_JSON);
+    public static final Method METHOD_STUB_READ_INTO = Methods.stub(METHOD_NAME_READ_INTO);
+    public static final Method METHOD_STUB_DIFF = Methods.stub(METHOD_NAME_DIFF);
+    public static final Method METHOD_STUB_APPLY_PATCH = Methods.stub(METHOD_NAME_APPLY_PATCH);
+    public static final Method METHOD_STUB_MERGE = Methods.stub(METHOD_NAME_MERGE);
 
 
     private final ProcessingEnvironment mProcessingEnvironment;
@@ -58,17 +80,23 @@ public class InternalParserBuilder {
         builder.setExtendedType(parserType);
 
         final ElementParserResolver parserResolver = new ElementParserResolver(mProcessingEnvironment, interfaceElement, mBuildCache);
-        final EntityParser entityParser = new EntityParser(parserResolver);
-        final EntityFormater entityFormater = new EntityFormater(parserResolver);
+        final ValueAccessor valueAccessor = new ValueAccessor(implementationResult);
+        final EntityParser entityParser = new EntityParser(parserResolver, valueAccessor);
+        final EntityFormater entityFormater = new EntityFormater(parserResolver, OmissionRules.of(mProcessingEnvironment, interfaceElement), valueAccessor);
         prepareFieldsForLazyEvaluation(mappedValues, parserResolver);
 
+        final Field interner = isInterned(interfaceElement, implementationResult) ? createInternerField(interfaceType) : null;
+        if (interner != null) {
+            builder.addField(interner);
+        }
+
         final Method fromJsonObject = new Method.Builder()
                 .setReturnType(interfaceType)
                 .setName(METHOD_NAME_CONVERT_FROM_JSON)
                 .setModifiers(EnumSet.of(Modifier.PUBLIC))
                 .addAnnotation(Annotations.forType(Override.class))
                 .addThrownException(SimpleJsonTypes.JSON_EXCEPTION)
-                .setCode(new FromJsonObjectBuilder(implType, mappedValues, entityParser))
+                .setCode(new FromJsonObjectBuilder(implType, mappedValues, entityParser, interner))
                 .build();
         builder.addMethod(fromJsonObject);
 
@@ -82,18 +110,121 @@ public class InternalParserBuilder {
                 .build();
         builder.addMethod(toJsonObject);
 
+        final Method convertPatch = new Method.Builder()
+                .setReturnType(interfaceType)
+                .setName(METHOD_NAME_CONVERT_PATCH)
+                .setModifiers(EnumSet.of(Modifier.PROTECTED))
+                .addAnnotation(Annotations.forType(Override.class))
+                .addThrownException(SimpleJsonTypes.JSON_EXCEPTION)
+                .setCode(new ApplyPatchBuilder(interfaceElement, implType, mappedValues, entityParser, valueAccessor, interner, implementationResult.isImmutable()))
+                .build();
+        builder.addMethod(convertPatch);
+
+        final Method estimateJsonSize = new Method.Builder()
+                .setReturnType(Types.Primitives.INTEGER)
+                .setName(METHOD_NAME_ESTIMATE_JSON_SIZE)
+                .setModifiers(EnumSet.of(Modifier.PROTECTED))
+                .addAnnotation(Annotations.forType(Override.class))
+                .setCode(new EstimateJsonSizeBuilder(interfaceElement, mappedValues, parserResolver, valueAccessor))
+                .build();
+        builder.addMethod(estimateJsonSize);
+
+        final Method createFieldFilter = new Method.Builder()
+                .setReturnType(SimpleJsonTypes.FIELD_FILTER)
+                .setName(METHOD_NAME_CREATE_FIELD_FILTER)
+                .setModifiers(EnumSet.of(Modifier.PROTECTED))
+                .addAnnotation(Annotations.forType(Override.class))
+                .setCode(new FieldFilterBuilder(mappedValues))
+                .build();
+        builder.addMethod(createFieldFilter);
+
+        final Method getChildFieldFilter = new Method.Builder()
+                .setReturnType(SimpleJsonTypes.FIELD_FILTER)
+                .setName(METHOD_NAME_GET_CHILD_FIELD_FILTER)
+                .setModifiers(EnumSet.of(Modifier.PROTECTED))
+                .addAnnotation(Annotations.forType(Override.class))
+                .setCode(new ChildFieldFilterBuilder(mappedValues, parserResolver))
+                .build();
+        builder.addMethod(getChildFieldFilter);
+
+        if (implementationResult.isMutable()) {
+            final Method convertInto = new Method.Builder()
+                    .setName(METHOD_NAME_CONVERT_INTO)
+                    .setModifiers(EnumSet.of(Modifier.PUBLIC))
+                    .addAnnotation(Annotations.forType(Override.class))
+                    .addThrownException(SimpleJsonTypes.JSON_EXCEPTION)
+                    .setCode(new ReadIntoBuilder(interfaceElement, implementationResult, entityParser))
+                    .build();
+            builder.addMethod(convertInto);
+        }
+
+        builder.addMethod(createGetEntityTypeMethod(interfaceType));
+
         final List<Field> fields = parserResolver.getFields();
         for (Field field : fields) {
             builder.addField(field);
         }
 
+        final List<Implementation> holders = parserResolver.getHolders();
+        for (Implementation holder : holders) {
+            builder.addNestedImplementation(holder);
+        }
+
         return builder.build();
     }
 
+    static Method createGetEntityTypeMethod(final Type entityType) {
+        return new Method.Builder()
+                .setReturnType(Types.generic(SimpleJsonTypes.CLASS, entityType))
+                .setName(METHOD_NAME_GET_ENTITY_TYPE)
+                .setModifiers(EnumSet.of(Modifier.PROTECTED))
+                .addAnnotation(Annotations.forType(Override.class))
+                .setCode(new ExecutableBuilder() {
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        return new ArrayList<>();
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append("return ").append(entityType).append(".class;");
+                    }
+                })
+                .build();
+    }
+
+    private boolean isInterned(TypeElement interfaceElement, ImplementationResult implementationResult) {
+        final AnnotationValue value = Utils.getAnnotationValue(interfaceElement, SimpleJsonAnnotations.JSON_ENTITY, "intern");
+        if (value == null || !Boolean.TRUE.equals(value.getValue())) {
+            return false;
+        }
+
+        if (!implementationResult.isImmutable()) {
+            mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "Only entities without setters can be interned! Remove the setters of " + interfaceElement.getSimpleName() + " or don't set intern = true.", interfaceElement);
+            return false;
+        }
+
+        if (!implementationResult.isDeeplyImmutable()) {
+            mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "Only entities whose values can't change can be interned! " + interfaceElement.getSimpleName() + " contains a Date, a Calendar, a child entity with setters or another mutable value. Remove it or don't set intern = true.", interfaceElement);
+            return false;
+        }
+
+        return true;
+    }
+
+    private static Field createInternerField(Type interfaceType) {
+        return new Field.Builder()
+                .setType(Types.generic(SimpleJsonTypes.ENTITY_INTERNER, interfaceType))
+                .setModifiers(EnumSet.of(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL))
+                .setInitialValue(Types.generic(SimpleJsonTypes.ENTITY_INTERNER, interfaceType).newInstance())
+                .build();
+    }
+
     private void prepareFieldsForLazyEvaluation(List<MappedValue> mappedValues, ElementParserResolver parserResolver) {
         for (int i = 0, count = mappedValues.size(); i < count; i++) {
             final MappedValue mappedValue = mappedValues.get(i);
-            parserResolver.getElementParserField(mappedValue);
+            parserResolver.getElementParser(mappedValue);
         }
     }
 }
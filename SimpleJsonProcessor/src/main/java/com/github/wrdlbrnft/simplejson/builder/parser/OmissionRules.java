@@ -0,0 +1,56 @@
+package com.github.wrdlbrnft.simplejson.builder.parser;
+
+import com.github.wrdlbrnft.codebuilder.util.Utils;
+import com.github.wrdlbrnft.simplejson.SimpleJsonAnnotations;
+import com.github.wrdlbrnft.simplejson.builder.ParserBuilder;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Decides which fields of an entity are left out of the JSON. Each rule can be enabled for all
+ * entities with a processor option. A value set explicitly in the {@code @JsonEntity} annotation of an
+ * entity takes precedence over the option, so single entities can also opt out again.
+ */
+class OmissionRules {
+
+    private final boolean mOmitNulls;
+    private final boolean mOmitEmpty;
+    private final boolean mOmitDefaults;
+
+    private OmissionRules(boolean omitNulls, boolean omitEmpty, boolean omitDefaults) {
+        mOmitNulls = omitNulls;
+        mOmitEmpty = omitEmpty;
+        mOmitDefaults = omitDefaults;
+    }
+
+    public static OmissionRules of(ProcessingEnvironment processingEnvironment, TypeElement entityElement) {
+        return new OmissionRules(
+                isEnabled(processingEnvironment, ParserBuilder.OPTION_OMIT_NULLS, entityElement, "omitNulls"),
+                isEnabled(processingEnvironment, ParserBuilder.OPTION_OMIT_EMPTY, entityElement, "omitEmpty"),
+                isEnabled(processingEnvironment, ParserBuilder.OPTION_OMIT_DEFAULTS, entityElement, "omitDefaults")
+        );
+    }
+
+    private static boolean isEnabled(ProcessingEnvironment processingEnvironment, String option, TypeElement entityElement, String annotationField) {
+        final AnnotationValue value = Utils.getAnnotationValue(entityElement, SimpleJsonAnnotations.JSON_ENTITY, annotationField);
+        if (value != null) {
+            return Boolean.TRUE.equals(value.getValue());
+        }
+
+        return Boolean.parseBoolean(processingEnvironment.getOptions().get(option));
+    }
+
+    public boolean isOmitNulls() {
+        return mOmitNulls;
+    }
+
+    public boolean isOmitEmpty() {
+        return mOmitEmpty;
+    }
+
+    public boolean isOmitDefaults() {
+        return mOmitDefaults;
+    }
+}
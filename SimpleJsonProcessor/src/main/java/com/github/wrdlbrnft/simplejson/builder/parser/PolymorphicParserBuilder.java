@@ -0,0 +1,253 @@
+package com.github.wrdlbrnft.simplejson.builder.parser;
+
+import com.github.wrdlbrnft.codebuilder.annotations.Annotations;
+import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.code.BlockWriter;
+import com.github.wrdlbrnft.codebuilder.code.CodeElement;
+import com.github.wrdlbrnft.codebuilder.elements.ifs.If;
+import com.github.wrdlbrnft.codebuilder.elements.switches.Switch;
+import com.github.wrdlbrnft.codebuilder.elements.values.Values;
+import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
+import com.github.wrdlbrnft.codebuilder.executables.Method;
+import com.github.wrdlbrnft.codebuilder.implementations.Implementation;
+import com.github.wrdlbrnft.codebuilder.types.Type;
+import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.util.Utils;
+import com.github.wrdlbrnft.codebuilder.variables.Field;
+import com.github.wrdlbrnft.codebuilder.variables.Variable;
+import com.github.wrdlbrnft.codebuilder.variables.Variables;
+import com.github.wrdlbrnft.simplejson.SimpleJsonAnnotations;
+import com.github.wrdlbrnft.simplejson.SimpleJsonTypes;
+import com.github.wrdlbrnft.simplejson.builder.factories.entity.JsonEntityFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Builds the parser of entities annotated with {@code @JsonSubTypes}. It switches on the discriminator
+ * value to the parser of the matching subtype and falls back to the regular parser of the annotated
+ * entity itself if the value is missing or unknown.
+ */
+public class PolymorphicParserBuilder {
+
+    private static final String DEFAULT_DISCRIMINATOR_KEY = "type";
+
+    private final ProcessingEnvironment mProcessingEnvironment;
+
+    public PolymorphicParserBuilder(ProcessingEnvironment processingEnvironment) {
+        mProcessingEnvironment = processingEnvironment;
+    }
+
+    public static boolean isPolymorphic(TypeElement element) {
+        return Utils.hasAnnotation(element, SimpleJsonAnnotations.JSON_SUB_TYPES);
+    }
+
+    public Implementation build(TypeElement baseElement, Type baseParserType) {
+        final String key = getDiscriminatorKey(baseElement);
+        final List<SubType> subTypes = getSubTypes(baseElement);
+
+        final Type baseType = Types.of(baseElement);
+
+        final Implementation.Builder builder = new Implementation.Builder();
+        builder.setModifiers(EnumSet.of(Modifier.PRIVATE, Modifier.STATIC));
+        builder.setExtendedType(Types.generic(SimpleJsonTypes.BASE_PARSER, baseType));
+
+        final Field baseParserField = new Field.Builder()
+                .setType(Types.generic(SimpleJsonTypes.PARSER, baseType))
+                .setModifiers(EnumSet.of(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL))
+                .setInitialValue(baseParserType.newInstance())
+                .build();
+        builder.addField(baseParserField);
+
+        builder.addMethod(new Method.Builder()
+                .setReturnType(baseType)
+                .setName(InternalParserBuilder.METHOD_NAME_CONVERT_FROM_JSON)
+                .setModifiers(EnumSet.of(Modifier.PUBLIC))
+                .addAnnotation(Annotations.forType(Override.class))
+                .addThrownException(SimpleJsonTypes.JSON_EXCEPTION)
+                .setCode(new ExecutableBuilder() {
+
+                    private Variable paramJsonObject;
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        final List<Variable> parameters = new ArrayList<>();
+                        parameters.add(paramJsonObject = Variables.of(SimpleJsonTypes.JSON_OBJECT));
+                        return parameters;
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        final Variable varDiscriminator = Variables.of(Types.STRING, Modifier.FINAL);
+                        block.set(varDiscriminator, new Block().append(paramJsonObject).append(".optString(").append(Values.of(key)).append(", ").append(Values.of("")).append(")")).append(";").newLine();
+
+                        final Switch.Builder switchBuilder = new Switch.Builder();
+                        switchBuilder.setVariable(varDiscriminator);
+
+                        for (final SubType subType : subTypes) {
+                            switchBuilder.addCase(Values.of(subType.mDiscriminator), new BlockWriter() {
+                                @Override
+                                protected void write(Block block) {
+                                    block.append("return ").append(subType.mParser).append(".fromJsonObject(").append(paramJsonObject).append(");");
+                                }
+                            });
+                        }
+
+                        switchBuilder.setDefaultCase(new BlockWriter() {
+                            @Override
+                            protected void write(Block block) {
+                                block.append("return ").append(baseParserField).append(".fromJsonObject(").append(paramJsonObject).append(");");
+                            }
+                        });
+
+                        block.append(switchBuilder.build());
+                    }
+                })
+                .build());
+
+        builder.addMethod(new Method.Builder()
+                .setReturnType(SimpleJsonTypes.JSON_OBJECT)
+                .setName(InternalParserBuilder.METHOD_NAME_CONVERT_TO_JSON)
+                .setModifiers(EnumSet.of(Modifier.PUBLIC))
+                .addAnnotation(Annotations.forType(Override.class))
+                .addThrownException(SimpleJsonTypes.JSON_EXCEPTION)
+                .setCode(new ExecutableBuilder() {
+
+                    private Variable paramEntity;
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        final List<Variable> parameters = new ArrayList<>();
+                        parameters.add(paramEntity = Variables.of(baseType));
+                        return parameters;
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        for (SubType subType : subTypes) {
+                            final Block trueBlock = new Block();
+                            final Variable varJsonObject = Variables.of(SimpleJsonTypes.JSON_OBJECT, Modifier.FINAL);
+                            trueBlock.set(varJsonObject, new Block().append(subType.mParser).append(".toJsonObject(").append(Types.asCast(subType.mType)).append(" ").append(paramEntity).append(")")).append(";").newLine();
+                            trueBlock.append(varJsonObject).append(".put(").append(Values.of(key)).append(", ").append(Values.of(subType.mDiscriminator)).append(");").newLine();
+                            trueBlock.append("return ").append(varJsonObject).append(";");
+
+                            block.append(new If.Builder()
+                                    .add(new Block().append(paramEntity).append(" instanceof ").append(subType.mType), trueBlock)
+                                    .build());
+                            block.newLine();
+                        }
+
+                        block.append("return ").append(baseParserField).append(".toJsonObject(").append(paramEntity).append(");");
+                    }
+                })
+                .build());
+
+        builder.addMethod(new Method.Builder()
+                .setName(InternalParserBuilder.METHOD_NAME_CONVERT_INTO)
+                .setModifiers(EnumSet.of(Modifier.PUBLIC))
+                .addAnnotation(Annotations.forType(Override.class))
+                .addThrownException(SimpleJsonTypes.JSON_EXCEPTION)
+                .setCode(new ExecutableBuilder() {
+
+                    private Variable paramTarget;
+                    private Variable paramJsonObject;
+
+                    @Override
+                    protected List<Variable> createParameters() {
+                        final List<Variable> parameters = new ArrayList<>();
+                        parameters.add(paramTarget = Variables.of(baseType));
+                        parameters.add(paramJsonObject = Variables.of(SimpleJsonTypes.JSON_OBJECT));
+                        return parameters;
+                    }
+
+                    @Override
+                    protected void write(Block block) {
+                        block.append(InternalParserBuilder.METHOD_STUB_READ_INTO.callOnTarget(baseParserField, paramTarget, paramJsonObject)).append(";");
+                    }
+                })
+                .build());
+
+        builder.addMethod(InternalParserBuilder.createGetEntityTypeMethod(baseType));
+
+        return builder.build();
+    }
+
+    private String getDiscriminatorKey(TypeElement baseElement) {
+        final AnnotationValue keyValue = Utils.getAnnotationValue(baseElement, SimpleJsonAnnotations.JSON_SUB_TYPES, "key");
+        if (keyValue != null && keyValue.getValue() != null) {
+            return keyValue.getValue().toString();
+        }
+        return DEFAULT_DISCRIMINATOR_KEY;
+    }
+
+    private List<SubType> getSubTypes(TypeElement baseElement) {
+        final List<SubType> subTypes = new ArrayList<>();
+        final Map<String, TypeElement> discriminatorMap = new HashMap<>();
+
+        final AnnotationValue subTypesValue = Utils.getAnnotationValue(baseElement, SimpleJsonAnnotations.JSON_SUB_TYPES, "value");
+        if (subTypesValue == null) {
+            return subTypes;
+        }
+
+        final List<?> values = (List<?>) subTypesValue.getValue();
+        for (Object value : values) {
+            final TypeMirror subTypeMirror = (TypeMirror) ((AnnotationValue) value).getValue();
+            final TypeElement subTypeElement = (TypeElement) mProcessingEnvironment.getTypeUtils().asElement(subTypeMirror);
+
+            if (!Utils.isSubTypeOf(mProcessingEnvironment, subTypeMirror, baseElement.asType())) {
+                mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, subTypeElement.getSimpleName() + " is not a subtype of " + baseElement.getSimpleName() + "!", baseElement);
+                continue;
+            }
+
+            if (!Utils.hasAnnotation(subTypeElement, SimpleJsonAnnotations.JSON_ENTITY)) {
+                mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "The subtype " + subTypeElement.getSimpleName() + " has to be annotated with @JsonEntity!", baseElement);
+                continue;
+            }
+
+            final AnnotationValue discriminatorValue = Utils.getAnnotationValue(subTypeElement, SimpleJsonAnnotations.MAP_TO, "value");
+            if (discriminatorValue == null) {
+                mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "The subtype " + subTypeElement.getSimpleName() + " needs a @MapTo annotation which defines the value of the discriminator!", subTypeElement);
+                continue;
+            }
+
+            final String discriminator = discriminatorValue.getValue().toString();
+            final TypeElement duplicateElement = discriminatorMap.put(discriminator, subTypeElement);
+            if (duplicateElement != null) {
+                mProcessingEnvironment.getMessager().printMessage(Diagnostic.Kind.ERROR, "The subtypes " + duplicateElement.getSimpleName() + " and " + subTypeElement.getSimpleName() + " use the same discriminator value \"" + discriminator + "\"!", baseElement);
+                continue;
+            }
+
+            final Type factoryType = Types.of(Utils.getPackageName(subTypeElement), JsonEntityFactoryBuilder.createFactoryName(subTypeElement));
+            subTypes.add(new SubType(
+                    Types.of(subTypeElement),
+                    discriminator,
+                    JsonEntityFactoryBuilder.METHOD_STUB_GET_PARSER.callOnTarget(factoryType)
+            ));
+        }
+
+        return subTypes;
+    }
+
+    private static class SubType {
+
+        private final Type mType;
+        private final String mDiscriminator;
+        private final CodeElement mParser;
+
+        private SubType(Type type, String discriminator, CodeElement parser) {
+            mType = type;
+            mDiscriminator = discriminator;
+            mParser = parser;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.wrdlbrnft.simplejson.builder.parser;
+
+import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.executables.ExecutableBuilder;
+import com.github.wrdlbrnft.codebuilder.types.Type;
+import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.variables.Field;
+import com.github.wrdlbrnft.codebuilder.variables.Variable;
+import com.github.wrdlbrnft.codebuilder.variables.Variables;
+import com.github.wrdlbrnft.simplejson.SimpleJsonTypes;
+import com.github.wrdlbrnft.simplejson.models.ImplementationResult;
+import com.github.wrdlbrnft.simplejson.models.MappedValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Writes the body of {@code convertInto()} which overwrites the fields of an existing mutable entity
+ * through its setters. Collections already present in the entity are cleared and reused, but only if
+ * they were allocated by generated code.
+ */
+class ReadIntoBuilder extends ExecutableBuilder {
+
+    private final TypeElement mInterfaceElement;
+    private final ImplementationResult mImplementationResult;
+    private final List<MappedValue> mMappedValues;
+    private final EntityParser mEntityParser;
+
+    private Variable paramTarget;
+    private Variable paramJsonObject;
+
+    ReadIntoBuilder(TypeElement interfaceElement, ImplementationResult implementationResult, EntityParser entityParser) {
+        mInterfaceElement = interfaceElement;
+        mImplementationResult = implementationResult;
+        mMappedValues = implementationResult.getMappedValues();
+        mEntityParser = entityParser;
+    }
+
+    @Override
+    protected List<Variable> createParameters() {
+        final List<Variable> parameters = new ArrayList<>();
+
+        parameters.add(paramTarget = Variables.of(Types.of(mInterfaceElement)));
+        parameters.add(paramJsonObject = Variables.of(SimpleJsonTypes.JSON_OBJECT));
+
+        return parameters;
+    }
+
+    @Override
+    protected void write(Block block) {
+        final Type implType = mImplementationResult.getImplType();
+        for (int i = 0, count = mMappedValues.size(); i < count; i++) {
+            final MappedValue mappedValue = mMappedValues.get(i);
+            final Field ownedField = mImplementationResult.getOwnedCollectionField(mappedValue);
+
+            final Variable value;
+            switch (mappedValue.getValueType()) {
+
+                case VALUE:
+                    value = mEntityParser.parseValue(block, mappedValue, paramJsonObject);
+                    break;
+
+                case LIST:
+                    value = mEntityParser.parseListInto(block, mappedValue, paramJsonObject, paramTarget, implType, ownedField);
+                    break;
+
+                case SET:
+                    value = mEntityParser.parseSetInto(block, mappedValue, paramJsonObject, paramTarget, implType, ownedField);
+                    break;
+
+                case MAP:
+                    value = mEntityParser.parseMap(block, mappedValue, paramJsonObject);
+                    break;
+
+                default:
+                    throw new IllegalStateException("Encountered unknown ValueType! Compiler is broken...");
+            }
+
+            final ExecutableElement setter = mappedValue.getMethodPairInfo().getSetter();
+            block.append(paramTarget).append(".").append(setter.getSimpleName().toString())
+                    .append("(").append(value).append(");").newLine();
+
+            if (ownedField != null) {
+                mEntityParser.markOwned(block, paramTarget, implType, ownedField, value);
+            }
+        }
+    }
+}
@@ -62,6 +62,10 @@ class ToJsonObjectBuilder extends ExecutableBuilder {
                     mEntityFormater.formatSet(block, mappedValue, varJsonObject, paramEntity);
                     break;
 
+                case MAP:
+                    mEntityFormater.formatMap(block, mappedValue, varJsonObject, paramEntity);
+                    break;
+
                 default:
                     throw new IllegalStateException("Encountered unknown ValueType! Compiler is broken...");
             }
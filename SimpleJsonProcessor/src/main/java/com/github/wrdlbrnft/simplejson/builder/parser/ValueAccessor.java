@@ -0,0 +1,40 @@
+package com.github.wrdlbrnft.simplejson.builder.parser;
+
+import com.github.wrdlbrnft.codebuilder.code.Block;
+import com.github.wrdlbrnft.codebuilder.code.CodeElement;
+import com.github.wrdlbrnft.codebuilder.elements.ifs.TernaryIf;
+import com.github.wrdlbrnft.codebuilder.executables.Methods;
+import com.github.wrdlbrnft.codebuilder.types.Type;
+import com.github.wrdlbrnft.codebuilder.types.Types;
+import com.github.wrdlbrnft.codebuilder.variables.Variable;
+import com.github.wrdlbrnft.simplejson.models.ImplementationResult;
+import com.github.wrdlbrnft.simplejson.models.MappedValue;
+
+/**
+ * Reads the values of an entity in generated code. Usually that is just a call to the getter, but the
+ * getter of a {@code LinkedHashMap} of an entity without setters returns a copy. For the generated
+ * implementation the field is read directly instead, so writing, estimating or patching an entity
+ * doesn't copy its maps.
+ */
+class ValueAccessor {
+
+    private final ImplementationResult mImplementationResult;
+
+    ValueAccessor(ImplementationResult implementationResult) {
+        mImplementationResult = implementationResult;
+    }
+
+    public CodeElement read(MappedValue mappedValue, Variable varEntity) {
+        final CodeElement getterCall = Methods.call(mappedValue.getMethodPairInfo().getGetter(), varEntity);
+        if (!mImplementationResult.isCopiedByGetter(mappedValue)) {
+            return getterCall;
+        }
+
+        final Type implType = mImplementationResult.getImplType();
+        return new Block().append("(").append(new TernaryIf.Builder()
+                .setComparison(new Block().append(varEntity).append(" instanceof ").append(implType))
+                .setTrueBlock(new Block().append("(").append(Types.asCast(implType)).append(" ").append(varEntity).append(").").append(mappedValue.getField()))
+                .setFalseBlock(getterCall)
+                .build()).append(")");
+    }
+}
@@ -2,8 +2,10 @@ package com.github.wrdlbrnft.simplejson.models;
 
 import com.github.wrdlbrnft.codebuilder.implementations.Implementation;
 import com.github.wrdlbrnft.codebuilder.types.Type;
+import com.github.wrdlbrnft.codebuilder.variables.Field;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.lang.model.element.TypeElement;
 
@@ -15,11 +17,15 @@ public class ImplementationResult {
     private final TypeElement mInterfaceType;
     private final Implementation mImplType;
     private final List<MappedValue> mMappedValues;
+    private final Map<MappedValue, Field> mOwnedCollectionFields;
+    private final boolean mDeeplyImmutable;
 
-    public ImplementationResult(Implementation implType, TypeElement interfaceType, List<MappedValue> mappedValues) {
+    public ImplementationResult(Implementation implType, TypeElement interfaceType, List<MappedValue> mappedValues, Map<MappedValue, Field> ownedCollectionFields, boolean deeplyImmutable) {
         mInterfaceType = interfaceType;
         mImplType = implType;
         mMappedValues = mappedValues;
+        mOwnedCollectionFields = ownedCollectionFields;
+        mDeeplyImmutable = deeplyImmutable;
     }
 
     public Implementation getImplType() {
@@ -33,4 +39,75 @@ public class ImplementationResult {
     public TypeElement getInterfaceType() {
         return mInterfaceType;
     }
+
+    /**
+     * Returns the field of the implementation which references the collection of {@code mappedValue}
+     * as long as it was allocated by generated code, or {@code null} if the entity is not mutable.
+     * Only such collections can be cleared and reused when JSON is read into an existing entity.
+     */
+    public Field getOwnedCollectionField(MappedValue mappedValue) {
+        return mOwnedCollectionFields.get(mappedValue);
+    }
+
+    public boolean isMutable() {
+        return isMutable(mMappedValues);
+    }
+
+    /**
+     * Entities are mutable if every value has a setter. Entities without any values are neither
+     * mutable nor immutable.
+     */
+    public static boolean isMutable(List<MappedValue> mappedValues) {
+        if (mappedValues.isEmpty()) {
+            return false;
+        }
+
+        for (MappedValue mappedValue : mappedValues) {
+            if (mappedValue.getMethodPairInfo().getSetter() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isImmutable() {
+        return isImmutable(mMappedValues);
+    }
+
+    /**
+     * Entities are immutable if none of their values has a setter. Their collections are wrapped as
+     * unmodifiable, but their values may still change if those are mutable themselves.
+     */
+    public static boolean isImmutable(List<MappedValue> mappedValues) {
+        if (mappedValues.isEmpty()) {
+            return false;
+        }
+
+        for (MappedValue mappedValue : mappedValues) {
+            if (mappedValue.getMethodPairInfo().getSetter() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the entity is immutable and none of its values can change either. Only
+     * then its hash code is cached and it can be interned.
+     */
+    public boolean isDeeplyImmutable() {
+        return mDeeplyImmutable;
+    }
+
+    public boolean isCopiedByGetter(MappedValue mappedValue) {
+        return isCopiedByGetter(mappedValue, isImmutable());
+    }
+
+    /**
+     * A {@code LinkedHashMap} of an immutable entity can't be wrapped as unmodifiable without changing
+     * its type, so its getter returns a copy. Generated code reads the field instead.
+     */
+    public static boolean isCopiedByGetter(MappedValue mappedValue, boolean immutable) {
+        return immutable && mappedValue.getValueType() == MappedValue.ValueType.MAP && mappedValue.isInsertionOrdered();
+    }
 }
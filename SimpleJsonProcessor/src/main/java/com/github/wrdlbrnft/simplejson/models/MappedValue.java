@@ -1,5 +1,6 @@
 package com.github.wrdlbrnft.simplejson.models;
 
+import com.github.wrdlbrnft.codebuilder.code.CodeElement;
 import com.github.wrdlbrnft.codebuilder.variables.Field;
 import com.github.wrdlbrnft.simplejson.builder.implementation.MethodPairInfo;
 
@@ -12,7 +13,8 @@ public class MappedValue {
     public enum ValueType {
         VALUE,
         LIST,
-        SET
+        SET,
+        MAP
     }
 
     private final boolean mOptional;
@@ -22,8 +24,10 @@ public class MappedValue {
     private final ValueType mValueType;
     private final MethodPairInfo mMethodPairInfo;
     private final Field mField;
+    private final boolean mInsertionOrdered;
+    private final CodeElement mDefaultValue;
 
-    public MappedValue(String fieldName, TypeMirror baseType, TypeMirror itemType, boolean optional, ValueType valueType, MethodPairInfo methodPairInfo, Field field) {
+    public MappedValue(String fieldName, TypeMirror baseType, TypeMirror itemType, boolean optional, ValueType valueType, MethodPairInfo methodPairInfo, Field field, boolean insertionOrdered, CodeElement defaultValue) {
         mBaseType = baseType;
         mItemType = itemType;
         mFieldName = fieldName;
@@ -31,6 +35,8 @@ public class MappedValue {
         mValueType = valueType;
         mMethodPairInfo = methodPairInfo;
         mField = field;
+        mInsertionOrdered = insertionOrdered;
+        mDefaultValue = defaultValue;
     }
 
     public boolean isOptional() {
@@ -60,4 +66,12 @@ public class MappedValue {
     public Field getField() {
         return mField;
     }
+
+    public boolean isInsertionOrdered() {
+        return mInsertionOrdered;
+    }
+
+    public CodeElement getDefaultValue() {
+        return mDefaultValue;
+    }
 }